@@ -63,4 +63,23 @@ public @interface One {
    */
   FetchType fetchType() default FetchType.DEFAULT;
 
+  /**
+   * Returns the maximum number of keys loaded by one execution of the nested statement. When set, the nested statement
+   * receives the keys of several parents as a list and its results are matched to the parents with the
+   * {@link #foreignColumn()}.
+   *
+   * @return the batch size, 0 (the default) to execute the nested statement once per parent
+   * @since 3.5.5
+   */
+  int batchSize() default 0;
+
+  /**
+   * Returns the column of the nested statement results that is matched against the column of the parent when the
+   * nested statement is batched.
+   *
+   * @return the foreign column
+   * @since 3.5.5
+   */
+  String foreignColumn() default "";
+
 }
@@ -135,4 +135,13 @@ public @interface Options {
    * @return result set names that separate with comma(',')
    */
   String resultSets() default "";
+
+  /**
+   * Returns the number of rows that a {@link org.apache.ibatis.cursor.Cursor} reads and maps ahead of the caller on a
+   * background thread. A value of zero or less disables prefetching.
+   *
+   * @return the number of rows to prefetch
+   * @since 3.5.5
+   */
+  int cursorPrefetch() default 0;
 }
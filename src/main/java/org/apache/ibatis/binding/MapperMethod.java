@@ -23,6 +23,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
@@ -37,6 +39,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
 
 /**
  * @author Clinton Begin
@@ -55,6 +58,27 @@ public class MapperMethod {
   }
 
   public Object execute(SqlSession sqlSession, Object[] args) {
+    if (method.returnsFuture()) {
+      return executeAsync(sqlSession.getConfiguration(), args);
+    }
+    return executeCommand(sqlSession, args);
+  }
+
+  /**
+   * Runs the command in a new session on the asynchronous executor of the configuration. The session is committed
+   * when the command succeeds and rolled back otherwise, independently of the session of the caller.
+   */
+  private CompletableFuture<Object> executeAsync(Configuration configuration, Object[] args) {
+    return CompletableFuture.supplyAsync(() -> {
+      try (SqlSession sqlSession = new DefaultSqlSessionFactory(configuration).openSession()) {
+        Object result = executeCommand(sqlSession, args);
+        sqlSession.commit();
+        return result;
+      }
+    }, configuration.getAsyncExecutor());
+  }
+
+  private Object executeCommand(SqlSession sqlSession, Object[] args) {
     Object result;
     switch (command.getType()) {
       case INSERT: {
@@ -82,6 +106,8 @@ public class MapperMethod {
           result = executeForMap(sqlSession, args);
         } else if (method.returnsCursor()) {
           result = executeForCursor(sqlSession, args);
+        } else if (method.returnsStream()) {
+          result = executeForCursor(sqlSession, args).stream();
         } else {
           Object param = method.convertArgsToSqlCommandParam(args);
           result = sqlSession.selectOne(command.getName(), param);
@@ -278,7 +304,9 @@ public class MapperMethod {
     private final boolean returnsMap;
     private final boolean returnsVoid;
     private final boolean returnsCursor;
+    private final boolean returnsStream;
     private final boolean returnsOptional;
+    private final boolean returnsFuture;
     private final Class<?> returnType;
     private final String mapKey;
     private final Integer resultHandlerIndex;
@@ -287,24 +315,40 @@ public class MapperMethod {
 
     public MethodSignature(Configuration configuration, Class<?> mapperInterface, Method method) {
       Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, mapperInterface);
-      if (resolvedReturnType instanceof Class<?>) {
-        this.returnType = (Class<?>) resolvedReturnType;
-      } else if (resolvedReturnType instanceof ParameterizedType) {
-        this.returnType = (Class<?>) ((ParameterizedType) resolvedReturnType).getRawType();
+      this.returnsFuture = CompletableFuture.class.equals(toClass(resolvedReturnType, method.getReturnType()));
+      if (this.returnsFuture) {
+        // the other properties describe the result of the future
+        resolvedReturnType = resolvedReturnType instanceof ParameterizedType
+            ? ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0] : Object.class;
+        this.returnType = toClass(resolvedReturnType, Object.class);
       } else {
-        this.returnType = method.getReturnType();
+        this.returnType = toClass(resolvedReturnType, method.getReturnType());
       }
-      this.returnsVoid = void.class.equals(this.returnType);
+      this.returnsVoid = void.class.equals(this.returnType) || (this.returnsFuture && Void.class.equals(this.returnType));
       this.returnsMany = configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
       this.returnsCursor = Cursor.class.equals(this.returnType);
+      this.returnsStream = Stream.class.equals(this.returnType);
+      if (this.returnsFuture && (this.returnsCursor || this.returnsStream)) {
+        throw new BindingException("Mapper method '" + method.getName() + "' cannot return a "
+            + this.returnType.getSimpleName() + " asynchronously because its session is closed when the future completes.");
+      }
       this.returnsOptional = Optional.class.equals(this.returnType);
-      this.mapKey = getMapKey(method);
+      this.mapKey = getMapKey(method, this.returnType);
       this.returnsMap = this.mapKey != null;
       this.rowBoundsIndex = getUniqueParamIndex(method, RowBounds.class);
       this.resultHandlerIndex = getUniqueParamIndex(method, ResultHandler.class);
       this.paramNameResolver = new ParamNameResolver(configuration, method);
     }
 
+    private static Class<?> toClass(Type type, Class<?> defaultType) {
+      if (type instanceof Class<?>) {
+        return (Class<?>) type;
+      } else if (type instanceof ParameterizedType) {
+        return (Class<?>) ((ParameterizedType) type).getRawType();
+      }
+      return defaultType;
+    }
+
     public Object convertArgsToSqlCommandParam(Object[] args) {
       return paramNameResolver.getNamedParams(args);
     }
@@ -345,6 +389,16 @@ public class MapperMethod {
       return returnsCursor;
     }
 
+    /**
+     * Returns whether the return type is {@code java.util.stream.Stream}.
+     *
+     * @return {@code true} if the method returns a stream backed by a cursor
+     * @since 3.5.5
+     */
+    public boolean returnsStream() {
+      return returnsStream;
+    }
+
     /**
      * return whether return type is {@code java.util.Optional}.
      *
@@ -355,6 +409,17 @@ public class MapperMethod {
       return returnsOptional;
     }
 
+    /**
+     * Returns whether the return type is {@code java.util.concurrent.CompletableFuture}. In that case the other
+     * properties of this signature, such as {@link #getReturnType()}, describe the result of the future.
+     *
+     * @return {@code true} if the method is executed asynchronously
+     * @since 3.5.5
+     */
+    public boolean returnsFuture() {
+      return returnsFuture;
+    }
+
     private Integer getUniqueParamIndex(Method method, Class<?> paramType) {
       Integer index = null;
       final Class<?>[] argTypes = method.getParameterTypes();
@@ -374,9 +439,9 @@ public class MapperMethod {
       return mapKey;
     }
 
-    private String getMapKey(Method method) {
+    private String getMapKey(Method method, Class<?> returnType) {
       String mapKey = null;
-      if (Map.class.isAssignableFrom(method.getReturnType())) {
+      if (Map.class.isAssignableFrom(returnType)) {
         final MapKey mapKeyAnnotation = method.getAnnotation(MapKey.class);
         if (mapKeyAnnotation != null) {
           mapKey = mapKeyAnnotation.value();
@@ -0,0 +1,91 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * A snapshot of the statistics of the local (first level) cache of a session.
+ *
+ * @since 3.5.5
+ * @see org.apache.ibatis.session.SqlSession#getLocalCacheStatistics()
+ */
+public class LocalCacheStatistics {
+
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+  private final int size;
+  private final long estimatedBytes;
+
+  public LocalCacheStatistics(long hits, long misses, long evictions, int size, long estimatedBytes) {
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.size = size;
+    this.estimatedBytes = estimatedBytes;
+  }
+
+  /**
+   * Returns the number of queries answered from the local cache.
+   *
+   * @return the number of hits
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of queries sent to the database because their result was not in the local cache.
+   *
+   * @return the number of misses
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of entries removed because the local cache exceeded its bounds.
+   *
+   * @return the number of evictions
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Returns the number of entries currently in the local cache.
+   *
+   * @return the number of entries
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the estimated size of the values in the local cache, when it is bounded in bytes.
+   *
+   * @return the estimated size in bytes, or 0 when the local cache is not bounded in bytes
+   */
+  public long getEstimatedBytes() {
+    return estimatedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "LocalCacheStatistics [hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", size=" + size
+        + ", estimatedBytes=" + estimatedBytes + "]";
+  }
+
+}
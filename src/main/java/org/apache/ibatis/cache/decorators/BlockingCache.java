@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2020 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,10 +15,11 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
@@ -29,6 +30,9 @@ import org.apache.ibatis.cache.CacheException;
  * Simple and inefficient version of EhCache's BlockingCache decorator.
  * It sets a lock over a cache key when the element is not found in cache.
  * This way, other threads will wait until this element is filled instead of hitting the database.
+ * <p>
+ * The lock is a future that is removed as soon as the element is put or the lock is released, so locks are not kept
+ * for keys that are not being loaded.
  *
  * @author Eduardo Macarron
  *
@@ -37,7 +41,7 @@ public class BlockingCache implements Cache {
 
   private long timeout;
   private final Cache delegate;
-  private final ConcurrentHashMap<Object, ReentrantLock> locks;
+  private final ConcurrentHashMap<Object, KeyLock> locks;
 
   public BlockingCache(Cache delegate) {
     this.delegate = delegate;
@@ -65,10 +69,17 @@ public class BlockingCache implements Cache {
 
   @Override
   public Object getObject(Object key) {
-    acquireLock(key);
     Object value = delegate.getObject(key);
-    if (value != null) {
-      releaseLock(key);
+    while (value == null) {
+      if (acquireLock(key)) {
+        // the element may have been put before the lock was acquired
+        value = delegate.getObject(key);
+        if (value != null) {
+          releaseLock(key);
+        }
+        return value;
+      }
+      value = delegate.getObject(key);
     }
     return value;
   }
@@ -85,30 +96,38 @@ public class BlockingCache implements Cache {
     delegate.clear();
   }
 
-  private ReentrantLock getLockForKey(Object key) {
-    return locks.computeIfAbsent(key, k -> new ReentrantLock());
-  }
-
-  private void acquireLock(Object key) {
-    Lock lock = getLockForKey(key);
-    if (timeout > 0) {
-      try {
-        boolean acquired = lock.tryLock(timeout, TimeUnit.MILLISECONDS);
-        if (!acquired) {
-          throw new CacheException("Couldn't get a lock in " + timeout + " for the key " +  key + " at the cache " + delegate.getId());
-        }
-      } catch (InterruptedException e) {
-        throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+  /**
+   * Acquires the lock for the given key or waits until the current holder releases it.
+   *
+   * @return true if the lock was acquired by the current thread, false if it was released by another thread
+   */
+  private boolean acquireLock(Object key) {
+    KeyLock newLock = new KeyLock();
+    KeyLock lock = locks.putIfAbsent(key, newLock);
+    if (lock == null || lock.owner == Thread.currentThread()) {
+      return true;
+    }
+    try {
+      if (timeout > 0) {
+        lock.get(timeout, TimeUnit.MILLISECONDS);
+      } else {
+        lock.get();
       }
-    } else {
-      lock.lock();
+    } catch (TimeoutException e) {
+      throw new CacheException("Couldn't get a lock in " + timeout + " for the key " +  key + " at the cache " + delegate.getId());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+    } catch (ExecutionException e) {
+      throw new CacheException("Error while waiting for the lock for key " + key, e);
     }
+    return false;
   }
 
   private void releaseLock(Object key) {
-    ReentrantLock lock = locks.get(key);
-    if (lock.isHeldByCurrentThread()) {
-      lock.unlock();
+    KeyLock lock = locks.get(key);
+    if (lock != null && lock.owner == Thread.currentThread() && locks.remove(key, lock)) {
+      lock.complete(null);
     }
   }
 
@@ -119,4 +138,8 @@ public class BlockingCache implements Cache {
   public void setTimeout(long timeout) {
     this.timeout = timeout;
   }
+
+  private static class KeyLock extends CompletableFuture<Void> {
+    private final Thread owner = Thread.currentThread();
+  }
 }
@@ -0,0 +1,422 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.impl.SizeEstimator;
+
+/**
+ * W-TinyLFU (window tiny least frequently used) cache decorator.
+ * <p>
+ * New entries are kept in a small LRU window. Entries leaving the window are admitted to the main segmented LRU
+ * space only if they are used more frequently than the entry that would be evicted for them, as estimated by a
+ * count-min sketch of the recent accesses.
+ * <p>
+ * Unlike the other eviction decorators, this cache keeps the entries itself in a concurrent map and can be used
+ * without a {@link SynchronizedCache}: reads do not lock, accesses are recorded in a lossy buffer and the eviction
+ * policy is maintained under a lock that readers only try to acquire. The decorated cache only provides the id.
+ * <p>
+ * The cache is bounded by the number of entries ({@code size}, 1024 by default) and, if {@code maxBytes} is set, by
+ * the estimated size of the values in bytes. Values of read/write caches are serialized before they reach this
+ * decorator, so their size is exact; other values are weighed with a rough estimate.
+ *
+ * @since 3.5.5
+ */
+public class TinyLfuCache implements Cache {
+
+  private static final int READ_BUFFER_SIZE = 64;
+  private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+  private static final int DRAIN_MASK = 0xf;
+
+  private final Cache delegate;
+  private final ConcurrentHashMap<Object, Node> data = new ConcurrentHashMap<>();
+  private final AtomicReferenceArray<Node> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  // guarded by evictionLock
+  private final AccessQueue window = new AccessQueue();
+  private final AccessQueue probation = new AccessQueue();
+  private final AccessQueue protectedQueue = new AccessQueue();
+  private FrequencySketch sketch;
+  private int size;
+  private long maxBytes;
+  private long maximumWeight;
+  private long windowMaximumWeight;
+  private long protectedMaximumWeight;
+
+  public TinyLfuCache(Cache delegate) {
+    this.delegate = delegate;
+    setSize(1024);
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return data.size();
+  }
+
+  public void setSize(int size) {
+    evictionLock.lock();
+    try {
+      this.size = size;
+      this.sketch = new FrequencySketch(size);
+      resize();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Sets the maximum estimated size of the values in bytes. The entries already in the cache keep their weight, so
+   * this should be set before the cache is used.
+   *
+   * @param maxBytes
+   *          the maximum size in bytes, 0 (the default) bounds the cache by the number of entries only
+   */
+  public void setMaxBytes(long maxBytes) {
+    evictionLock.lock();
+    try {
+      this.maxBytes = maxBytes;
+      resize();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    if (value == null) {
+      removeObject(key);
+      return;
+    }
+    Node node = new Node(key, value, weigh(value));
+    evictionLock.lock();
+    try {
+      Node old = data.put(key, node);
+      if (old != null) {
+        unlink(old);
+      }
+      window.addLast(node, Node.WINDOW);
+      sketch.increment(key);
+      drainReadBuffer();
+      evict();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Node node = data.get(key);
+    if (node == null) {
+      return null;
+    }
+    int random = ThreadLocalRandom.current().nextInt();
+    readBuffer.lazySet(random & READ_BUFFER_MASK, node);
+    if (((random >>> 16) & DRAIN_MASK) == 0 && evictionLock.tryLock()) {
+      try {
+        drainReadBuffer();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+    return node.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    evictionLock.lock();
+    try {
+      Node node = data.remove(key);
+      if (node == null) {
+        return null;
+      }
+      unlink(node);
+      return node.value;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      data.clear();
+      window.clear();
+      probation.clear();
+      protectedQueue.clear();
+      for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+        readBuffer.lazySet(i, null);
+      }
+      delegate.clear();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void resize() {
+    maximumWeight = maxBytes > 0 ? maxBytes : size;
+    windowMaximumWeight = Math.max(1, maximumWeight / 100);
+    protectedMaximumWeight = (maximumWeight - windowMaximumWeight) * 8 / 10;
+  }
+
+  private long weigh(Object value) {
+    return maxBytes > 0 ? SizeEstimator.estimateSize(value) : 1;
+  }
+
+  private void drainReadBuffer() {
+    for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+      if (readBuffer.get(i) == null) {
+        continue;
+      }
+      Node node = readBuffer.getAndSet(i, null);
+      if (node != null && node.queue != Node.REMOVED) {
+        onAccess(node);
+      }
+    }
+  }
+
+  private void onAccess(Node node) {
+    sketch.increment(node.key);
+    if (node.queue == Node.WINDOW) {
+      window.moveToLast(node);
+    } else if (node.queue == Node.PROBATION) {
+      probation.remove(node);
+      protectedQueue.addLast(node, Node.PROTECTED);
+      while (protectedQueue.weight > protectedMaximumWeight) {
+        Node demoted = protectedQueue.first;
+        protectedQueue.remove(demoted);
+        probation.addLast(demoted, Node.PROBATION);
+      }
+    } else if (node.queue == Node.PROTECTED) {
+      protectedQueue.moveToLast(node);
+    }
+  }
+
+  private void evict() {
+    // the entries leaving the window become candidates for the main space
+    Node candidate = null;
+    while (window.weight > windowMaximumWeight && window.first != null) {
+      Node node = window.first;
+      window.remove(node);
+      probation.addLast(node, Node.PROBATION);
+      if (candidate == null) {
+        candidate = node;
+      }
+    }
+    while (isOverflowing()) {
+      Node victim = probation.first;
+      if (victim == null) {
+        victim = protectedQueue.first != null ? protectedQueue.first : window.first;
+        if (victim == null) {
+          return;
+        }
+      } else if (candidate != null && candidate != victim && candidate.queue == Node.PROBATION) {
+        // the candidate is admitted only if it is used more frequently than the victim
+        if (candidate.weight > maximumWeight || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+          Node rejected = candidate;
+          candidate = candidate.next;
+          victim = rejected;
+        }
+      }
+      data.remove(victim.key, victim);
+      unlink(victim);
+    }
+  }
+
+  private boolean isOverflowing() {
+    long weight = window.weight + probation.weight + protectedQueue.weight;
+    return weight > maximumWeight || data.size() > size;
+  }
+
+  private void unlink(Node node) {
+    if (node.queue == Node.WINDOW) {
+      window.remove(node);
+    } else if (node.queue == Node.PROBATION) {
+      probation.remove(node);
+    } else if (node.queue == Node.PROTECTED) {
+      protectedQueue.remove(node);
+    }
+    node.queue = Node.REMOVED;
+  }
+
+  private static class Node {
+    static final int WINDOW = 0;
+    static final int PROBATION = 1;
+    static final int PROTECTED = 2;
+    static final int REMOVED = 3;
+
+    final Object key;
+    final Object value;
+    final long weight;
+    volatile int queue = REMOVED;
+    Node prev;
+    Node next;
+
+    Node(Object key, Object value, long weight) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * A doubly linked list of nodes ordered from the least to the most recently used.
+   */
+  private static class AccessQueue {
+    Node first;
+    Node last;
+    long weight;
+
+    void addLast(Node node, int queue) {
+      node.queue = queue;
+      node.prev = last;
+      node.next = null;
+      if (last == null) {
+        first = node;
+      } else {
+        last.next = node;
+      }
+      last = node;
+      weight += node.weight;
+    }
+
+    void remove(Node node) {
+      if (node.prev == null) {
+        first = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        last = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+      weight -= node.weight;
+    }
+
+    void moveToLast(Node node) {
+      if (node != last) {
+        int queue = node.queue;
+        remove(node);
+        addLast(node, queue);
+      }
+    }
+
+    void clear() {
+      for (Node node = first; node != null; node = node.next) {
+        node.queue = Node.REMOVED;
+      }
+      first = null;
+      last = null;
+      weight = 0;
+    }
+  }
+
+  /**
+   * A count-min sketch with 4-bit counters that estimates the access frequency of the keys. The counters are halved
+   * periodically so that the estimation follows the recent accesses.
+   */
+  private static class FrequencySketch {
+    private static final long[] SEED = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+      int capacity = Integer.highestOneBit(Math.max(Math.min(maximumSize, 1 << 30), 8) - 1) << 1;
+      table = new long[capacity];
+      tableMask = capacity - 1;
+      sampleSize = 10 * Math.max(maximumSize, 1);
+    }
+
+    int frequency(Object key) {
+      int hash = spread(key.hashCode());
+      int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; i++) {
+        int index = indexOf(hash, i);
+        int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+        frequency = Math.min(frequency, count);
+      }
+      return frequency;
+    }
+
+    void increment(Object key) {
+      int hash = spread(key.hashCode());
+      int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; i++) {
+        added |= incrementAt(indexOf(hash, i), start + i);
+      }
+      if (added && ++additions == sampleSize) {
+        reset();
+      }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+      int offset = counter << 2;
+      long mask = 0xfL << offset;
+      if ((table[index] & mask) != mask) {
+        table[index] += 1L << offset;
+        return true;
+      }
+      return false;
+    }
+
+    private void reset() {
+      int count = 0;
+      for (int i = 0; i < table.length; i++) {
+        count += Long.bitCount(table[i] & ONE_MASK);
+        table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      additions = (additions >>> 1) - (count >>> 2);
+    }
+
+    private int indexOf(int hash, int i) {
+      long h = (hash + SEED[i]) * SEED[i];
+      h += h >>> 32;
+      return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
+    }
+  }
+
+}
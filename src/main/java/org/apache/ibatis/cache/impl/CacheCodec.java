@@ -0,0 +1,56 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts cached values to and from the binary form stored by the {@link OffHeapCache}.
+ * <p>
+ * Implementations must be thread safe and must provide a public no-arg constructor to be set with the {@code codecType}
+ * property of the cache.
+ *
+ * @since 3.5.5
+ * @see ReflectorCacheCodec
+ */
+public interface CacheCodec {
+
+  /**
+   * Writes a value.
+   *
+   * @param value
+   *          the value to write, may be null
+   * @param output
+   *          the output
+   * @throws IOException
+   *           if the value cannot be written
+   */
+  void encode(Object value, DataOutput output) throws IOException;
+
+  /**
+   * Reads a value written by {@link #encode(Object, DataOutput)}.
+   *
+   * @param input
+   *          the input
+   * @return a new copy of the value
+   * @throws IOException
+   *           if the value cannot be read
+   */
+  Object decode(DataInput input) throws IOException;
+
+}
@@ -0,0 +1,156 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The session local cache of an executor, optionally bounded by the number of entries and by the estimated size of
+ * the values in bytes.
+ * <p>
+ * Entries are kept in access order and the least recently used ones are removed by {@link #evict()}. Eviction is not
+ * triggered by {@link #putObject(Object, Object)}, because the executor relies on the entries of the current query and
+ * its nested queries while they are running; the executor calls {@link #evict()} once the outermost query completes.
+ * <p>
+ * Like {@link PerpetualCache}, this class is not thread safe.
+ *
+ * @since 3.5.5
+ */
+public class LocalCache extends PerpetualCache {
+
+  private final Map<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Integer maxSize;
+  private final Long maxBytes;
+  private long bytes;
+  private long evictions;
+
+  public LocalCache(String id) {
+    this(id, null, null);
+  }
+
+  /**
+   * Creates a local cache.
+   *
+   * @param id
+   *          the cache id
+   * @param maxSize
+   *          the maximum number of entries, or null if unbounded
+   * @param maxBytes
+   *          the maximum estimated size of the values in bytes, or null if unbounded
+   */
+  public LocalCache(String id, Integer maxSize, Long maxBytes) {
+    super(id);
+    this.maxSize = maxSize;
+    this.maxBytes = maxBytes;
+  }
+
+  @Override
+  public int getSize() {
+    return entries.size();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    Entry entry = new Entry(value, maxBytes != null ? SizeEstimator.estimateSize(value) : 0);
+    Entry previous = entries.put(key, entry);
+    bytes += entry.bytes - (previous == null ? 0 : previous.bytes);
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Entry entry = entries.get(key);
+    return entry == null ? null : entry.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Entry entry = entries.remove(key);
+    if (entry == null) {
+      return null;
+    }
+    bytes -= entry.bytes;
+    return entry.value;
+  }
+
+  @Override
+  public void clear() {
+    entries.clear();
+    bytes = 0;
+  }
+
+  /**
+   * Removes the least recently used entries until the cache is within its bounds.
+   *
+   * @return the number of entries removed
+   */
+  public int evict() {
+    return evict(null);
+  }
+
+  /**
+   * Removes the least recently used entries until the cache is within its bounds.
+   *
+   * @param listener
+   *          called with the key of each removed entry, may be null
+   * @return the number of entries removed
+   */
+  public int evict(Consumer<Object> listener) {
+    int count = 0;
+    Iterator<Map.Entry<Object, Entry>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext() && isOverBounds()) {
+      Map.Entry<Object, Entry> entry = iterator.next();
+      bytes -= entry.getValue().bytes;
+      iterator.remove();
+      if (listener != null) {
+        listener.accept(entry.getKey());
+      }
+      count++;
+    }
+    evictions += count;
+    return count;
+  }
+
+  private boolean isOverBounds() {
+    return (maxSize != null && entries.size() > maxSize) || (maxBytes != null && bytes > maxBytes);
+  }
+
+  /**
+   * Returns the estimated size of the values in bytes. Sizes are only estimated when the cache is bounded in bytes.
+   *
+   * @return the estimated size, or 0 when not bounded in bytes
+   */
+  public long getEstimatedBytes() {
+    return bytes;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+
+  private static class Entry {
+    private final Object value;
+    private final long bytes;
+
+    Entry(Object value, long bytes) {
+      this.value = value;
+      this.bytes = bytes;
+    }
+  }
+
+}
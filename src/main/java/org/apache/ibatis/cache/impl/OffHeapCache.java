@@ -0,0 +1,456 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+
+/**
+ * A cache that keeps the values encoded in direct (off-heap) byte buffers, so that large caches of reference data do
+ * not fill the old generation of the heap. Only the keys and the location of the values are kept on the heap.
+ * <p>
+ * The memory is split in slabs of {@code slabSize} bytes (1 MiB by default) up to {@code maxBytes} (64 MiB by
+ * default). The values are appended to the current slab and, when all the slabs are full, the oldest slab is reused
+ * and the values it held are evicted. Values larger than a slab are not cached.
+ * <p>
+ * The values are encoded with the {@link CacheCodec} set with the {@code codecType} property, {@link ReflectorCacheCodec}
+ * by default. Every read decodes a new copy of the value, like a read/write cache. This cache is thread safe and can
+ * be set as the type of a cache:
+ *
+ * <pre>
+ * &lt;cache type="org.apache.ibatis.cache.impl.OffHeapCache"&gt;
+ *   &lt;property name="maxBytes" value="268435456"/&gt;
+ * &lt;/cache&gt;
+ * </pre>
+ *
+ * @since 3.5.5
+ */
+public class OffHeapCache implements Cache {
+
+  private final String id;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // guarded by lock
+  private final Map<Object, Location> locations = new HashMap<>();
+  private final List<ByteBuffer> slabs = new ArrayList<>();
+  private final List<List<Object>> slabKeys = new ArrayList<>();
+  private long maxBytes = 64L * 1024 * 1024;
+  private int slabSize = 1024 * 1024;
+  private int slabCount;
+  private int currentSlab;
+  private long usedBytes;
+  private long evictions;
+  private volatile CacheCodec codec = new ReflectorCacheCodec();
+
+  public OffHeapCache(String id) {
+    this.id = id;
+    resize();
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    lock.readLock().lock();
+    try {
+      return locations.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Sets the maximum size of the slabs in bytes. Changing it clears the cache.
+   *
+   * @param maxBytes
+   *          the maximum size in bytes
+   */
+  public void setMaxBytes(long maxBytes) {
+    if (maxBytes <= 0) {
+      throw new CacheException("The maxBytes of cache '" + id + "' must be positive.");
+    }
+    lock.writeLock().lock();
+    try {
+      this.maxBytes = maxBytes;
+      resize();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int getSlabSize() {
+    return slabSize;
+  }
+
+  /**
+   * Sets the size of a slab in bytes, which is also the maximum size of an encoded value. Changing it clears the
+   * cache.
+   *
+   * @param slabSize
+   *          the size of a slab in bytes
+   */
+  public void setSlabSize(int slabSize) {
+    if (slabSize <= 0) {
+      throw new CacheException("The slabSize of cache '" + id + "' must be positive.");
+    }
+    lock.writeLock().lock();
+    try {
+      this.slabSize = slabSize;
+      resize();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public CacheCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Sets the codec of the values. Changing it clears the cache.
+   *
+   * @param codec
+   *          the codec
+   */
+  public void setCodec(CacheCodec codec) {
+    lock.writeLock().lock();
+    try {
+      this.codec = codec;
+      clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Sets the codec of the values by class name, so that it can be set with the cache properties.
+   *
+   * @param codecClassName
+   *          the fully qualified name of a {@link CacheCodec} implementation with a public no-arg constructor
+   */
+  public void setCodecType(String codecClassName) {
+    try {
+      setCodec((CacheCodec) Resources.classForName(codecClassName).getDeclaredConstructor().newInstance());
+    } catch (Exception e) {
+      throw new CacheException("Error creating the codec " + codecClassName + " of cache '" + id + "'. Cause: " + e, e);
+    }
+  }
+
+  /**
+   * Returns the number of bytes used by the values currently in the cache.
+   *
+   * @return the used bytes
+   */
+  public long getUsedBytes() {
+    lock.readLock().lock();
+    try {
+      return usedBytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of values evicted to make room for new ones.
+   *
+   * @return the evictions
+   */
+  public long getEvictions() {
+    lock.readLock().lock();
+    try {
+      return evictions;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    byte[] bytes = encode(value);
+    lock.writeLock().lock();
+    try {
+      removeLocation(key);
+      if (bytes.length > slabSize) {
+        return;
+      }
+      ByteBuffer slab = currentSlab < slabs.size() ? slabs.get(currentSlab) : null;
+      if (slab == null || slab.remaining() < bytes.length) {
+        slab = nextSlab();
+      }
+      Location location = new Location(currentSlab, slab.position(), bytes.length);
+      slab.put(bytes);
+      locations.put(key, location);
+      slabKeys.get(currentSlab).add(key);
+      usedBytes += bytes.length;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    lock.readLock().lock();
+    try {
+      Location location = locations.get(key);
+      if (location == null) {
+        return null;
+      }
+      ByteBuffer buffer = slabs.get(location.slab).duplicate();
+      ((Buffer) buffer).limit(location.offset + location.length);
+      ((Buffer) buffer).position(location.offset);
+      return codec.decode(new ByteBufferInput(buffer));
+    } catch (IOException e) {
+      throw new CacheException("Error decoding the cached object of cache '" + id + "'. Cause: " + e, e);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    lock.writeLock().lock();
+    try {
+      removeLocation(key);
+      return null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      locations.clear();
+      for (int i = 0; i < slabs.size(); i++) {
+        ((Buffer) slabs.get(i)).clear();
+        slabKeys.get(i).clear();
+      }
+      currentSlab = 0;
+      usedBytes = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private byte[] encode(Object value) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream(bytes);
+      codec.encode(value, output);
+      output.flush();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new CacheException("Error encoding object for cache '" + id + "'. Cause: " + e, e);
+    }
+  }
+
+  private void resize() {
+    slabs.clear();
+    slabKeys.clear();
+    locations.clear();
+    slabCount = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / slabSize));
+    currentSlab = 0;
+    usedBytes = 0;
+  }
+
+  /**
+   * Moves to the next slab, allocating it or evicting the values it holds.
+   */
+  private ByteBuffer nextSlab() {
+    if (slabs.size() > currentSlab) {
+      currentSlab = (currentSlab + 1) % slabCount;
+    }
+    if (currentSlab == slabs.size()) {
+      slabs.add(ByteBuffer.allocateDirect(slabSize));
+      slabKeys.add(new ArrayList<>());
+    } else {
+      List<Object> keys = slabKeys.get(currentSlab);
+      for (Object key : keys) {
+        Location location = locations.get(key);
+        if (location != null && location.slab == currentSlab) {
+          locations.remove(key);
+          usedBytes -= location.length;
+          evictions++;
+        }
+      }
+      keys.clear();
+      ((Buffer) slabs.get(currentSlab)).clear();
+    }
+    return slabs.get(currentSlab);
+  }
+
+  private void removeLocation(Object key) {
+    Location location = locations.remove(key);
+    if (location != null) {
+      usedBytes -= location.length;
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+    return id.equals(((Cache) o).getId());
+  }
+
+  @Override
+  public int hashCode() {
+    return id.hashCode();
+  }
+
+  private static class Location {
+    private final int slab;
+    private final int offset;
+    private final int length;
+
+    Location(int slab, int offset, int length) {
+      this.slab = slab;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  /**
+   * Reads the primitive values directly from a byte buffer.
+   */
+  private static class ByteBufferInput implements DataInput {
+    private final ByteBuffer buffer;
+
+    ByteBufferInput(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    private void require(int length) throws EOFException {
+      if (buffer.remaining() < length) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+      readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+      require(len);
+      buffer.get(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) {
+      int skipped = Math.max(0, Math.min(n, buffer.remaining()));
+      ((Buffer) buffer).position(buffer.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+      return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+      require(1);
+      return buffer.get();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+      return readByte() & 0xff;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+      require(2);
+      return buffer.getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+      return readShort() & 0xffff;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+      require(2);
+      return buffer.getChar();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+      require(4);
+      return buffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+      require(8);
+      return buffer.getLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+      require(4);
+      return buffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+      require(8);
+      return buffer.getDouble();
+    }
+
+    @Override
+    public String readLine() {
+      throw new UnsupportedOperationException("readLine");
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+      return DataInputStream.readUTF(this);
+    }
+  }
+
+}
@@ -0,0 +1,477 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.executor.loader.WriteReplaceInterface;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+/**
+ * The default {@link CacheCodec}, which writes the mapped beans property by property using the {@link Reflector}
+ * metadata of their class.
+ * <p>
+ * Strings, numbers, dates, enums, byte arrays, array lists, hash maps and beans with a default constructor are written
+ * in a compact tagged format in which each class name is written only once per value and shared references (such as
+ * the parent of a nested result) are kept. Any other value, including the lazy loading proxies, falls back to Java
+ * serialization and must be serializable.
+ * <p>
+ * The bean properties are written in the order of the reflector of this codec, so the encoded values can only be read
+ * by the instance that wrote them.
+ *
+ * @since 3.5.5
+ */
+public class ReflectorCacheCodec implements CacheCodec {
+
+  private static final byte NULL = 0;
+  private static final byte REFERENCE = 1;
+  private static final byte STRING = 2;
+  private static final byte INTEGER = 3;
+  private static final byte LONG = 4;
+  private static final byte SHORT = 5;
+  private static final byte BYTE = 6;
+  private static final byte DOUBLE = 7;
+  private static final byte FLOAT = 8;
+  private static final byte BOOLEAN = 9;
+  private static final byte CHARACTER = 10;
+  private static final byte BIG_DECIMAL = 11;
+  private static final byte BIG_INTEGER = 12;
+  private static final byte DATE = 13;
+  private static final byte SQL_DATE = 14;
+  private static final byte SQL_TIME = 15;
+  private static final byte SQL_TIMESTAMP = 16;
+  private static final byte BYTE_ARRAY = 17;
+  private static final byte ENUM = 18;
+  private static final byte LIST = 19;
+  private static final byte MAP = 20;
+  private static final byte LINKED_MAP = 21;
+  private static final byte BEAN = 22;
+  private static final byte SERIALIZED = 23;
+
+  private final ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+  private final ObjectFactory objectFactory = new DefaultObjectFactory();
+  private final Map<Class<?>, BeanType> beanTypes = new ConcurrentHashMap<>();
+  private final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
+
+  @Override
+  public void encode(Object value, DataOutput output) throws IOException {
+    new Encoder(output).write(value);
+  }
+
+  @Override
+  public Object decode(DataInput input) throws IOException {
+    return new Decoder(input).read();
+  }
+
+  private BeanType getBeanType(Class<?> type) {
+    return beanTypes.computeIfAbsent(type, t -> new BeanType(reflectorFactory.findForClass(t)));
+  }
+
+  private boolean isBean(Class<?> type) {
+    // the classes of the JDK and the collections keep state that is not exposed as properties
+    return type.getClassLoader() != null && !type.isArray() && !Collection.class.isAssignableFrom(type)
+        && !Map.class.isAssignableFrom(type) && !WriteReplaceInterface.class.isAssignableFrom(type)
+        && getBeanType(type).reflector.hasDefaultConstructor();
+  }
+
+  private Class<?> classForName(String name) throws IOException {
+    Class<?> type = classes.get(name);
+    if (type == null) {
+      try {
+        type = Resources.classForName(name);
+      } catch (ClassNotFoundException e) {
+        throw new IOException("Could not find the cached class " + name, e);
+      }
+      classes.put(name, type);
+    }
+    return type;
+  }
+
+  private static void writeString(DataOutput output, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(DataInput input) throws IOException {
+    byte[] bytes = new byte[input.readInt()];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private class Encoder {
+    private final DataOutput output;
+    private final Map<Object, Integer> references = new IdentityHashMap<>();
+    private final Map<Class<?>, Integer> classIds = new HashMap<>();
+
+    Encoder(DataOutput output) {
+      this.output = output;
+    }
+
+    void write(Object value) throws IOException {
+      if (value == null) {
+        output.writeByte(NULL);
+        return;
+      }
+      Class<?> type = value.getClass();
+      if (type == String.class) {
+        output.writeByte(STRING);
+        writeString(output, (String) value);
+      } else if (type == Integer.class) {
+        output.writeByte(INTEGER);
+        output.writeInt((Integer) value);
+      } else if (type == Long.class) {
+        output.writeByte(LONG);
+        output.writeLong((Long) value);
+      } else if (type == Short.class) {
+        output.writeByte(SHORT);
+        output.writeShort((Short) value);
+      } else if (type == Byte.class) {
+        output.writeByte(BYTE);
+        output.writeByte((Byte) value);
+      } else if (type == Double.class) {
+        output.writeByte(DOUBLE);
+        output.writeDouble((Double) value);
+      } else if (type == Float.class) {
+        output.writeByte(FLOAT);
+        output.writeFloat((Float) value);
+      } else if (type == Boolean.class) {
+        output.writeByte(BOOLEAN);
+        output.writeBoolean((Boolean) value);
+      } else if (type == Character.class) {
+        output.writeByte(CHARACTER);
+        output.writeChar((Character) value);
+      } else if (type == BigDecimal.class) {
+        BigDecimal decimal = (BigDecimal) value;
+        output.writeByte(BIG_DECIMAL);
+        output.writeInt(decimal.scale());
+        writeBytes(decimal.unscaledValue().toByteArray());
+      } else if (type == BigInteger.class) {
+        output.writeByte(BIG_INTEGER);
+        writeBytes(((BigInteger) value).toByteArray());
+      } else if (type == java.util.Date.class) {
+        output.writeByte(DATE);
+        output.writeLong(((java.util.Date) value).getTime());
+      } else if (type == java.sql.Date.class) {
+        output.writeByte(SQL_DATE);
+        output.writeLong(((java.sql.Date) value).getTime());
+      } else if (type == java.sql.Time.class) {
+        output.writeByte(SQL_TIME);
+        output.writeLong(((java.sql.Time) value).getTime());
+      } else if (type == java.sql.Timestamp.class) {
+        java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+        output.writeByte(SQL_TIMESTAMP);
+        output.writeLong(timestamp.getTime());
+        output.writeInt(timestamp.getNanos());
+      } else if (type == byte[].class) {
+        output.writeByte(BYTE_ARRAY);
+        writeBytes((byte[]) value);
+      } else if (value instanceof Enum) {
+        output.writeByte(ENUM);
+        writeClass(((Enum<?>) value).getDeclaringClass());
+        writeString(output, ((Enum<?>) value).name());
+      } else if (!writeReference(value)) {
+        if (type == ArrayList.class) {
+          writeList((List<?>) value);
+        } else if (type == HashMap.class || type == LinkedHashMap.class) {
+          writeMap((Map<?, ?>) value, type == LinkedHashMap.class ? LINKED_MAP : MAP);
+        } else if (isBean(type)) {
+          writeBean(value, getBeanType(type));
+        } else {
+          writeSerialized(value);
+        }
+      }
+    }
+
+    private boolean writeReference(Object value) throws IOException {
+      Integer reference = references.get(value);
+      if (reference != null) {
+        output.writeByte(REFERENCE);
+        output.writeInt(reference);
+        return true;
+      }
+      references.put(value, references.size());
+      return false;
+    }
+
+    private void writeClass(Class<?> type) throws IOException {
+      Integer id = classIds.get(type);
+      if (id != null) {
+        output.writeInt(id);
+      } else {
+        id = classIds.size();
+        classIds.put(type, id);
+        output.writeInt(-1);
+        writeString(output, type.getName());
+      }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+
+    private void writeList(List<?> list) throws IOException {
+      output.writeByte(LIST);
+      output.writeInt(list.size());
+      for (Object element : list) {
+        write(element);
+      }
+    }
+
+    private void writeMap(Map<?, ?> map, byte tag) throws IOException {
+      output.writeByte(tag);
+      output.writeInt(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        write(entry.getKey());
+        write(entry.getValue());
+      }
+    }
+
+    private void writeBean(Object bean, BeanType beanType) throws IOException {
+      output.writeByte(BEAN);
+      writeClass(beanType.reflector.getType());
+      for (int i = 0; i < beanType.getters.length; i++) {
+        write(beanType.get(bean, i));
+      }
+    }
+
+    private void writeSerialized(Object value) throws IOException {
+      if (!(value instanceof Serializable)) {
+        throw new CacheException("Cannot cache the non-serializable object: " + value);
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+        oos.writeObject(value);
+      }
+      output.writeByte(SERIALIZED);
+      writeBytes(bytes.toByteArray());
+    }
+  }
+
+  private class Decoder {
+    private final DataInput input;
+    private final List<Object> references = new ArrayList<>();
+    private final List<Class<?>> classList = new ArrayList<>();
+
+    Decoder(DataInput input) {
+      this.input = input;
+    }
+
+    Object read() throws IOException {
+      byte tag = input.readByte();
+      switch (tag) {
+        case NULL:
+          return null;
+        case REFERENCE:
+          return references.get(input.readInt());
+        case STRING:
+          return readString(input);
+        case INTEGER:
+          return input.readInt();
+        case LONG:
+          return input.readLong();
+        case SHORT:
+          return input.readShort();
+        case BYTE:
+          return input.readByte();
+        case DOUBLE:
+          return input.readDouble();
+        case FLOAT:
+          return input.readFloat();
+        case BOOLEAN:
+          return input.readBoolean();
+        case CHARACTER:
+          return input.readChar();
+        case BIG_DECIMAL:
+          int scale = input.readInt();
+          return new BigDecimal(new BigInteger(readBytes()), scale);
+        case BIG_INTEGER:
+          return new BigInteger(readBytes());
+        case DATE:
+          return new java.util.Date(input.readLong());
+        case SQL_DATE:
+          return new java.sql.Date(input.readLong());
+        case SQL_TIME:
+          return new java.sql.Time(input.readLong());
+        case SQL_TIMESTAMP:
+          java.sql.Timestamp timestamp = new java.sql.Timestamp(input.readLong());
+          timestamp.setNanos(input.readInt());
+          return timestamp;
+        case BYTE_ARRAY:
+          return readBytes();
+        case ENUM:
+          return readEnum(readClass());
+        case LIST:
+          return readList();
+        case MAP:
+          return readMap(new HashMap<>());
+        case LINKED_MAP:
+          return readMap(new LinkedHashMap<>());
+        case BEAN:
+          return readBean(readClass());
+        case SERIALIZED:
+          return readSerialized();
+        default:
+          throw new IOException("Unknown cached value tag " + tag);
+      }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Object readEnum(Class<?> type) throws IOException {
+      return Enum.valueOf((Class) type, readString(input));
+    }
+
+    private Class<?> readClass() throws IOException {
+      int id = input.readInt();
+      if (id >= 0) {
+        return classList.get(id);
+      }
+      Class<?> type = classForName(readString(input));
+      classList.add(type);
+      return type;
+    }
+
+    private byte[] readBytes() throws IOException {
+      byte[] bytes = new byte[input.readInt()];
+      input.readFully(bytes);
+      return bytes;
+    }
+
+    private List<Object> readList() throws IOException {
+      int size = input.readInt();
+      List<Object> list = new ArrayList<>(size);
+      references.add(list);
+      for (int i = 0; i < size; i++) {
+        list.add(read());
+      }
+      return list;
+    }
+
+    private Map<Object, Object> readMap(Map<Object, Object> map) throws IOException {
+      references.add(map);
+      int size = input.readInt();
+      for (int i = 0; i < size; i++) {
+        Object key = read();
+        map.put(key, read());
+      }
+      return map;
+    }
+
+    private Object readBean(Class<?> type) throws IOException {
+      BeanType beanType = getBeanType(type);
+      Object bean = objectFactory.create(type);
+      references.add(bean);
+      for (int i = 0; i < beanType.setters.length; i++) {
+        beanType.set(bean, i, read());
+      }
+      return bean;
+    }
+
+    private Object readSerialized() throws IOException {
+      // keeps its position in the reference table, shared references to it are not kept
+      int index = references.size();
+      references.add(null);
+      try (ObjectInputStream ois = new SerializedCache.CustomObjectInputStream(new ByteArrayInputStream(readBytes()))) {
+        Object value = ois.readObject();
+        references.set(index, value);
+        return value;
+      } catch (ClassNotFoundException e) {
+        throw new IOException("Could not find the class of a cached object", e);
+      }
+    }
+  }
+
+  /**
+   * The properties of a bean class that have both a getter and a setter, in the order they are written.
+   */
+  private static class BeanType {
+    private final Reflector reflector;
+    private final String[] properties;
+    private final Invoker[] getters;
+    private final Invoker[] setters;
+
+    BeanType(Reflector reflector) {
+      this.reflector = reflector;
+      Set<String> setable = new HashSet<>(Arrays.asList(reflector.getSetablePropertyNames()));
+      List<String> names = new ArrayList<>();
+      for (String name : reflector.getGetablePropertyNames()) {
+        if (setable.contains(name)) {
+          names.add(name);
+        }
+      }
+      this.properties = names.toArray(new String[0]);
+      this.getters = new Invoker[properties.length];
+      this.setters = new Invoker[properties.length];
+      for (int i = 0; i < properties.length; i++) {
+        getters[i] = reflector.getGetInvoker(properties[i]);
+        setters[i] = reflector.getSetInvoker(properties[i]);
+      }
+    }
+
+    Object get(Object bean, int index) {
+      try {
+        return getters[index].invoke(bean, null);
+      } catch (Throwable t) {
+        throw new CacheException("Error getting property '" + properties[index] + "' of " + reflector.getType()
+            + ". Cause: " + ExceptionUtil.unwrapThrowable(t), t);
+      }
+    }
+
+    void set(Object bean, int index, Object value) {
+      if (value == null && reflector.getSetterType(properties[index]).isPrimitive()) {
+        return;
+      }
+      try {
+        setters[index].invoke(bean, new Object[] { value });
+      } catch (Throwable t) {
+        throw new CacheException("Error setting property '" + properties[index] + "' of " + reflector.getType()
+            + ". Cause: " + ExceptionUtil.unwrapThrowable(t), t);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,76 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Gives a rough estimate of the heap size of cached values, used by caches bounded by size in bytes.
+ * <p>
+ * Byte arrays and strings are measured, collections and maps are walked one level deep and any other object counts for
+ * a fixed size. Serialized values (the byte arrays stored by read/write caches) are therefore measured exactly.
+ *
+ * @since 3.5.5
+ */
+public final class SizeEstimator {
+
+  private static final long DEFAULT_OBJECT_SIZE = 64;
+
+  private SizeEstimator() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * Estimates the size of a value in bytes.
+   *
+   * @param value
+   *          the value
+   * @return the estimated size
+   */
+  public static long estimateSize(Object value) {
+    if (value instanceof byte[]) {
+      return 16 + ((byte[]) value).length;
+    } else if (value instanceof CharSequence) {
+      return 40 + 2L * ((CharSequence) value).length();
+    } else if (value instanceof Collection) {
+      long size = 24;
+      for (Object element : (Collection<?>) value) {
+        size += 8 + estimateElementSize(element);
+      }
+      return size;
+    } else if (value instanceof Map) {
+      long size = 48;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        size += 32 + estimateElementSize(entry.getKey()) + estimateElementSize(entry.getValue());
+      }
+      return size;
+    }
+    return estimateElementSize(value);
+  }
+
+  private static long estimateElementSize(Object value) {
+    if (value == null) {
+      return 0;
+    } else if (value instanceof byte[] || value instanceof CharSequence) {
+      return estimateSize(value);
+    } else if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+      return 16;
+    }
+    return DEFAULT_OBJECT_SIZE;
+  }
+
+}
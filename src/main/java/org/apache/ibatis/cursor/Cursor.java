@@ -16,6 +16,10 @@
 package org.apache.ibatis.cursor;
 
 import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Cursor contract to handle fetching items lazily using an Iterator.
@@ -44,4 +48,23 @@ public interface Cursor<T> extends Closeable, Iterable<T> {
    * @return -1 if the first cursor item has not been retrieved. The index of the current item retrieved.
    */
   int getCurrentIndex();
+
+  /**
+   * Returns a sequential stream of the items of this cursor. Closing the stream closes this cursor.
+   * <p>
+   * The rows are read sequentially even if the stream is made parallel, in which case chunks of mapped items are
+   * handed off to the downstream operations.
+   *
+   * @return a stream of the mapped objects
+   * @since 3.5.5
+   */
+  default Stream<T> stream() {
+    return StreamSupport.stream(new CursorSpliterator<>(iterator()), false).onClose(() -> {
+      try {
+        close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
 }
@@ -0,0 +1,85 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over the iterator of a {@link Cursor}.
+ * <p>
+ * The rows are always read sequentially: splitting takes the next rows (in chunks growing by {@value #BATCH_UNIT} up to
+ * {@value #MAX_BATCH}) from the cursor and hands them off already mapped, so that the downstream operations of a
+ * parallel stream can run on other threads.
+ *
+ * @param <T>
+ *          the type of mapped objects
+ * @since 3.5.5
+ */
+class CursorSpliterator<T> implements Spliterator<T> {
+
+  static final int BATCH_UNIT = 1024;
+  static final int MAX_BATCH = 1 << 16;
+
+  private final Iterator<T> iterator;
+  private int batch;
+
+  CursorSpliterator(Iterator<T> iterator) {
+    this.iterator = iterator;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    if (iterator.hasNext()) {
+      action.accept(iterator.next());
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super T> action) {
+    iterator.forEachRemaining(action);
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    if (!iterator.hasNext()) {
+      return null;
+    }
+    int size = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+    Object[] chunk = new Object[size];
+    int count = 0;
+    do {
+      chunk[count++] = iterator.next();
+    } while (count < size && iterator.hasNext());
+    batch = count;
+    return Spliterators.spliterator(chunk, 0, count, ORDERED);
+  }
+
+  @Override
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED;
+  }
+
+}
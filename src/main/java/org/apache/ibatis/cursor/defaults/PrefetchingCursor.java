@@ -0,0 +1,232 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * A Cursor that reads and maps rows on a background thread, ahead of the caller.
+ * <p>
+ * Rows are fetched from the delegate cursor by a producer thread and handed over through a bounded buffer, so that
+ * driver fetches and row mapping overlap with the work done by the caller. The delegate is only used by the producer
+ * thread and is closed by it. While this cursor is open, the session it was opened from should not be used by the
+ * caller.
+ * <p>
+ * Like {@link DefaultCursor}, this implementation is not thread safe for the caller.
+ *
+ * @param <T>
+ *          the type of mapped objects
+ * @since 3.5.5
+ */
+public class PrefetchingCursor<T> implements Cursor<T> {
+
+  private static final Object NULL_ROW = new Object();
+  private static final Object END = new Object();
+
+  private final Cursor<T> delegate;
+  private final RowBounds rowBounds;
+  private final BlockingQueue<Object> buffer;
+  private final CountDownLatch finished = new CountDownLatch(1);
+  private final CursorIterator cursorIterator = new CursorIterator();
+
+  private volatile boolean closing;
+  private volatile Throwable failure;
+  private Thread producer;
+  private boolean iteratorRetrieved;
+  private CursorStatus status = CursorStatus.CREATED;
+
+  private enum CursorStatus {
+    CREATED, OPEN, CLOSED, CONSUMED
+  }
+
+  public PrefetchingCursor(Cursor<T> delegate, RowBounds rowBounds, int prefetchSize) {
+    this.delegate = delegate;
+    this.rowBounds = rowBounds;
+    this.buffer = new ArrayBlockingQueue<>(Math.max(1, prefetchSize));
+  }
+
+  @Override
+  public boolean isOpen() {
+    return status == CursorStatus.OPEN;
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return status == CursorStatus.CONSUMED;
+  }
+
+  @Override
+  public int getCurrentIndex() {
+    return rowBounds.getOffset() + cursorIterator.iteratorIndex;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    if (iteratorRetrieved) {
+      throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+    }
+    if (isClosed()) {
+      throw new IllegalStateException("A Cursor is already closed.");
+    }
+    iteratorRetrieved = true;
+    producer = new Thread(this::produce, "mybatis-cursor-prefetch");
+    producer.setDaemon(true);
+    producer.start();
+    return cursorIterator;
+  }
+
+  @Override
+  public void close() {
+    if (isClosed()) {
+      return;
+    }
+    status = CursorStatus.CLOSED;
+    if (producer == null) {
+      closeDelegate();
+      return;
+    }
+    closing = true;
+    // unblocks the producer if it is waiting for space, it stops before reading the next row
+    buffer.clear();
+    awaitProducer();
+  }
+
+  private void produce() {
+    try {
+      Iterator<T> iterator = delegate.iterator();
+      while (!closing && iterator.hasNext()) {
+        T object = iterator.next();
+        buffer.put(object == null ? NULL_ROW : object);
+      }
+    } catch (InterruptedException e) {
+      failure = e;
+      Thread.currentThread().interrupt();
+    } catch (Throwable t) {
+      failure = t;
+    } finally {
+      closeDelegate();
+      if (!closing) {
+        // waits for the caller to take a row, or returns at once if the cursor was closed meanwhile
+        try {
+          buffer.put(END);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      finished.countDown();
+    }
+  }
+
+  private void closeDelegate() {
+    try {
+      delegate.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  private void awaitProducer() {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        finished.await();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private boolean isClosed() {
+    return status == CursorStatus.CLOSED || status == CursorStatus.CONSUMED;
+  }
+
+  protected class CursorIterator implements Iterator<T> {
+
+    /**
+     * Holder for the next object to be returned.
+     */
+    Object object;
+
+    /**
+     * Index of objects returned using next(), and as such, visible to users.
+     */
+    int iteratorIndex = -1;
+
+    @Override
+    public boolean hasNext() {
+      if (object != null) {
+        return true;
+      }
+      if (isClosed()) {
+        return false;
+      }
+      status = CursorStatus.OPEN;
+      Object next;
+      try {
+        next = buffer.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for the next row of a Cursor", e);
+      }
+      if (next != END) {
+        object = next;
+        return true;
+      }
+      awaitProducer();
+      Throwable t = failure;
+      if (t == null) {
+        status = CursorStatus.CONSUMED;
+        return false;
+      }
+      status = CursorStatus.CLOSED;
+      if (t instanceof RuntimeException) {
+        throw (RuntimeException) t;
+      }
+      if (t instanceof Error) {
+        throw (Error) t;
+      }
+      throw new IllegalStateException("Error prefetching the rows of a Cursor", t);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Object next = object;
+      object = null;
+      iteratorIndex++;
+      return next == NULL_ROW ? null : (T) next;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove element from Cursor");
+    }
+  }
+}
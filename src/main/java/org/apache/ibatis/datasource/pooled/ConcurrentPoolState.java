@@ -0,0 +1,94 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of a {@link ConcurrentPooledDataSource}, recorded without locking.
+ *
+ * @since 3.5.5
+ */
+public class ConcurrentPoolState extends PoolState {
+
+  final LongAdder requestCounter = new LongAdder();
+  final LongAdder accumulatedRequestTimeCounter = new LongAdder();
+  final LongAdder accumulatedCheckoutTimeCounter = new LongAdder();
+  final LongAdder claimedOverdueConnectionCounter = new LongAdder();
+  final LongAdder accumulatedCheckoutTimeOfOverdueConnectionsCounter = new LongAdder();
+  final LongAdder accumulatedWaitTimeCounter = new LongAdder();
+  final LongAdder hadToWaitCounter = new LongAdder();
+  final LongAdder badConnectionCounter = new LongAdder();
+
+  public ConcurrentPoolState(ConcurrentPooledDataSource dataSource) {
+    super(dataSource);
+  }
+
+  @Override
+  public long getRequestCount() {
+    return requestCounter.sum();
+  }
+
+  @Override
+  public long getAverageRequestTime() {
+    long requestCount = getRequestCount();
+    return requestCount == 0 ? 0 : accumulatedRequestTimeCounter.sum() / requestCount;
+  }
+
+  @Override
+  public long getAverageWaitTime() {
+    long hadToWaitCount = getHadToWaitCount();
+    return hadToWaitCount == 0 ? 0 : accumulatedWaitTimeCounter.sum() / hadToWaitCount;
+  }
+
+  @Override
+  public long getHadToWaitCount() {
+    return hadToWaitCounter.sum();
+  }
+
+  @Override
+  public long getBadConnectionCount() {
+    return badConnectionCounter.sum();
+  }
+
+  @Override
+  public long getClaimedOverdueConnectionCount() {
+    return claimedOverdueConnectionCounter.sum();
+  }
+
+  @Override
+  public long getAverageOverdueCheckoutTime() {
+    long claimedOverdueConnectionCount = getClaimedOverdueConnectionCount();
+    return claimedOverdueConnectionCount == 0 ? 0 : accumulatedCheckoutTimeOfOverdueConnectionsCounter.sum() / claimedOverdueConnectionCount;
+  }
+
+  @Override
+  public long getAverageCheckoutTime() {
+    long requestCount = getRequestCount();
+    return requestCount == 0 ? 0 : accumulatedCheckoutTimeCounter.sum() / requestCount;
+  }
+
+  @Override
+  public int getIdleConnectionCount() {
+    return ((ConcurrentPooledDataSource) dataSource).getIdleConnectionCount();
+  }
+
+  @Override
+  public int getActiveConnectionCount() {
+    return ((ConcurrentPooledDataSource) dataSource).getActiveConnectionCount();
+  }
+
+}
@@ -0,0 +1,397 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A thread-safe database connection pool that does not serialize borrowers on a single monitor.
+ * <p>
+ * Idle connections are kept in a lock-free queue and the connection last returned by a thread is preferably handed
+ * back to the same thread. When the pool is exhausted, borrowers wait in FIFO order and a returned connection is handed
+ * off directly to the longest waiting borrower before it becomes visible to other borrowers. The configuration
+ * properties and the {@link PoolState} statistics are the same as the ones of {@link PooledDataSource}.
+ *
+ * @since 3.5.5
+ */
+public class ConcurrentPooledDataSource extends PooledDataSource {
+
+  private static final Log log = LogFactory.getLog(ConcurrentPooledDataSource.class);
+
+  private final ConcurrentPoolState state = new ConcurrentPoolState(this);
+
+  private final ConcurrentLinkedQueue<PooledConnection> idleConnections = new ConcurrentLinkedQueue<>();
+  private final ConcurrentHashMap<PooledConnection, PooledConnection> activeConnections = new ConcurrentHashMap<>();
+  private final ThreadLocal<PooledConnection> lastReturnedConnection = new ThreadLocal<>();
+  private final SynchronousQueue<PooledConnection> handoffQueue = new SynchronousQueue<>(true);
+  private final AtomicInteger idleConnectionCount = new AtomicInteger();
+  private final AtomicInteger totalConnectionCount = new AtomicInteger();
+  private final AtomicInteger waiterCount = new AtomicInteger();
+  private final AtomicInteger claimedIdleConnectionCount = new AtomicInteger();
+
+  private volatile int expectedConnectionTypeCode;
+
+  public ConcurrentPooledDataSource() {
+    super();
+  }
+
+  public ConcurrentPooledDataSource(String driver, String url, String username, String password) {
+    super(driver, url, username, password);
+    expectedConnectionTypeCode = assembleConnectionTypeCode(getUrl(), getUsername(), getPassword());
+  }
+
+  public ConcurrentPooledDataSource(String driver, String url, Properties driverProperties) {
+    super(driver, url, driverProperties);
+    expectedConnectionTypeCode = assembleConnectionTypeCode(getUrl(), getUsername(), getPassword());
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return borrowConnection(getUsername(), getPassword()).getProxyConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return borrowConnection(username, password).getProxyConnection();
+  }
+
+  @Override
+  public PoolState getPoolState() {
+    return state;
+  }
+
+  int getIdleConnectionCount() {
+    return idleConnectionCount.get();
+  }
+
+  int getActiveConnectionCount() {
+    return activeConnections.size();
+  }
+
+  /**
+   * Closes all active and idle connections in the pool.
+   */
+  @Override
+  public void forceCloseAll() {
+    expectedConnectionTypeCode = assembleConnectionTypeCode(getUrl(), getUsername(), getPassword());
+    for (PooledConnection conn : activeConnections.values()) {
+      if (removeActiveConnection(conn)) {
+        totalConnectionCount.decrementAndGet();
+        closeRealConnection(conn);
+      }
+    }
+    PooledConnection conn;
+    while ((conn = idleConnections.poll()) != null) {
+      if (conn.claim()) {
+        idleConnectionCount.decrementAndGet();
+        totalConnectionCount.decrementAndGet();
+        closeRealConnection(conn);
+      }
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("ConcurrentPooledDataSource forcefully closed/removed all connections.");
+    }
+  }
+
+  @Override
+  protected void pushConnection(PooledConnection conn) throws SQLException {
+    if (!removeActiveConnection(conn)) {
+      // already claimed as overdue, closed twice or closed by forceCloseAll
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      state.badConnectionCounter.increment();
+      return;
+    }
+    if (conn.isValid()) {
+      state.accumulatedCheckoutTimeCounter.add(conn.getCheckoutTime());
+      if (!conn.getRealConnection().getAutoCommit()) {
+        conn.getRealConnection().rollback();
+      }
+      if (conn.getConnectionTypeCode() == expectedConnectionTypeCode && reserveIdleConnection()) {
+        PooledConnection newConn = new PooledConnection(conn, this);
+        newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
+        newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+        conn.invalidate();
+        if (log.isDebugEnabled()) {
+          log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
+        }
+        if (!handOff(newConn)) {
+          idleConnections.offer(newConn);
+          lastReturnedConnection.set(newConn);
+        }
+      } else {
+        totalConnectionCount.decrementAndGet();
+        conn.getRealConnection().close();
+        if (log.isDebugEnabled()) {
+          log.debug("Closed connection " + conn.getRealHashCode() + ".");
+        }
+        conn.invalidate();
+      }
+    } else {
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      totalConnectionCount.decrementAndGet();
+      state.badConnectionCounter.increment();
+    }
+  }
+
+  private PooledConnection borrowConnection(String username, String password) throws SQLException {
+    boolean countedWait = false;
+    long t = System.currentTimeMillis();
+    int localBadConnectionCount = 0;
+
+    while (true) {
+      PooledConnection conn = claimIdleConnection();
+      if (conn == null) {
+        conn = createConnection();
+      }
+      if (conn == null) {
+        conn = claimOverdueConnection();
+      }
+      if (conn == null) {
+        // Must wait
+        if (!countedWait) {
+          state.hadToWaitCounter.increment();
+          countedWait = true;
+        }
+        if (log.isDebugEnabled()) {
+          log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
+        }
+        long wt = System.currentTimeMillis();
+        waiterCount.incrementAndGet();
+        try {
+          // a connection may have been returned before this borrower was counted as waiting
+          conn = claimIdleConnection();
+          if (conn == null) {
+            conn = awaitHandOff();
+          }
+        } catch (InterruptedException e) {
+          break;
+        } finally {
+          waiterCount.decrementAndGet();
+          state.accumulatedWaitTimeCounter.add(System.currentTimeMillis() - wt);
+        }
+        if (conn == null) {
+          continue;
+        }
+      }
+      // ping to server and check the connection is valid or not
+      if (conn.isValid()) {
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+        conn.setConnectionTypeCode(assembleConnectionTypeCode(getUrl(), username, password));
+        conn.setCheckoutTimestamp(System.currentTimeMillis());
+        conn.setLastUsedTimestamp(System.currentTimeMillis());
+        activeConnections.put(conn, conn);
+        state.requestCounter.increment();
+        state.accumulatedRequestTimeCounter.add(System.currentTimeMillis() - t);
+        return conn;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
+      }
+      totalConnectionCount.decrementAndGet();
+      state.badConnectionCounter.increment();
+      localBadConnectionCount++;
+      if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
+        if (log.isDebugEnabled()) {
+          log.debug("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+        }
+        throw new SQLException("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+      }
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug("ConcurrentPooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+    }
+    throw new SQLException("ConcurrentPooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+  }
+
+  private PooledConnection claimIdleConnection() {
+    PooledConnection conn = lastReturnedConnection.get();
+    if (conn != null) {
+      lastReturnedConnection.remove();
+      if (conn.claim()) {
+        pruneClaimedIdleConnections();
+        return checkedOut(conn);
+      }
+    }
+    while ((conn = idleConnections.poll()) != null) {
+      if (conn.claim()) {
+        return checkedOut(conn);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Connections claimed through the thread-local slot stay in the idle queue, where they are skipped by later polls.
+   * They are removed in bulk once they are more than the idle connections allowed in the pool.
+   */
+  private void pruneClaimedIdleConnections() {
+    if (claimedIdleConnectionCount.incrementAndGet() > poolMaximumIdleConnections) {
+      claimedIdleConnectionCount.set(0);
+      idleConnections.removeIf(PooledConnection::isClaimed);
+    }
+  }
+
+  private PooledConnection checkedOut(PooledConnection conn) {
+    idleConnectionCount.decrementAndGet();
+    if (log.isDebugEnabled()) {
+      log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+    }
+    return conn;
+  }
+
+  private PooledConnection createConnection() throws SQLException {
+    int total;
+    do {
+      total = totalConnectionCount.get();
+      if (total >= poolMaximumActiveConnections) {
+        return null;
+      }
+    } while (!totalConnectionCount.compareAndSet(total, total + 1));
+    try {
+      PooledConnection conn = new PooledConnection(newRealConnection(), this);
+      if (log.isDebugEnabled()) {
+        log.debug("Created connection " + conn.getRealHashCode() + ".");
+      }
+      return conn;
+    } catch (SQLException | RuntimeException e) {
+      totalConnectionCount.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private PooledConnection claimOverdueConnection() {
+    PooledConnection oldestActiveConnection = null;
+    for (PooledConnection conn : activeConnections.values()) {
+      if (oldestActiveConnection == null || conn.getCheckoutTimestamp() < oldestActiveConnection.getCheckoutTimestamp()) {
+        oldestActiveConnection = conn;
+      }
+    }
+    if (oldestActiveConnection == null) {
+      return null;
+    }
+    long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
+    if (longestCheckoutTime <= poolMaximumCheckoutTime || !removeActiveConnection(oldestActiveConnection)) {
+      return null;
+    }
+    // Can claim overdue connection
+    state.claimedOverdueConnectionCounter.increment();
+    state.accumulatedCheckoutTimeOfOverdueConnectionsCounter.add(longestCheckoutTime);
+    state.accumulatedCheckoutTimeCounter.add(longestCheckoutTime);
+    try {
+      if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
+        oldestActiveConnection.getRealConnection().rollback();
+      }
+    } catch (SQLException e) {
+      // the connection is validated before it is handed out
+      log.debug("Bad connection. Could not roll back");
+    }
+    PooledConnection conn = new PooledConnection(oldestActiveConnection, this);
+    conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
+    conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+    oldestActiveConnection.invalidate();
+    if (log.isDebugEnabled()) {
+      log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
+    }
+    return conn;
+  }
+
+  private PooledConnection awaitHandOff() throws InterruptedException {
+    PooledConnection conn = handoffQueue.poll(poolTimeToWait, TimeUnit.MILLISECONDS);
+    if (conn != null && conn.claim()) {
+      return checkedOut(conn);
+    }
+    return null;
+  }
+
+  /**
+   * Hands the given connection off to the longest waiting borrower, if any.
+   *
+   * @return true if a waiting borrower took the connection
+   */
+  private boolean handOff(PooledConnection conn) {
+    for (int i = 0; waiterCount.get() > 0; i++) {
+      if (handoffQueue.offer(conn)) {
+        return true;
+      }
+      if ((i & 0xff) == 0xff) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+      } else {
+        Thread.yield();
+      }
+    }
+    return false;
+  }
+
+  private boolean reserveIdleConnection() {
+    int idle;
+    do {
+      idle = idleConnectionCount.get();
+      if (idle >= poolMaximumIdleConnections) {
+        return false;
+      }
+    } while (!idleConnectionCount.compareAndSet(idle, idle + 1));
+    return true;
+  }
+
+  /**
+   * Removes the given connection from the active connections. Pooled connections wrapping the same real connection
+   * are equal, so the removal checks the identity of the registered connection.
+   */
+  private boolean removeActiveConnection(PooledConnection conn) {
+    final boolean[] removed = { false };
+    activeConnections.computeIfPresent(conn, (key, registered) -> {
+      if (registered == conn) {
+        removed[0] = true;
+        return null;
+      }
+      return registered;
+    });
+    return removed[0];
+  }
+
+  private void closeRealConnection(PooledConnection conn) {
+    try {
+      conn.invalidate();
+
+      Connection realConn = conn.getRealConnection();
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      realConn.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+}
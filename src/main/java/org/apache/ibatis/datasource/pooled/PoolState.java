@@ -17,6 +17,7 @@ package org.apache.ibatis.datasource.pooled;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author Clinton Begin
@@ -35,6 +36,10 @@ public class PoolState {
   protected long accumulatedWaitTime = 0;
   protected long hadToWaitCount = 0;
   protected long badConnectionCount = 0;
+  // recorded by the statement caches of the connections, without holding the pool lock
+  final LongAdder statementCacheHitCounter = new LongAdder();
+  final LongAdder statementCacheMissCounter = new LongAdder();
+  final LongAdder statementCacheEvictionCounter = new LongAdder();
 
   public PoolState(PooledDataSource dataSource) {
     this.dataSource = dataSource;
@@ -73,6 +78,36 @@ public class PoolState {
     return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
   }
 
+  /**
+   * Gets the number of prepared statements taken from the statement caches of the connections.
+   *
+   * @return the statement cache hit count
+   * @since 3.5.5
+   */
+  public long getStatementCacheHitCount() {
+    return statementCacheHitCounter.sum();
+  }
+
+  /**
+   * Gets the number of prepared statements prepared because they were not in the statement caches of the connections.
+   *
+   * @return the statement cache miss count
+   * @since 3.5.5
+   */
+  public long getStatementCacheMissCount() {
+    return statementCacheMissCounter.sum();
+  }
+
+  /**
+   * Gets the number of prepared statements closed to keep the statement caches of the connections within their size.
+   *
+   * @return the statement cache eviction count
+   * @since 3.5.5
+   */
+  public long getStatementCacheEvictionCount() {
+    return statementCacheEvictionCounter.sum();
+  }
+
   public synchronized int getIdleConnectionCount() {
     return idleConnections.size();
   }
@@ -96,6 +131,7 @@ public class PoolState {
     builder.append("\n poolPingEnabled                ").append(dataSource.poolPingEnabled);
     builder.append("\n poolPingQuery                  ").append(dataSource.poolPingQuery);
     builder.append("\n poolPingConnectionsNotUsedFor  ").append(dataSource.poolPingConnectionsNotUsedFor);
+    builder.append("\n poolPreparedStatementCacheSize ").append(dataSource.poolPreparedStatementCacheSize);
     builder.append("\n ---STATUS-----------------------------------------------------");
     builder.append("\n activeConnections              ").append(getActiveConnectionCount());
     builder.append("\n idleConnections                ").append(getIdleConnectionCount());
@@ -107,6 +143,9 @@ public class PoolState {
     builder.append("\n hadToWait                      ").append(getHadToWaitCount());
     builder.append("\n averageWaitTime                ").append(getAverageWaitTime());
     builder.append("\n badConnectionCount             ").append(getBadConnectionCount());
+    builder.append("\n statementCacheHits             ").append(getStatementCacheHitCount());
+    builder.append("\n statementCacheMisses           ").append(getStatementCacheMissCount());
+    builder.append("\n statementCacheEvictions        ").append(getStatementCacheEvictionCount());
     builder.append("\n===============================================================");
     return builder.toString();
   }
@@ -19,7 +19,9 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
 
@@ -29,6 +31,7 @@ import org.apache.ibatis.reflection.ExceptionUtil;
 class PooledConnection implements InvocationHandler {
 
   private static final String CLOSE = "close";
+  private static final String PREPARE_STATEMENT = "prepareStatement";
   private static final Class<?>[] IFACES = new Class<?>[] { Connection.class };
 
   private final int hashCode;
@@ -40,6 +43,8 @@ class PooledConnection implements InvocationHandler {
   private long lastUsedTimestamp;
   private int connectionTypeCode;
   private boolean valid;
+  private final AtomicBoolean claimed = new AtomicBoolean();
+  private PooledStatementCache statementCache;
 
   /**
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in.
@@ -59,6 +64,20 @@ class PooledConnection implements InvocationHandler {
     this.proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), IFACES, this);
   }
 
+  /**
+   * Constructor for a new pooled connection wrapping the physical connection of another one, keeping its statement
+   * cache.
+   *
+   * @param connection
+   *          - the pooled connection whose physical connection is wrapped
+   * @param dataSource
+   *          - the dataSource that the connection is from
+   */
+  PooledConnection(PooledConnection connection, PooledDataSource dataSource) {
+    this(connection.getRealConnection(), dataSource);
+    this.statementCache = connection.statementCache;
+  }
+
   /**
    * Invalidates the connection.
    */
@@ -66,6 +85,10 @@ class PooledConnection implements InvocationHandler {
     valid = false;
   }
 
+  boolean isInvalidated() {
+    return !valid;
+  }
+
   /**
    * Method to see if the connection is usable.
    *
@@ -75,6 +98,19 @@ class PooledConnection implements InvocationHandler {
     return valid && realConnection != null && dataSource.pingConnection(this);
   }
 
+  /**
+   * Claims this idle connection for a single borrower.
+   *
+   * @return true if the caller is the first one to claim this connection
+   */
+  boolean claim() {
+    return claimed.compareAndSet(false, true);
+  }
+
+  boolean isClaimed() {
+    return claimed.get();
+  }
+
   /**
    * Getter for the *real* connection that this wraps.
    *
@@ -252,6 +288,9 @@ class PooledConnection implements InvocationHandler {
         // throw an SQLException instead of a Runtime
         checkConnection();
       }
+      if (PREPARE_STATEMENT.equals(methodName) && isCacheable(method)) {
+        return prepareCachedStatement(args);
+      }
       return method.invoke(realConnection, args);
     } catch (Throwable t) {
       throw ExceptionUtil.unwrapThrowable(t);
@@ -259,6 +298,28 @@ class PooledConnection implements InvocationHandler {
 
   }
 
+  private boolean isCacheable(Method method) {
+    final Class<?>[] parameterTypes = method.getParameterTypes();
+    for (int i = 1; i < parameterTypes.length; i++) {
+      if (parameterTypes[i] != int.class) {
+        return false;
+      }
+    }
+    // (sql), (sql, type, concurrency) and (sql, type, concurrency, holdability)
+    return parameterTypes.length != 2 && dataSource.getPoolPreparedStatementCacheSize() > 0;
+  }
+
+  private PreparedStatement prepareCachedStatement(Object[] args) throws SQLException {
+    if (statementCache == null) {
+      statementCache = new PooledStatementCache(dataSource.getPoolPreparedStatementCacheSize(), dataSource.getPoolState());
+    }
+    final int defaultValue = PooledStatementCache.StatementKey.DEFAULT;
+    return statementCache.prepareStatement(this, (String) args[0],
+        args.length > 1 ? (Integer) args[1] : defaultValue,
+        args.length > 2 ? (Integer) args[2] : defaultValue,
+        args.length > 3 ? (Integer) args[3] : defaultValue);
+  }
+
   private void checkConnection() throws SQLException {
     if (!valid) {
       throw new SQLException("Error accessing PooledConnection. Connection is invalid.");
@@ -0,0 +1,267 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * A bounded LRU cache of the prepared statements of a physical connection.
+ * <p>
+ * The cache outlives the {@link PooledConnection} that wraps the physical connection, so the statements are reused by
+ * all the borrowers of the connection. A cached statement is handed out through a proxy whose {@code close()} clears
+ * the parameters and the batch, restores the statement properties changed by the borrower and returns the statement to
+ * the cache. Statements are removed from the cache while they are in use, so a statement is never shared.
+ *
+ * @since 3.5.5
+ */
+class PooledStatementCache {
+
+  private static final Log log = LogFactory.getLog(PooledStatementCache.class);
+
+  private static final Class<?>[] IFACES = new Class<?>[] { PreparedStatement.class };
+  /** The getter and the setter of the statement properties restored when a statement is returned, by setter name. */
+  private static final Map<String, Method[]> RESETTABLE_PROPERTIES = new LinkedHashMap<>();
+
+  static {
+    try {
+      for (String property : new String[] { "QueryTimeout", "FetchSize", "FetchDirection", "MaxRows", "MaxFieldSize" }) {
+        RESETTABLE_PROPERTIES.put("set" + property, new Method[] { Statement.class.getMethod("get" + property),
+            Statement.class.getMethod("set" + property, int.class) });
+      }
+    } catch (NoSuchMethodException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final int maxSize;
+  private final PoolState state;
+  private final LinkedHashMap<StatementKey, CachedStatement> idleStatements = new LinkedHashMap<>();
+
+  PooledStatementCache(int maxSize, PoolState state) {
+    this.maxSize = maxSize;
+    this.state = state;
+  }
+
+  /**
+   * Returns a cached statement for the given SQL and result set options, or prepares a new one.
+   */
+  PreparedStatement prepareStatement(PooledConnection connection, String sql, int resultSetType,
+      int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    final StatementKey key = new StatementKey(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    CachedStatement statement;
+    synchronized (this) {
+      statement = idleStatements.remove(key);
+    }
+    if (statement != null) {
+      state.statementCacheHitCounter.increment();
+    } else {
+      state.statementCacheMissCounter.increment();
+      statement = new CachedStatement(key, prepare(connection, key));
+    }
+    return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), IFACES,
+        new StatementHandler(connection, statement));
+  }
+
+  synchronized int size() {
+    return idleStatements.size();
+  }
+
+  private PreparedStatement prepare(PooledConnection connection, StatementKey key) throws SQLException {
+    if (key.resultSetHoldability == StatementKey.DEFAULT) {
+      if (key.resultSetType == StatementKey.DEFAULT) {
+        return connection.getRealConnection().prepareStatement(key.sql);
+      }
+      return connection.getRealConnection().prepareStatement(key.sql, key.resultSetType, key.resultSetConcurrency);
+    }
+    return connection.getRealConnection().prepareStatement(key.sql, key.resultSetType, key.resultSetConcurrency,
+        key.resultSetHoldability);
+  }
+
+  private void release(PooledConnection connection, CachedStatement statement) {
+    if (connection.isInvalidated() || !statement.reset()) {
+      statement.closeQuietly();
+      return;
+    }
+    CachedStatement evicted = null;
+    CachedStatement duplicate;
+    synchronized (this) {
+      duplicate = idleStatements.put(statement.key, statement);
+      if (idleStatements.size() > maxSize) {
+        final Iterator<CachedStatement> iterator = idleStatements.values().iterator();
+        evicted = iterator.next();
+        iterator.remove();
+      }
+    }
+    if (duplicate != null) {
+      duplicate.closeQuietly();
+    }
+    if (evicted != null) {
+      state.statementCacheEvictionCounter.increment();
+      evicted.closeQuietly();
+    }
+  }
+
+  /**
+   * A statement is cached by its SQL and result set options. The options are {@link StatementKey#DEFAULT} when they
+   * were not given to {@code prepareStatement}.
+   */
+  static final class StatementKey {
+
+    static final int DEFAULT = Integer.MIN_VALUE;
+
+    private final String sql;
+    private final int resultSetType;
+    private final int resultSetConcurrency;
+    private final int resultSetHoldability;
+
+    StatementKey(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) {
+      this.sql = sql;
+      this.resultSetType = resultSetType;
+      this.resultSetConcurrency = resultSetConcurrency;
+      this.resultSetHoldability = resultSetHoldability;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof StatementKey)) {
+        return false;
+      }
+      final StatementKey other = (StatementKey) o;
+      return resultSetType == other.resultSetType && resultSetConcurrency == other.resultSetConcurrency
+          && resultSetHoldability == other.resultSetHoldability && sql.equals(other.sql);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = sql.hashCode();
+      result = 31 * result + resultSetType;
+      result = 31 * result + resultSetConcurrency;
+      result = 31 * result + resultSetHoldability;
+      return result;
+    }
+  }
+
+  private static final class CachedStatement {
+
+    private final StatementKey key;
+    private final PreparedStatement statement;
+    /** The initial values of the properties changed by borrowers, by setter name. */
+    private final Map<String, Object> initialProperties = new LinkedHashMap<>();
+
+    CachedStatement(StatementKey key, PreparedStatement statement) {
+      this.key = key;
+      this.statement = statement;
+    }
+
+    void beforeInvoke(Method method) throws Throwable {
+      final Method[] accessors = RESETTABLE_PROPERTIES.get(method.getName());
+      if (accessors != null && !initialProperties.containsKey(method.getName())) {
+        initialProperties.put(method.getName(), accessors[0].invoke(statement));
+      }
+    }
+
+    /**
+     * Prepares the statement for the next borrower.
+     *
+     * @return false if the statement could not be reset and must be closed
+     */
+    boolean reset() {
+      try {
+        statement.clearParameters();
+        statement.clearBatch();
+        statement.clearWarnings();
+        for (Map.Entry<String, Object> property : initialProperties.entrySet()) {
+          RESETTABLE_PROPERTIES.get(property.getKey())[1].invoke(statement, property.getValue());
+        }
+        return !statement.isClosed();
+      } catch (Exception e) {
+        if (log.isDebugEnabled()) {
+          log.debug("Could not reset cached statement, closing it. Cause: " + e);
+        }
+        return false;
+      }
+    }
+
+    void closeQuietly() {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        // ignore
+      }
+    }
+  }
+
+  /**
+   * The proxy of a statement handed out to a borrower. It is closed, and the statement returned to the cache, when the
+   * borrower closes it.
+   */
+  private final class StatementHandler implements InvocationHandler {
+
+    private final PooledConnection connection;
+    private final CachedStatement statement;
+    private boolean closed;
+
+    StatementHandler(PooledConnection connection, CachedStatement statement) {
+      this.connection = connection;
+      this.statement = statement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      final String methodName = method.getName();
+      if (Object.class.equals(method.getDeclaringClass())) {
+        if ("equals".equals(methodName)) {
+          return proxy == args[0];
+        }
+        return method.invoke(statement.statement, args);
+      } else if ("close".equals(methodName)) {
+        if (!closed) {
+          closed = true;
+          release(connection, statement);
+        }
+        return null;
+      } else if ("isClosed".equals(methodName)) {
+        return closed || statement.statement.isClosed();
+      } else if (closed) {
+        throw new SQLException("Statement is closed.");
+      } else if ("getConnection".equals(methodName)) {
+        return connection.getProxyConnection();
+      }
+      try {
+        statement.beforeInvoke(method);
+        return method.invoke(statement.statement, args);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+  }
+
+}
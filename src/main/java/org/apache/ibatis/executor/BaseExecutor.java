@@ -24,6 +24,8 @@ import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.LocalCacheStatistics;
+import org.apache.ibatis.cache.impl.LocalCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.statement.StatementUtil;
@@ -34,6 +36,7 @@ import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
@@ -61,12 +64,14 @@ public abstract class BaseExecutor implements Executor {
 
   protected int queryStack;
   private boolean closed;
+  private long localCacheHits;
+  private long localCacheMisses;
 
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
     this.deferredLoads = new ConcurrentLinkedQueue<>();
-    this.localCache = new PerpetualCache("LocalCache");
-    this.localOutputParameterCache = new PerpetualCache("LocalOutputParameterCache");
+    this.localCache = newLocalCache("LocalCache", configuration);
+    this.localOutputParameterCache = newLocalCache("LocalOutputParameterCache", configuration);
     this.closed = false;
     this.configuration = configuration;
     this.wrapper = this;
@@ -132,6 +137,9 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
     BoundSql boundSql = ms.getBoundSql(parameter);
+    if (!isLocalCacheRequired(ms)) {
+      return queryWithoutLocalCache(ms, parameter, rowBounds, resultHandler, boundSql);
+    }
     CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
     return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
   }
@@ -151,8 +159,12 @@ public abstract class BaseExecutor implements Executor {
       queryStack++;
       list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
       if (list != null) {
+        localCacheHits++;
         handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
       } else {
+        if (resultHandler == null) {
+          localCacheMisses++;
+        }
         list = queryFromDatabase(ms, parameter, rowBounds, resultHandler, key, boundSql);
       }
     } finally {
@@ -167,11 +179,50 @@ public abstract class BaseExecutor implements Executor {
       if (configuration.getLocalCacheScope() == LocalCacheScope.STATEMENT) {
         // issue #482
         clearLocalCache();
+      } else {
+        evictLocalCache();
       }
     }
     return list;
   }
 
+  /**
+   * The local cache of a top level statement is only needed when the local cache is session scoped, or when it is read
+   * while the statement is running, i.e. by nested queries or for the output parameters of callable statements.
+   */
+  private boolean isLocalCacheRequired(MappedStatement ms) {
+    if (queryStack > 0 || configuration.getLocalCacheScope() != LocalCacheScope.STATEMENT
+        || ms.getStatementType() == StatementType.CALLABLE) {
+      return true;
+    }
+    for (ResultMap resultMap : ms.getResultMaps()) {
+      if (resultMap.hasNestedQueries() || resultMap.hasNestedResultMaps() || resultMap.getDiscriminator() != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private <E> List<E> queryWithoutLocalCache(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+    ErrorContext.instance().resource(ms.getResource()).activity("executing a query").object(ms.getId());
+    if (closed) {
+      throw new ExecutorException("Executor was closed.");
+    }
+    if (ms.isFlushCacheRequired()) {
+      clearLocalCache();
+    }
+    List<E> list;
+    try {
+      queryStack++;
+      list = doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+    } finally {
+      queryStack--;
+    }
+    // issue #482
+    clearLocalCache();
+    return list;
+  }
+
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
     BoundSql boundSql = ms.getBoundSql(parameter);
@@ -196,12 +247,13 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
-    CacheKey cacheKey = new CacheKey();
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    // statement id, offset, limit, sql and environment id
+    CacheKey cacheKey = new CacheKey(parameterMappings.size() + 5);
     cacheKey.update(ms.getId());
     cacheKey.update(rowBounds.getOffset());
     cacheKey.update(rowBounds.getLimit());
     cacheKey.update(boundSql.getSql());
-    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
     // mimic DefaultParameterHandler logic
     for (ParameterMapping parameterMapping : parameterMappings) {
@@ -267,6 +319,39 @@ public abstract class BaseExecutor implements Executor {
     }
   }
 
+  @Override
+  public LocalCacheStatistics getLocalCacheStatistics() {
+    if (closed) {
+      throw new ExecutorException("Executor was closed.");
+    }
+    long evictions = 0;
+    long estimatedBytes = 0;
+    if (localCache instanceof LocalCache) {
+      evictions = ((LocalCache) localCache).getEvictions();
+      estimatedBytes = ((LocalCache) localCache).getEstimatedBytes();
+    }
+    return new LocalCacheStatistics(localCacheHits, localCacheMisses, evictions, localCache.getSize(), estimatedBytes);
+  }
+
+  private static LocalCache newLocalCache(String id, Configuration configuration) {
+    if (configuration == null) {
+      return new LocalCache(id);
+    }
+    return new LocalCache(id, configuration.getLocalCacheSize(), configuration.getLocalCacheMaxBytes());
+  }
+
+  private void evictLocalCache() {
+    // entries are only evicted between top-level queries, as nested queries and deferred loads rely on them
+    // the results and the output parameters of a callable statement are evicted together, as a cached result is only
+    // usable with its output parameters
+    if (localCache instanceof LocalCache) {
+      ((LocalCache) localCache).evict(localOutputParameterCache::removeObject);
+    }
+    if (localOutputParameterCache instanceof LocalCache) {
+      ((LocalCache) localOutputParameterCache).evict(localCache::removeObject);
+    }
+  }
+
   protected abstract int doUpdate(MappedStatement ms, Object parameter) throws SQLException;
 
   protected abstract List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException;
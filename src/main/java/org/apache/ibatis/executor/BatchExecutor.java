@@ -21,7 +21,10 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -44,6 +47,8 @@ public class BatchExecutor extends BaseExecutor {
 
   private final List<Statement> statementList = new ArrayList<>();
   private final List<BatchResult> batchResultList = new ArrayList<>();
+  private final List<BatchResult> executedResultList = new ArrayList<>();
+  private final Map<StatementKey, Integer> statementIndexes = new HashMap<>();
   private String currentSql;
   private MappedStatement currentStatement;
 
@@ -58,12 +63,13 @@ public class BatchExecutor extends BaseExecutor {
     final BoundSql boundSql = handler.getBoundSql();
     final String sql = boundSql.getSql();
     final Statement stmt;
-    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-      int last = statementList.size() - 1;
-      stmt = statementList.get(last);
+    final int index = indexOfStatement(ms, sql);
+    BatchResult batchResult;
+    if (index >= 0) {
+      stmt = statementList.get(index);
       applyTransactionTimeout(stmt);
       handler.parameterize(stmt);// fix Issues 322
-      BatchResult batchResult = batchResultList.get(last);
+      batchResult = batchResultList.get(index);
       batchResult.addParameterObject(parameterObject);
     } else {
       Connection connection = getConnection(ms.getStatementLog());
@@ -71,13 +77,33 @@ public class BatchExecutor extends BaseExecutor {
       handler.parameterize(stmt);    // fix Issues 322
       currentSql = sql;
       currentStatement = ms;
+      if (configuration.isGroupBatchesBySql()) {
+        statementIndexes.put(new StatementKey(ms, sql), statementList.size());
+      }
       statementList.add(stmt);
-      batchResultList.add(new BatchResult(ms, sql, parameterObject));
+      batchResult = new BatchResult(ms, sql, parameterObject);
+      batchResultList.add(batchResult);
     }
     handler.batch(stmt);
+    Integer maxBatchSize = configuration.getMaxBatchSize();
+    if (maxBatchSize != null && maxBatchSize > 0 && batchResult.getParameterObjects().size() >= maxBatchSize) {
+      // execute the full batch now and keep collecting into the same statement
+      int executedIndex = index >= 0 ? index : statementList.size() - 1;
+      executeBatch(stmt, batchResult, executedResultList);
+      executedResultList.add(batchResult);
+      batchResultList.set(executedIndex, new BatchResult(ms, sql));
+    }
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
+  private int indexOfStatement(MappedStatement ms, String sql) {
+    if (ms.getConfiguration().isGroupBatchesBySql()) {
+      Integer index = statementIndexes.get(new StatementKey(ms, sql));
+      return index == null ? -1 : index;
+    }
+    return sql.equals(currentSql) && ms.equals(currentStatement) ? statementList.size() - 1 : -1;
+  }
+
   @Override
   public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
       throws SQLException {
@@ -111,43 +137,21 @@ public class BatchExecutor extends BaseExecutor {
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
     try {
-      List<BatchResult> results = new ArrayList<>();
+      List<BatchResult> results = new ArrayList<>(executedResultList);
       if (isRollback) {
         return Collections.emptyList();
       }
       for (int i = 0, n = statementList.size(); i < n; i++) {
         Statement stmt = statementList.get(i);
-        applyTransactionTimeout(stmt);
         BatchResult batchResult = batchResultList.get(i);
-        try {
-          batchResult.setUpdateCounts(stmt.executeBatch());
-          MappedStatement ms = batchResult.getMappedStatement();
-          List<Object> parameterObjects = batchResult.getParameterObjects();
-          KeyGenerator keyGenerator = ms.getKeyGenerator();
-          if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
-            Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-            jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
-          } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
-            for (Object parameter : parameterObjects) {
-              keyGenerator.processAfter(this, ms, stmt, parameter);
-            }
-          }
-          // Close statement to close cursor #1109
-          closeStatement(stmt);
-        } catch (BatchUpdateException e) {
-          StringBuilder message = new StringBuilder();
-          message.append(batchResult.getMappedStatement().getId())
-              .append(" (batch index #")
-              .append(i + 1)
-              .append(")")
-              .append(" failed.");
-          if (i > 0) {
-            message.append(" ")
-                .append(i)
-                .append(" prior sub executor(s) completed successfully, but will be rolled back.");
-          }
-          throw new BatchExecutorException(message.toString(), e, results, batchResult);
+        if (batchResult.getParameterObjects().isEmpty()) {
+          // already executed when it reached the maximum batch size
+          continue;
         }
+        applyTransactionTimeout(stmt);
+        executeBatch(stmt, batchResult, results);
+        // Close statement to close cursor #1109
+        closeStatement(stmt);
         results.add(batchResult);
       }
       return results;
@@ -158,6 +162,66 @@ public class BatchExecutor extends BaseExecutor {
       currentSql = null;
       statementList.clear();
       batchResultList.clear();
+      executedResultList.clear();
+      statementIndexes.clear();
+    }
+  }
+
+  private void executeBatch(Statement stmt, BatchResult batchResult, List<BatchResult> results) throws SQLException {
+    try {
+      batchResult.setUpdateCounts(stmt.executeBatch());
+      MappedStatement ms = batchResult.getMappedStatement();
+      List<Object> parameterObjects = batchResult.getParameterObjects();
+      KeyGenerator keyGenerator = ms.getKeyGenerator();
+      if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
+        Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
+        jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+      } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
+        for (Object parameter : parameterObjects) {
+          keyGenerator.processAfter(this, ms, stmt, parameter);
+        }
+      }
+    } catch (BatchUpdateException e) {
+      int i = results.size();
+      StringBuilder message = new StringBuilder();
+      message.append(batchResult.getMappedStatement().getId())
+          .append(" (batch index #")
+          .append(i + 1)
+          .append(")")
+          .append(" failed.");
+      if (i > 0) {
+        message.append(" ")
+            .append(i)
+            .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+      }
+      throw new BatchExecutorException(message.toString(), e, results, batchResult);
+    }
+  }
+
+  private static class StatementKey {
+    private final MappedStatement mappedStatement;
+    private final String sql;
+
+    StatementKey(MappedStatement mappedStatement, String sql) {
+      this.mappedStatement = mappedStatement;
+      this.sql = sql;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof StatementKey)) {
+        return false;
+      }
+      StatementKey that = (StatementKey) o;
+      return mappedStatement.equals(that.mappedStatement) && sql.equals(that.sql);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(mappedStatement, sql);
     }
   }
 
@@ -19,6 +19,7 @@ import java.sql.SQLException;
 import java.util.List;
 
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.LocalCacheStatistics;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -54,6 +55,16 @@ public interface Executor {
 
   void clearLocalCache();
 
+  /**
+   * Returns the statistics of the local cache.
+   *
+   * @return the local cache statistics, or null if this executor does not keep a local cache
+   * @since 3.5.5
+   */
+  default LocalCacheStatistics getLocalCacheStatistics() {
+    return null;
+  }
+
   void deferLoad(MappedStatement ms, MetaObject resultObject, String property, CacheKey key, Class<?> targetType);
 
   Transaction getTransaction();
@@ -0,0 +1,52 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.sql.SQLException;
+import java.util.Collections;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * A result loader of a batched nested select, which loads the results of its key through a shared
+ * {@link ResultLoaderBatch}.
+ * <p>
+ * Its parameter object is the key wrapped as a list of one key, so that a copy rebuilt after deserialization executes
+ * the nested select for this key only.
+ *
+ * @since 3.5.5
+ */
+public class BatchedResultLoader extends ResultLoader {
+
+  private final Object key;
+  private final ResultLoaderBatch batch;
+
+  public BatchedResultLoader(Configuration config, Executor executor, MappedStatement mappedStatement, Object key,
+      Class<?> targetType, ResultLoaderBatch batch) {
+    super(config, executor, mappedStatement, ResultLoaderBatch.wrapKeys(Collections.singletonList(key)), targetType, null, null);
+    this.key = key;
+    this.batch = batch;
+  }
+
+  @Override
+  public Object loadResult() throws SQLException {
+    resultObject = resultExtractor.extractObjectFromList(batch.getResults(key), targetType);
+    return resultObject;
+  }
+
+}
@@ -0,0 +1,260 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Collects the keys of a nested select for the parent rows of one query and loads them with as few executions of the
+ * nested select as possible.
+ * <p>
+ * The nested select receives up to {@code batchSize} keys as a list (e.g. with
+ * {@code <foreach collection="list">}) and its results are matched to the keys by the property mapped to the
+ * foreign column. Keys that are requested but not yet loaded, whether eagerly at the end of the parent query or by a
+ * lazy loading trigger, are loaded together with the other pending keys.
+ * <p>
+ * When the same keys are being loaded by an enclosing query, as happens with circular references, the eager load is
+ * deferred by the executor until the enclosing query completes.
+ *
+ * @since 3.5.5
+ */
+public class ResultLoaderBatch {
+
+  private final Configuration configuration;
+  private final Executor executor;
+  private final MappedStatement mappedStatement;
+  private final String foreignColumn;
+  private final int batchSize;
+  private final long creatorThreadId;
+
+  private final Set<Object> pendingKeys = new LinkedHashSet<>();
+  private final Map<Object, List<Object>> results = new HashMap<>();
+  private final Map<Object, List<Consumer<List<Object>>>> deferredKeys = new HashMap<>();
+  private String foreignProperty;
+
+  public ResultLoaderBatch(Configuration configuration, Executor executor, MappedStatement mappedStatement,
+      String foreignColumn, int batchSize) {
+    this.configuration = configuration;
+    this.executor = executor;
+    this.mappedStatement = mappedStatement;
+    this.foreignColumn = foreignColumn;
+    this.batchSize = batchSize;
+    this.creatorThreadId = Thread.currentThread().getId();
+  }
+
+  /**
+   * Wraps keys as the parameter of the nested select.
+   *
+   * @param keys
+   *          the keys
+   * @return the parameter object
+   */
+  public static Object wrapKeys(List<Object> keys) {
+    return ParamNameResolver.wrapToMapIfCollection(keys, null);
+  }
+
+  public synchronized void addKey(Object key) {
+    Object normalizedKey = normalize(key);
+    if (!results.containsKey(normalizedKey) && !deferredKeys.containsKey(normalizedKey)) {
+      pendingKeys.add(normalizedKey);
+    }
+  }
+
+  /**
+   * Returns the results of the nested select for a key, loading it with the other pending keys if needed.
+   *
+   * @param key
+   *          the key
+   * @return the results matching the key
+   * @throws SQLException
+   *           if the nested select fails
+   */
+  public synchronized List<Object> getResults(Object key) throws SQLException {
+    Object normalizedKey = normalize(key);
+    List<Object> list = results.get(normalizedKey);
+    if (list == null) {
+      List<Object> keys = nextKeys(normalizedKey);
+      putResults(keys, selectList(wrapKeys(keys)));
+      list = results.get(normalizedKey);
+    }
+    return list;
+  }
+
+  /**
+   * Passes the results of the nested select for a key to the given consumer, loading it with the other pending keys if
+   * needed. If the keys are being loaded by an enclosing query, the consumer is called once that query completes.
+   *
+   * @param key
+   *          the key
+   * @param consumer
+   *          the consumer of the results matching the key
+   * @throws SQLException
+   *           if the nested select fails
+   */
+  public synchronized void getResults(Object key, Consumer<List<Object>> consumer) throws SQLException {
+    Object normalizedKey = normalize(key);
+    if (!results.containsKey(normalizedKey) && !deferredKeys.containsKey(normalizedKey)) {
+      List<Object> keys = nextKeys(normalizedKey);
+      Object parameterObject = wrapKeys(keys);
+      BoundSql boundSql = mappedStatement.getBoundSql(parameterObject);
+      CacheKey cacheKey = executor.createCacheKey(mappedStatement, parameterObject, RowBounds.DEFAULT, boundSql);
+      if (executor.isCached(mappedStatement, cacheKey)) {
+        for (Object deferredKey : keys) {
+          deferredKeys.put(deferredKey, new ArrayList<>());
+        }
+        executor.deferLoad(mappedStatement, configuration.newMetaObject(new DeferredRows(keys)), "rows", cacheKey, List.class);
+      } else {
+        putResults(keys, executor.query(mappedStatement, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, cacheKey, boundSql));
+      }
+    }
+    List<Consumer<List<Object>>> consumers = deferredKeys.get(normalizedKey);
+    if (consumers != null) {
+      consumers.add(consumer);
+    } else {
+      consumer.accept(results.get(normalizedKey));
+    }
+  }
+
+  private List<Object> nextKeys(Object key) {
+    List<Object> keys = new ArrayList<>();
+    keys.add(key);
+    pendingKeys.remove(key);
+    for (Iterator<Object> iterator = pendingKeys.iterator(); iterator.hasNext() && keys.size() < batchSize;) {
+      keys.add(iterator.next());
+      iterator.remove();
+    }
+    return keys;
+  }
+
+  private void putResults(List<Object> keys, List<Object> rows) {
+    for (Object loadedKey : keys) {
+      results.put(loadedKey, new ArrayList<>());
+    }
+    for (Object row : rows) {
+      List<Object> list = results.get(normalize(getForeignKey(row)));
+      if (list != null) {
+        list.add(row);
+      }
+    }
+    for (Object loadedKey : keys) {
+      List<Consumer<List<Object>>> consumers = deferredKeys.remove(loadedKey);
+      if (consumers != null) {
+        for (Consumer<List<Object>> consumer : consumers) {
+          consumer.accept(results.get(loadedKey));
+        }
+      }
+    }
+  }
+
+  private List<Object> selectList(Object parameterObject) throws SQLException {
+    Executor localExecutor = executor;
+    if (Thread.currentThread().getId() != creatorThreadId || localExecutor.isClosed()) {
+      localExecutor = ResultLoader.newExecutor(configuration);
+    }
+    try {
+      BoundSql boundSql = mappedStatement.getBoundSql(parameterObject);
+      CacheKey cacheKey = localExecutor.createCacheKey(mappedStatement, parameterObject, RowBounds.DEFAULT, boundSql);
+      return localExecutor.query(mappedStatement, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, cacheKey, boundSql);
+    } finally {
+      if (localExecutor != executor) {
+        localExecutor.close(false);
+      }
+    }
+  }
+
+  private Object getForeignKey(Object row) {
+    if (row instanceof Map) {
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) row).entrySet()) {
+        if (foreignColumn.equalsIgnoreCase(String.valueOf(entry.getKey()))) {
+          return entry.getValue();
+        }
+      }
+      return null;
+    }
+    MetaObject metaObject = configuration.newMetaObject(row);
+    if (foreignProperty == null) {
+      foreignProperty = findForeignProperty(metaObject);
+    }
+    return metaObject.getValue(foreignProperty);
+  }
+
+  private String findForeignProperty(MetaObject metaObject) {
+    List<ResultMap> resultMaps = mappedStatement.getResultMaps();
+    List<ResultMapping> resultMappings = resultMaps.isEmpty() ? Collections.emptyList() : resultMaps.get(0).getResultMappings();
+    for (ResultMapping resultMapping : resultMappings) {
+      if (foreignColumn.equalsIgnoreCase(resultMapping.getColumn()) && resultMapping.getProperty() != null
+          && resultMapping.getNestedQueryId() == null && resultMapping.getNestedResultMapId() == null) {
+        return resultMapping.getProperty();
+      }
+    }
+    String property = metaObject.findProperty(foreignColumn, configuration.isMapUnderscoreToCamelCase());
+    if (property == null) {
+      throw new ExecutorException("Could not find the property of the results of '" + mappedStatement.getId()
+          + "' mapped to the foreign column '" + foreignColumn + "'.");
+    }
+    return property;
+  }
+
+  /**
+   * Receives the rows of a deferred load from the executor, once the enclosing query loading them completes.
+   */
+  class DeferredRows {
+
+    private final List<Object> keys;
+
+    DeferredRows(List<Object> keys) {
+      this.keys = keys;
+    }
+
+    public void setRows(List<Object> rows) {
+      synchronized (ResultLoaderBatch.this) {
+        putResults(keys, rows);
+      }
+    }
+  }
+
+  /**
+   * The key read from the parent column and the one mapped in the results may have different integral types.
+   */
+  private static Object normalize(Object key) {
+    if (key instanceof Integer || key instanceof Short || key instanceof Byte) {
+      return ((Number) key).longValue();
+    }
+    return key;
+  }
+
+}
@@ -0,0 +1,318 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A {@link Map} for the rows of map results, storing the values in an array indexed by the column keys of the result
+ * set. The keys are shared by all the rows of a result set, so a row costs one array instead of one entry per column.
+ * <p>
+ * Keys that are not among the shared keys are kept in a {@link HashMap} of the row. Iteration follows the order of the
+ * shared keys, followed by the other keys. Like {@link HashMap}, {@code null} values are supported and instances are not
+ * thread safe.
+ */
+class CompactRowMap extends AbstractMap<String, Object> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Object ABSENT = new Absent();
+
+  private final Keys keys;
+  private final Object[] values;
+  private int size;
+  private HashMap<String, Object> otherValues;
+  private transient int modCount;
+  private transient Set<Map.Entry<String, Object>> entrySet;
+
+  CompactRowMap(Keys keys) {
+    this.keys = keys;
+    this.values = new Object[keys.names.length];
+    Arrays.fill(values, ABSENT);
+  }
+
+  @Override
+  public int size() {
+    return size + (otherValues == null ? 0 : otherValues.size());
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    final int index = keys.indexOf(key);
+    if (index != -1) {
+      return values[index] != ABSENT;
+    }
+    return otherValues != null && otherValues.containsKey(key);
+  }
+
+  @Override
+  public Object get(Object key) {
+    final int index = keys.indexOf(key);
+    if (index != -1) {
+      final Object value = values[index];
+      return value == ABSENT ? null : value;
+    }
+    return otherValues == null ? null : otherValues.get(key);
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    final int index = keys.indexOf(key);
+    if (index != -1) {
+      final Object previous = values[index];
+      values[index] = value;
+      if (previous == ABSENT) {
+        size++;
+        modCount++;
+        return null;
+      }
+      return previous;
+    }
+    if (otherValues == null) {
+      otherValues = new HashMap<>();
+    }
+    modCount++;
+    return otherValues.put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    final int index = keys.indexOf(key);
+    if (index != -1) {
+      return removeAt(index);
+    }
+    if (otherValues == null) {
+      return null;
+    }
+    modCount++;
+    return otherValues.remove(key);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(values, ABSENT);
+    size = 0;
+    otherValues = null;
+    modCount++;
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  private Object removeAt(int index) {
+    final Object previous = values[index];
+    if (previous == ABSENT) {
+      return null;
+    }
+    values[index] = ABSENT;
+    size--;
+    modCount++;
+    return previous;
+  }
+
+  /**
+   * The keys of the rows of a result set, shared by all its rows. Instances are immutable.
+   */
+  static final class Keys implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] names;
+    private final HashMap<String, Integer> indexes;
+
+    Keys(Iterable<String> names) {
+      this.indexes = new HashMap<>();
+      for (String name : names) {
+        indexes.putIfAbsent(name, indexes.size());
+      }
+      this.names = new String[indexes.size()];
+      for (Map.Entry<String, Integer> entry : indexes.entrySet()) {
+        this.names[entry.getValue()] = entry.getKey();
+      }
+    }
+
+    int indexOf(Object key) {
+      final Integer index = indexes.get(key);
+      return index == null ? -1 : index;
+    }
+
+    int size() {
+      return names.length;
+    }
+  }
+
+  private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+    @Override
+    public int size() {
+      return CompactRowMap.this.size();
+    }
+
+    @Override
+    public void clear() {
+      CompactRowMap.this.clear();
+    }
+
+    @Override
+    public Iterator<Map.Entry<String, Object>> iterator() {
+      return new EntryIterator();
+    }
+  }
+
+  private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+    private int next = advance(0);
+    private int current = -1;
+    private boolean currentIsOther;
+    private Iterator<Map.Entry<String, Object>> otherEntries;
+    private int expectedModCount = modCount;
+
+    private int advance(int from) {
+      int index = from;
+      while (index < values.length && values[index] == ABSENT) {
+        index++;
+      }
+      return index;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next < values.length) {
+        return true;
+      }
+      if (otherEntries == null) {
+        otherEntries = otherValues == null ? null : otherValues.entrySet().iterator();
+        if (otherEntries == null) {
+          return false;
+        }
+      }
+      return otherEntries.hasNext();
+    }
+
+    @Override
+    public Map.Entry<String, Object> next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (next < values.length) {
+        current = next;
+        next = advance(next + 1);
+        return new Entry(current);
+      }
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      current = -1;
+      currentIsOther = true;
+      return otherEntries.next();
+    }
+
+    @Override
+    public void remove() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (currentIsOther) {
+        otherEntries.remove();
+        currentIsOther = false;
+        modCount++;
+      } else if (current != -1) {
+        removeAt(current);
+        current = -1;
+      } else {
+        throw new IllegalStateException();
+      }
+      expectedModCount = modCount;
+    }
+  }
+
+  private final class Entry implements Map.Entry<String, Object> {
+
+    private final int index;
+
+    Entry(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getKey() {
+      return keys.names[index];
+    }
+
+    @Override
+    public Object getValue() {
+      final Object value = values[index];
+      return value == ABSENT ? null : value;
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      final Object previous = getValue();
+      if (values[index] == ABSENT) {
+        size++;
+      }
+      values[index] = value;
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      final Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      return getKey().equals(e.getKey()) && (getValue() == null ? e.getValue() == null : getValue().equals(e.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      final Object value = getValue();
+      return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  /**
+   * Marks the keys a row has no value for. Resolves to the shared instance when deserialized.
+   */
+  private static final class Absent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Object readResolve() {
+      return ABSENT;
+    }
+  }
+
+}
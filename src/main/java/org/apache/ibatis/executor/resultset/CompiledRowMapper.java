@@ -0,0 +1,113 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleMethodInvoker;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Maps the rows of a flat result map by reading each column by index and calling the setters through functions
+ * generated once per property, bypassing {@link org.apache.ibatis.reflection.MetaObject}, the property name lookups and
+ * core reflection. Setters for which no function can be generated (e.g. fields without a setter method) are called
+ * through their invoker.
+ * <p>
+ * Instances are built once per result map and result set shape and are shared between threads.
+ */
+class CompiledRowMapper {
+
+  /**
+   * Marker for result maps that cannot be mapped by a compiled row mapper.
+   */
+  static final CompiledRowMapper UNSUPPORTED = new CompiledRowMapper(null, null, false, false);
+
+  private final Class<?> type;
+  private final ObjectFactory objectFactory;
+  private final boolean callSettersOnNulls;
+  private final boolean returnInstanceForEmptyRow;
+  private final List<ColumnMapping> columnMappings = new ArrayList<>();
+
+  CompiledRowMapper(Class<?> type, ObjectFactory objectFactory, boolean callSettersOnNulls, boolean returnInstanceForEmptyRow) {
+    this.type = type;
+    this.objectFactory = objectFactory;
+    this.callSettersOnNulls = callSettersOnNulls;
+    this.returnInstanceForEmptyRow = returnInstanceForEmptyRow;
+  }
+
+  void addColumnMapping(int columnIndex, String property, TypeHandler<?> typeHandler, Invoker setter, boolean primitive) {
+    columnMappings.add(new ColumnMapping(columnIndex, property, typeHandler, setter, callSettersOnNulls && !primitive));
+  }
+
+  Object map(ResultSet rs) throws SQLException {
+    final Object rowValue = objectFactory.create(type);
+    boolean foundValues = false;
+    for (ColumnMapping mapping : columnMappings) {
+      final Object value = mapping.typeHandler.getResult(rs, mapping.columnIndex);
+      if (value != null) {
+        foundValues = true;
+      }
+      if (value != null || mapping.setNull) {
+        // gcode issue #377, call setter on nulls (value is not 'found')
+        mapping.setValue(rowValue, value);
+      }
+    }
+    return foundValues || returnInstanceForEmptyRow ? rowValue : null;
+  }
+
+  private static class ColumnMapping {
+    private final int columnIndex;
+    private final String property;
+    private final TypeHandler<?> typeHandler;
+    private final Invoker setter;
+    private final BiConsumer<Object, Object> setterFunction;
+    private final boolean setNull;
+
+    ColumnMapping(int columnIndex, String property, TypeHandler<?> typeHandler, Invoker setter, boolean setNull) {
+      this.columnIndex = columnIndex;
+      this.property = property;
+      this.typeHandler = typeHandler;
+      this.setter = setter;
+      this.setterFunction = MethodHandleMethodInvoker.toSetterFunction(setter);
+      this.setNull = setNull;
+    }
+
+    void setValue(Object object, Object value) {
+      try {
+        try {
+          if (setterFunction != null) {
+            setterFunction.accept(object, value);
+          } else {
+            setter.invoke(object, new Object[] { value });
+          }
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not set property '" + property + "' of '" + object.getClass() + "' with value '" + value + "' Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+}
@@ -33,10 +33,14 @@ import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.ResultExtractor;
+import org.apache.ibatis.executor.loader.BatchedResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoader;
+import org.apache.ibatis.executor.loader.ResultLoaderBatch;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
@@ -53,14 +57,22 @@ import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
 import org.apache.ibatis.session.AutoMappingBehavior;
+import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.ByteTypeHandler;
+import org.apache.ibatis.type.IntegerTypeHandler;
 import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.LongTypeHandler;
+import org.apache.ibatis.type.ShortTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.type.UnknownTypeHandler;
 
 /**
  * @author Clinton Begin
@@ -84,7 +96,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final ReflectorFactory reflectorFactory;
 
   // nested resultmaps
-  private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
+  private final NestedResultObjects nestedResultObjects = new NestedResultObjects();
+  private final Map<String, Map<String, RowIdentity>> rowIdentities = new HashMap<>();
+
+  // keys shared by the rows of compact map results
+  private final Map<String, Map<String, CompactRowMap.Keys>> compactRowMapKeys = new HashMap<>();
   private final Map<String, Object> ancestorObjects = new HashMap<>();
   private Object previousRowValue;
 
@@ -92,18 +108,66 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final Map<String, ResultMapping> nextResultMaps = new HashMap<>();
   private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<>();
 
+  // batched nested selects
+  private final Map<ResultMapping, ResultLoaderBatch> resultLoaderBatches = new HashMap<>();
+  private final List<PendingBatchedValue> pendingBatchedValues = new ArrayList<>();
+  private boolean batchNestedQueries;
+
   // Cached Automappings
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
 
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
+  // rows read from the result sets, recorded for adaptive fetch sizes
+  private int fetchedRows;
+
   private static class PendingRelation {
     public MetaObject metaObject;
     public ResultMapping propertyMapping;
   }
 
-  private static class UnMappedColumnAutoMapping {
+  private static class PendingBatchedValue {
+    private final MetaObject metaObject;
+    private final String property;
+    private final Class<?> targetType;
+    private final ResultLoaderBatch batch;
+    private final Object key;
+
+    PendingBatchedValue(MetaObject metaObject, String property, Class<?> targetType, ResultLoaderBatch batch, Object key) {
+      this.metaObject = metaObject;
+      this.property = property;
+      this.targetType = targetType;
+      this.batch = batch;
+      this.key = key;
+    }
+  }
+
+  /**
+   * How the rows of a result map (and column prefix) are identified in a result set.
+   */
+  private static class RowIdentity {
+    private final RowIdentityKind kind;
+    private final String column;
+
+    RowIdentity(RowIdentityKind kind, String column) {
+      this.kind = kind;
+      this.column = column;
+    }
+  }
+
+  private enum RowIdentityKind {
+    /** A single id column read as a primitive long. */
+    LONG,
+    /** A single string id column. */
+    STRING,
+    /** Any other combination of columns, identified by a cache key. */
+    CACHE_KEY,
+    /** The id column is not in the result set, rows are never merged. */
+    NONE
+  }
+
+  static class UnMappedColumnAutoMapping {
     private final String column;
     private final String property;
     private final TypeHandler<?> typeHandler;
@@ -147,7 +211,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           handleRefCursorOutputParameter((ResultSet) cs.getObject(i + 1), parameterMapping, metaParam);
         } else {
           final TypeHandler<?> typeHandler = parameterMapping.getTypeHandler();
-          metaParam.setValue(parameterMapping.getProperty(), typeHandler.getResult(cs, i + 1));
+          metaParam.setValue(parameterMapping.getPropertyPath(), typeHandler.getResult(cs, i + 1));
         }
       }
     }
@@ -160,11 +224,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     try {
       final String resultMapId = parameterMapping.getResultMapId();
       final ResultMap resultMap = configuration.getResultMap(resultMapId);
-      final ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+      final ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration, mappedStatement.getResultSetShapeCache());
       if (this.resultHandler == null) {
         final DefaultResultHandler resultHandler = new DefaultResultHandler(objectFactory);
         handleRowValues(rsw, resultMap, resultHandler, new RowBounds(), null);
-        metaParam.setValue(parameterMapping.getProperty(), resultHandler.getResultList());
+        metaParam.setValue(parameterMapping.getPropertyPath(), resultHandler.getResultList());
       } else {
         handleRowValues(rsw, resultMap, resultHandler, new RowBounds(), null);
       }
@@ -182,6 +246,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
 
     final List<Object> multipleResults = new ArrayList<>();
+    // the eager batched nested selects are loaded once all the rows are read, before any result is handed out
+    batchNestedQueries = resultHandler == null;
 
     int resultSetCount = 0;
     ResultSetWrapper rsw = getFirstResultSet(stmt);
@@ -212,6 +278,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    if (configuration.isAdaptiveFetchSize()) {
+      mappedStatement.getFetchSizeStatistics().record(fetchedRows);
+    }
+    loadPendingBatchedValues();
     return collapseSingleResultList(multipleResults);
   }
 
@@ -230,7 +300,38 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
-    return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    Cursor<E> cursor = new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    Integer cursorPrefetch = mappedStatement.getCursorPrefetch();
+    // nested selects would use the executor from the prefetching thread
+    if (cursorPrefetch != null && cursorPrefetch > 0 && !hasNestedQueries(resultMap, new HashSet<>())) {
+      return new PrefetchingCursor<>(cursor, rowBounds, cursorPrefetch);
+    }
+    return cursor;
+  }
+
+  private boolean hasNestedQueries(ResultMap resultMap, Set<String> visitedResultMapIds) {
+    if (!visitedResultMapIds.add(resultMap.getId())) {
+      return false;
+    }
+    if (resultMap.hasNestedQueries()) {
+      return true;
+    }
+    for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+      String nestedResultMapId = resultMapping.getNestedResultMapId();
+      if (nestedResultMapId != null && hasNestedQueries(configuration.getResultMap(nestedResultMapId), visitedResultMapIds)) {
+        return true;
+      }
+    }
+    Discriminator discriminator = resultMap.getDiscriminator();
+    if (discriminator != null) {
+      for (String discriminatedMapId : discriminator.getDiscriminatorMap().values()) {
+        if (configuration.hasResultMap(discriminatedMapId)
+            && hasNestedQueries(configuration.getResultMap(discriminatedMapId), visitedResultMapIds)) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
@@ -247,7 +348,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
     }
-    return rs != null ? new ResultSetWrapper(rs, configuration) : null;
+    return rs != null ? new ResultSetWrapper(rs, configuration, mappedStatement.getResultSetShapeCache()) : null;
   }
 
   private ResultSetWrapper getNextResultSet(Statement stmt) {
@@ -260,7 +361,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           if (rs == null) {
             return getNextResultSet(stmt);
           } else {
-            return new ResultSetWrapper(rs, configuration);
+            return new ResultSetWrapper(rs, configuration, mappedStatement.getResultSetShapeCache());
           }
         }
       }
@@ -282,6 +383,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private void cleanUpAfterHandlingResultSet() {
     nestedResultObjects.clear();
+    rowIdentities.clear();
+    compactRowMapKeys.clear();
   }
 
   private void validateResultMapsCount(ResultSetWrapper rsw, int resultMapCount) {
@@ -350,6 +453,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+      fetchedRows++;
       ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
@@ -393,6 +497,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
+    if (columnPrefix == null && configuration.isUseCompiledRowMappers()) {
+      final CompiledRowMapper rowMapper = getCompiledRowMapper(rsw, resultMap);
+      if (rowMapper != CompiledRowMapper.UNSUPPORTED) {
+        return rowMapper.map(rsw.getResultSet());
+      }
+    }
     final ResultLoaderMap lazyLoader = new ResultLoaderMap();
     Object rowValue = createResultObject(rsw, resultMap, lazyLoader, columnPrefix);
     if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
@@ -408,17 +518,112 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return rowValue;
   }
 
+  //
+  // COMPILED ROW MAPPERS FOR FLAT RESULT MAPS
+  //
+
+  private CompiledRowMapper getCompiledRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    CompiledRowMapper rowMapper = rsw.getCompiledRowMapper(resultMap.getId());
+    if (rowMapper == null) {
+      rowMapper = compileRowMapper(rsw, resultMap);
+      if (rowMapper == null) {
+        // not known yet whether every column can be auto-mapped, map this row as usual
+        return CompiledRowMapper.UNSUPPORTED;
+      }
+      rsw.putCompiledRowMapper(resultMap.getId(), rowMapper);
+    }
+    return rowMapper;
+  }
+
+  /**
+   * Compiles a row mapper for the given result map.
+   *
+   * @return the row mapper, {@link CompiledRowMapper#UNSUPPORTED} if the result map cannot be compiled, or null if the
+   *         auto-mappings have not been shared by a previous row yet
+   */
+  private CompiledRowMapper compileRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    final Class<?> resultType = resultMap.getType();
+    if (resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries() || resultMap.getDiscriminator() != null
+        || !resultMap.getConstructorResultMappings().isEmpty() || hasTypeHandlerForResultObject(rsw, resultType)
+        || resultType.isInterface() || Map.class.isAssignableFrom(resultType) || objectFactory.isCollection(resultType)
+        || !(configuration.getObjectWrapperFactory() instanceof DefaultObjectWrapperFactory)) {
+      return CompiledRowMapper.UNSUPPORTED;
+    }
+    final MetaClass metaType = MetaClass.forClass(resultType, reflectorFactory);
+    if (!metaType.hasDefaultConstructor()) {
+      return CompiledRowMapper.UNSUPPORTED;
+    }
+    final CompiledRowMapper rowMapper = new CompiledRowMapper(resultType, objectFactory,
+        configuration.isCallSettersOnNulls(), configuration.isReturnInstanceForEmptyRow());
+    // same order as getRowValue: automatic mappings first, then property mappings
+    if (shouldApplyAutomaticMappings(resultMap, false)) {
+      // only the auto-mappings resolved without reporting an unknown column are shared, the others must be resolved
+      // (and reported) by each execution
+      final List<UnMappedColumnAutoMapping> autoMappings = rsw.getAutoMappings(resultMap.getId() + ":" + null);
+      if (autoMappings == null) {
+        return null;
+      }
+      for (UnMappedColumnAutoMapping mapping : autoMappings) {
+        if (!isFlatProperty(mapping.property)) {
+          return CompiledRowMapper.UNSUPPORTED;
+        }
+        rowMapper.addColumnMapping(rsw.getColumnNames().indexOf(mapping.column) + 1, mapping.property, mapping.typeHandler,
+            metaType.getSetInvoker(mapping.property), mapping.primitive);
+      }
+    }
+    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, null);
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      if (propertyMapping.isCompositeResult() || propertyMapping.getResultSet() != null) {
+        return CompiledRowMapper.UNSUPPORTED;
+      }
+      final String column = propertyMapping.getColumn();
+      final String property = propertyMapping.getProperty();
+      if (column == null || property == null || !mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+        continue;
+      }
+      if (!isFlatProperty(property) || !metaType.hasSetter(property)) {
+        return CompiledRowMapper.UNSUPPORTED;
+      }
+      final int columnIndex = findColumnIndex(rsw, column);
+      rowMapper.addColumnMapping(columnIndex, property, getColumnTypeHandler(rsw, propertyMapping.getTypeHandler(), columnIndex),
+          metaType.getSetInvoker(property), metaType.getSetterType(property).isPrimitive());
+    }
+    return rowMapper;
+  }
+
+  private TypeHandler<?> getColumnTypeHandler(ResultSetWrapper rsw, TypeHandler<?> typeHandler, String column) {
+    return typeHandler instanceof UnknownTypeHandler ? rsw.getTypeHandler(typeHandler, column) : typeHandler;
+  }
+
+  private TypeHandler<?> getColumnTypeHandler(ResultSetWrapper rsw, TypeHandler<?> typeHandler, int columnIndex) {
+    return typeHandler instanceof UnknownTypeHandler ? rsw.getTypeHandler(typeHandler, columnIndex) : typeHandler;
+  }
+
+  private boolean isFlatProperty(String property) {
+    return property.indexOf('.') == -1 && property.indexOf('[') == -1;
+  }
+
+  private int findColumnIndex(ResultSetWrapper rsw, String column) {
+    final List<String> columnNames = rsw.getColumnNames();
+    for (int i = 0; i < columnNames.size(); i++) {
+      if (columnNames.get(i).equalsIgnoreCase(column)) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
   //
   // GET VALUE FROM ROW FOR NESTED RESULT MAP
   //
 
-  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, CacheKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
+  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, NestedResultObjects.Row row, String columnPrefix, Object partialObject) throws SQLException {
     final String resultMapId = resultMap.getId();
     Object rowValue = partialObject;
     if (rowValue != null) {
       final MetaObject metaObject = configuration.newMetaObject(rowValue);
       putAncestor(rowValue, resultMapId);
-      applyNestedResultMappings(rsw, resultMap, metaObject, columnPrefix, combinedKey, false);
+      applyNestedResultMappings(rsw, resultMap, metaObject, columnPrefix, row, false);
       ancestorObjects.remove(resultMapId);
     } else {
       final ResultLoaderMap lazyLoader = new ResultLoaderMap();
@@ -431,13 +636,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
         foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
         putAncestor(rowValue, resultMapId);
-        foundValues = applyNestedResultMappings(rsw, resultMap, metaObject, columnPrefix, combinedKey, true) || foundValues;
+        foundValues = applyNestedResultMappings(rsw, resultMap, metaObject, columnPrefix, row, true) || foundValues;
         ancestorObjects.remove(resultMapId);
         foundValues = lazyLoader.size() > 0 || foundValues;
         rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
       }
-      if (combinedKey != CacheKey.NULL_CACHE_KEY) {
-        nestedResultObjects.put(combinedKey, rowValue);
+      if (row != null) {
+        row.value = rowValue;
       }
     }
     return rowValue;
@@ -477,7 +682,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (propertyMapping.isCompositeResult()
           || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
           || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        Object value = getPropertyMappingValue(rsw, metaObject, propertyMapping, lazyLoader, columnPrefix);
         // issue #541 make property optional
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -491,23 +696,24 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
         if (value != null || (configuration.isCallSettersOnNulls() && !metaObject.getSetterType(property).isPrimitive())) {
           // gcode issue #377, call setter on nulls (value is not 'found')
-          metaObject.setValue(property, value);
+          metaObject.setValue(propertyMapping.getPropertyPath(), value);
         }
       }
     }
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
+  private Object getPropertyMappingValue(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
+    final ResultSet rs = rsw.getResultSet();
     if (propertyMapping.getNestedQueryId() != null) {
       return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
       addPendingChildRelation(rs, metaResultObject, propertyMapping);   // TODO is that OK?
       return DEFERRED;
     } else {
-      final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
       final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
+      final TypeHandler<?> typeHandler = getColumnTypeHandler(rsw, propertyMapping.getTypeHandler(), column);
       return typeHandler.getResult(rs, column);
     }
   }
@@ -516,35 +722,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final String mapKey = resultMap.getId() + ":" + columnPrefix;
     List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
     if (autoMapping == null) {
-      autoMapping = new ArrayList<>();
-      final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
-      for (String columnName : unmappedColumnNames) {
-        String propertyName = columnName;
-        if (columnPrefix != null && !columnPrefix.isEmpty()) {
-          // When columnPrefix is specified,
-          // ignore columns without the prefix.
-          if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
-            propertyName = columnName.substring(columnPrefix.length());
-          } else {
-            continue;
-          }
-        }
-        final String property = metaObject.findProperty(propertyName, configuration.isMapUnderscoreToCamelCase());
-        if (property != null && metaObject.hasSetter(property)) {
-          if (resultMap.getMappedProperties().contains(property)) {
-            continue;
-          }
-          final Class<?> propertyType = metaObject.getSetterType(property);
-          if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
-            final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
-          } else {
-            configuration.getAutoMappingUnknownColumnBehavior()
-                .doAction(mappedStatement, columnName, property, propertyType);
-          }
-        } else {
-          configuration.getAutoMappingUnknownColumnBehavior()
-              .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
+      // reuse the mappings resolved by previous executions returning the same columns
+      autoMapping = rsw.getAutoMappings(mapKey);
+      if (autoMapping == null) {
+        autoMapping = new ArrayList<>();
+        if (resolveAutomaticMappings(rsw, resultMap, metaObject, columnPrefix, autoMapping)) {
+          rsw.putAutoMappings(mapKey, autoMapping);
         }
       }
       autoMappingsCache.put(mapKey, autoMapping);
@@ -552,6 +735,48 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return autoMapping;
   }
 
+  /**
+   * Resolves the auto-mappings of the unmapped columns.
+   *
+   * @return false if an unknown column was reported, so that the mappings are not reused by other executions
+   */
+  private boolean resolveAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix,
+      List<UnMappedColumnAutoMapping> autoMapping) throws SQLException {
+    final AutoMappingUnknownColumnBehavior unknownColumnBehavior = configuration.getAutoMappingUnknownColumnBehavior();
+    boolean reusable = true;
+    final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
+    for (String columnName : unmappedColumnNames) {
+      String propertyName = columnName;
+      if (columnPrefix != null && !columnPrefix.isEmpty()) {
+        // When columnPrefix is specified,
+        // ignore columns without the prefix.
+        if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
+          propertyName = columnName.substring(columnPrefix.length());
+        } else {
+          continue;
+        }
+      }
+      final String property = metaObject.findProperty(propertyName, configuration.isMapUnderscoreToCamelCase());
+      if (property != null && metaObject.hasSetter(property)) {
+        if (resultMap.getMappedProperties().contains(property)) {
+          continue;
+        }
+        final Class<?> propertyType = metaObject.getSetterType(property);
+        if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
+          final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
+          autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
+        } else {
+          unknownColumnBehavior.doAction(mappedStatement, columnName, property, propertyType);
+          reusable = reusable && unknownColumnBehavior == AutoMappingUnknownColumnBehavior.NONE;
+        }
+      } else {
+        unknownColumnBehavior.doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
+        reusable = reusable && unknownColumnBehavior == AutoMappingUnknownColumnBehavior.NONE;
+      }
+    }
+    return reusable;
+  }
+
   private boolean applyAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
     List<UnMappedColumnAutoMapping> autoMapping = createAutomaticMappings(rsw, resultMap, metaObject, columnPrefix);
     boolean foundValues = false;
@@ -651,6 +876,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       return createPrimitiveResultObject(rsw, resultMap, columnPrefix);
     } else if (!constructorMappings.isEmpty()) {
       return createParameterizedResultObject(rsw, resultType, constructorMappings, constructorArgTypes, constructorArgs, columnPrefix);
+    } else if (resultType == Map.class && configuration.isUseCompactMapResults()) {
+      return new CompactRowMap(getCompactRowMapKeys(rsw, resultMap, columnPrefix));
     } else if (resultType.isInterface() || metaType.hasDefaultConstructor()) {
       return objectFactory.create(resultType);
     } else if (shouldApplyAutomaticMappings(resultMap, false)) {
@@ -659,6 +886,31 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     throw new ExecutorException("Do not know how to create an instance of " + resultType);
   }
 
+  private CompactRowMap.Keys getCompactRowMapKeys(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) {
+    final Map<String, CompactRowMap.Keys> keysByPrefix = compactRowMapKeys.computeIfAbsent(resultMap.getId(), k -> new HashMap<>());
+    CompactRowMap.Keys keys = keysByPrefix.get(columnPrefix);
+    if (keys == null) {
+      final List<String> names = new ArrayList<>();
+      for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
+        final String property = resultMapping.getProperty();
+        if (property != null && isFlatProperty(property)) {
+          names.add(property);
+        }
+      }
+      // the properties of auto-mapped columns
+      for (String columnName : rsw.getColumnNames()) {
+        if (columnPrefix == null || columnPrefix.isEmpty()) {
+          names.add(columnName);
+        } else if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
+          names.add(columnName.substring(columnPrefix.length()));
+        }
+      }
+      keys = new CompactRowMap.Keys(names);
+      keysByPrefix.put(columnPrefix, keys);
+    }
+    return keys;
+  }
+
   Object createParameterizedResultObject(ResultSetWrapper rsw, Class<?> resultType, List<ResultMapping> constructorMappings,
                                          List<Class<?>> constructorArgTypes, List<Object> constructorArgs, String columnPrefix) {
     boolean foundValues = false;
@@ -673,8 +925,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           final ResultMap resultMap = configuration.getResultMap(constructorMapping.getNestedResultMapId());
           value = getRowValue(rsw, resultMap, getColumnPrefix(columnPrefix, constructorMapping));
         } else {
-          final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-          value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          final String prefixedColumn = prependPrefix(column, columnPrefix);
+          final TypeHandler<?> typeHandler = getColumnTypeHandler(rsw, constructorMapping.getTypeHandler(), prefixedColumn);
+          value = typeHandler.getResult(rsw.getResultSet(), prefixedColumn);
         }
       } catch (ResultMapException | SQLException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -783,7 +1036,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final Class<?> nestedQueryParameterType = nestedQuery.getParameterMap().getType();
     final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, propertyMapping, nestedQueryParameterType, columnPrefix);
     Object value = null;
-    if (nestedQueryParameterObject != null) {
+    if (nestedQueryParameterObject != null && propertyMapping.getBatchSize() != null
+        && (propertyMapping.isLazy() || batchNestedQueries)) {
+      value = getBatchedNestedQueryMappingValue(metaResultObject, propertyMapping, lazyLoader, nestedQuery, nestedQueryParameterObject);
+    } else if (nestedQueryParameterObject != null) {
       final BoundSql nestedBoundSql = nestedQuery.getBoundSql(nestedQueryParameterObject);
       final CacheKey key = executor.createCacheKey(nestedQuery, nestedQueryParameterObject, RowBounds.DEFAULT, nestedBoundSql);
       final Class<?> targetType = propertyMapping.getJavaType();
@@ -803,6 +1059,38 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
+  private Object getBatchedNestedQueryMappingValue(MetaObject metaResultObject, ResultMapping propertyMapping,
+      ResultLoaderMap lazyLoader, MappedStatement nestedQuery, Object key) {
+    final String property = propertyMapping.getProperty();
+    final Class<?> targetType = propertyMapping.getJavaType();
+    final ResultLoaderBatch batch = resultLoaderBatches.computeIfAbsent(propertyMapping,
+        mapping -> new ResultLoaderBatch(configuration, executor, nestedQuery, mapping.getForeignColumn(), mapping.getBatchSize()));
+    batch.addKey(key);
+    if (propertyMapping.isLazy()) {
+      lazyLoader.addLoader(property, metaResultObject, new BatchedResultLoader(configuration, executor, nestedQuery, key, targetType, batch));
+    } else {
+      pendingBatchedValues.add(new PendingBatchedValue(metaResultObject, property, targetType, batch, key));
+    }
+    return DEFERRED;
+  }
+
+  private void loadPendingBatchedValues() throws SQLException {
+    if (pendingBatchedValues.isEmpty()) {
+      return;
+    }
+    final ResultExtractor resultExtractor = new ResultExtractor(configuration, objectFactory);
+    for (PendingBatchedValue pending : pendingBatchedValues) {
+      // the results are passed later if the keys are being loaded by an enclosing query
+      pending.batch.getResults(pending.key, list -> {
+        Object value = resultExtractor.extractObjectFromList(list, pending.targetType);
+        if (value != null || configuration.isCallSettersOnNulls() && !pending.metaObject.getSetterType(pending.property).isPrimitive()) {
+          pending.metaObject.setValue(pending.property, value);
+        }
+      });
+    }
+    pendingBatchedValues.clear();
+  }
+
   private Object prepareParameterForNestedQuery(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     if (resultMapping.isCompositeResult()) {
       return prepareCompositeKeyParameter(rs, resultMapping, parameterType, columnPrefix);
@@ -831,7 +1119,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       final Object propValue = typeHandler.getResult(rs, prependPrefix(innerResultMapping.getColumn(), columnPrefix));
       // issue #353 & #560 do not execute nested query if key is null
       if (propValue != null) {
-        metaObject.setValue(innerResultMapping.getProperty(), propValue);
+        metaObject.setValue(innerResultMapping.getPropertyPath(), propValue);
         foundValues = true;
       }
     }
@@ -895,18 +1183,23 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     skipRows(resultSet, rowBounds);
     Object rowValue = previousRowValue;
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+      fetchedRows++;
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
-      final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
-      Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
       if (mappedStatement.isResultOrdered()) {
+        NestedResultObjects.Row row = findRow(nestedResultObjects.getRoot(), discriminatedResultMap, rsw, null);
+        Object partialObject = row == null ? null : row.value;
         if (partialObject == null && rowValue != null) {
+          // parents are contiguous, release the rows of the previous parent and all its children
           nestedResultObjects.clear();
           storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
+          row = findRow(nestedResultObjects.getRoot(), discriminatedResultMap, rsw, null);
         }
-        rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
+        rowValue = getRowValue(rsw, discriminatedResultMap, row, null, partialObject);
       } else {
-        rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
+        final NestedResultObjects.Row row = findRow(nestedResultObjects.getRoot(), discriminatedResultMap, rsw, null);
+        final Object partialObject = row == null ? null : row.value;
+        rowValue = getRowValue(rsw, discriminatedResultMap, row, null, partialObject);
         if (partialObject == null) {
           storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
         }
@@ -924,7 +1217,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // NESTED RESULT MAP (JOIN MAPPING)
   //
 
-  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, CacheKey parentRowKey, boolean newObject) {
+  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, NestedResultObjects.Row parentRow, boolean newObject) {
     boolean foundValues = false;
     for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
       final String nestedResultMapId = resultMapping.getNestedResultMapId();
@@ -943,13 +1236,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
               continue;
             }
           }
-          final CacheKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-          final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);
-          Object rowValue = nestedResultObjects.get(combinedKey);
-          boolean knownValue = rowValue != null;
           instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject); // mandatory
           if (anyNotNullColumnHasValue(resultMapping, columnPrefix, rsw)) {
-            rowValue = getRowValue(rsw, nestedResultMap, combinedKey, columnPrefix, rowValue);
+            final NestedResultObjects.Row row = findRow(parentRow, nestedResultMap, rsw, columnPrefix);
+            Object rowValue = row == null ? null : row.value;
+            boolean knownValue = rowValue != null;
+            rowValue = getRowValue(rsw, nestedResultMap, row, columnPrefix, rowValue);
             if (rowValue != null && !knownValue) {
               linkObjects(metaObject, resultMapping, rowValue);
               foundValues = true;
@@ -1024,18 +1316,67 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return cacheKey;
   }
 
-  private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
-    if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
-      CacheKey combinedKey;
-      try {
-        combinedKey = rowKey.clone();
-      } catch (CloneNotSupportedException e) {
-        throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
-      }
-      combinedKey.update(parentRowKey);
-      return combinedKey;
+  /**
+   * Finds the row read from the current position of the result set among the rows already read under the given parent
+   * row, registering it if it is new. Returns {@code null} when the row cannot be identified, in which case its values
+   * are never merged with other rows.
+   */
+  private NestedResultObjects.Row findRow(NestedResultObjects.Row parentRow, ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+    if (parentRow == null) {
+      return null;
+    }
+    final RowIdentity identity = getRowIdentity(resultMap, rsw, columnPrefix);
+    final ResultSet rs = rsw.getResultSet();
+    switch (identity.kind) {
+      case LONG:
+        final long longKey = rs.getLong(identity.column);
+        if (!rs.wasNull()) {
+          return nestedResultObjects.getRow(parentRow, identity, longKey);
+        }
+        return configuration.isReturnInstanceForEmptyRow() ? nestedResultObjects.getRow(parentRow, identity, null) : null;
+      case STRING:
+        final String stringKey = rs.getString(identity.column);
+        if (stringKey != null || configuration.isReturnInstanceForEmptyRow()) {
+          return nestedResultObjects.getRow(parentRow, identity, stringKey);
+        }
+        return null;
+      case CACHE_KEY:
+        final CacheKey rowKey = createRowKey(resultMap, rsw, columnPrefix);
+        return rowKey == CacheKey.NULL_CACHE_KEY ? null : nestedResultObjects.getRow(parentRow, identity, rowKey);
+      default:
+        return null;
+    }
+  }
+
+  private RowIdentity getRowIdentity(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+    final Map<String, RowIdentity> identities = rowIdentities.computeIfAbsent(resultMap.getId(), k -> new HashMap<>());
+    RowIdentity identity = identities.get(columnPrefix);
+    if (identity == null) {
+      identity = resolveRowIdentity(resultMap, rsw, columnPrefix);
+      identities.put(columnPrefix, identity);
+    }
+    return identity;
+  }
+
+  private RowIdentity resolveRowIdentity(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+    final List<ResultMapping> idMappings = resultMap.getIdResultMappings();
+    if (idMappings.size() != 1 || !idMappings.get(0).isSimple()) {
+      return new RowIdentity(RowIdentityKind.CACHE_KEY, null);
+    }
+    final ResultMapping idMapping = idMappings.get(0);
+    final String column = prependPrefix(idMapping.getColumn(), columnPrefix);
+    if (column == null || !rsw.getMappedColumnNames(resultMap, columnPrefix).contains(column.toUpperCase(Locale.ENGLISH))) {
+      // Issue #114
+      return new RowIdentity(RowIdentityKind.NONE, null);
+    }
+    final Class<?> typeHandlerType = getColumnTypeHandler(rsw, idMapping.getTypeHandler(), column).getClass();
+    if (typeHandlerType == LongTypeHandler.class || typeHandlerType == IntegerTypeHandler.class
+        || typeHandlerType == ShortTypeHandler.class || typeHandlerType == ByteTypeHandler.class) {
+      return new RowIdentity(RowIdentityKind.LONG, column);
+    } else if (typeHandlerType == StringTypeHandler.class) {
+      return new RowIdentity(RowIdentityKind.STRING, column);
     }
-    return CacheKey.NULL_CACHE_KEY;
+    return new RowIdentity(RowIdentityKind.CACHE_KEY, null);
   }
 
   private List<ResultMapping> getResultMappingsForRowKey(ResultMap resultMap) {
@@ -1050,7 +1391,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     for (ResultMapping resultMapping : resultMappings) {
       if (resultMapping.isSimple()) {
         final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
-        final TypeHandler<?> th = resultMapping.getTypeHandler();
+        final TypeHandler<?> th = getColumnTypeHandler(rsw, resultMapping.getTypeHandler(), column);
         List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
         // Issue #114
         if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
@@ -1104,13 +1445,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       final MetaObject targetMetaObject = configuration.newMetaObject(collectionProperty);
       targetMetaObject.add(rowValue);
     } else {
-      metaObject.setValue(resultMapping.getProperty(), rowValue);
+      metaObject.setValue(resultMapping.getPropertyPath(), rowValue);
     }
   }
 
   private Object instantiateCollectionPropertyIfAppropriate(ResultMapping resultMapping, MetaObject metaObject) {
     final String propertyName = resultMapping.getProperty();
-    Object propertyValue = metaObject.getValue(propertyName);
+    Object propertyValue = metaObject.getValue(resultMapping.getPropertyPath());
     if (propertyValue == null) {
       Class<?> type = resultMapping.getJavaType();
       if (type == null) {
@@ -1119,7 +1460,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       try {
         if (objectFactory.isCollection(type)) {
           propertyValue = objectFactory.create(type);
-          metaObject.setValue(propertyName, propertyValue);
+          metaObject.setValue(resultMapping.getPropertyPath(), propertyValue);
           return propertyValue;
         }
       } catch (Exception e) {
@@ -0,0 +1,173 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Identity map of the objects built from the rows of a result set mapped with nested result maps.
+ * <p>
+ * Rows are kept in a tree: the objects of a nested result map are scoped by the row of their parent, so a row is
+ * identified by its own id columns only instead of the combination of its key with the keys of all its ancestors.
+ * Rows keyed by a single integral id column are stored in an open addressing map of primitive {@code long} keys; other
+ * rows are stored in a regular {@link HashMap}.
+ */
+class NestedResultObjects {
+
+  private final Row root = new Row();
+
+  Row getRoot() {
+    return root;
+  }
+
+  /**
+   * Returns the row with the given key in the scope of the given parent, creating an empty row if it is not known yet.
+   */
+  Row getRow(Row parent, Object scopeId, long key) {
+    return parent.getScope(scopeId).getRow(key);
+  }
+
+  /**
+   * Returns the row with the given key in the scope of the given parent, creating an empty row if it is not known yet.
+   * The key may be {@code null}.
+   */
+  Row getRow(Row parent, Object scopeId, Object key) {
+    return parent.getScope(scopeId).getRow(key);
+  }
+
+  /**
+   * Releases all the rows, along with the storage of their scopes.
+   */
+  void clear() {
+    root.value = null;
+    root.scopes = null;
+  }
+
+  static final class Row {
+
+    Object value;
+    private Scope scopes;
+
+    private Scope getScope(Object scopeId) {
+      for (Scope scope = scopes; scope != null; scope = scope.next) {
+        if (scope.id == scopeId) {
+          return scope;
+        }
+      }
+      Scope scope = new Scope(scopeId, scopes);
+      scopes = scope;
+      return scope;
+    }
+  }
+
+  /**
+   * The rows of one nested result map (and column prefix) under one parent row.
+   */
+  private static final class Scope {
+
+    private final Object id;
+    private final Scope next;
+    private LongRowMap longRows;
+    private Map<Object, Row> rows;
+
+    Scope(Object id, Scope next) {
+      this.id = id;
+      this.next = next;
+    }
+
+    Row getRow(long key) {
+      if (longRows == null) {
+        longRows = new LongRowMap();
+      }
+      return longRows.getOrCreate(key);
+    }
+
+    Row getRow(Object key) {
+      if (rows == null) {
+        rows = new HashMap<>();
+      }
+      return rows.computeIfAbsent(key, k -> new Row());
+    }
+  }
+
+  /**
+   * Open addressing map of {@code long} keys to rows, with linear probing. Entries are never removed.
+   */
+  static final class LongRowMap {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Row[] rows = new Row[INITIAL_CAPACITY];
+    private int size;
+
+    Row get(long key) {
+      final int mask = keys.length - 1;
+      for (int i = hash(key) & mask; rows[i] != null; i = (i + 1) & mask) {
+        if (keys[i] == key) {
+          return rows[i];
+        }
+      }
+      return null;
+    }
+
+    Row getOrCreate(long key) {
+      final int mask = keys.length - 1;
+      int i = hash(key) & mask;
+      for (; rows[i] != null; i = (i + 1) & mask) {
+        if (keys[i] == key) {
+          return rows[i];
+        }
+      }
+      final Row row = new Row();
+      keys[i] = key;
+      rows[i] = row;
+      if (++size * 4 > keys.length * 3) {
+        resize();
+      }
+      return row;
+    }
+
+    int size() {
+      return size;
+    }
+
+    private void resize() {
+      final long[] oldKeys = keys;
+      final Row[] oldRows = rows;
+      keys = new long[oldKeys.length << 1];
+      rows = new Row[oldRows.length << 1];
+      final int mask = keys.length - 1;
+      for (int j = 0; j < oldRows.length; j++) {
+        if (oldRows[j] != null) {
+          int i = hash(oldKeys[j]) & mask;
+          while (rows[i] != null) {
+            i = (i + 1) & mask;
+          }
+          keys[i] = oldKeys[j];
+          rows[i] = oldRows[j];
+        }
+      }
+    }
+
+    private static int hash(long key) {
+      final long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+    }
+  }
+
+}
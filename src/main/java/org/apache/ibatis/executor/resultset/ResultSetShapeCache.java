@@ -0,0 +1,149 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Keeps the column metadata and the resolved mapping plans of the result sets returned by a mapped statement,
+ * so that they can be reused by later executions that return the same column shape.
+ * <p>
+ * A shape is identified by the column count, the column labels (or names) and the JDBC types. Only a few shapes are
+ * kept per statement; executions returning other shapes resolve their metadata as usual.
+ */
+public class ResultSetShapeCache {
+
+  private static final int MAX_SHAPES = 8;
+
+  private volatile Shape[] shapes = new Shape[0];
+
+  Shape getShape(ResultSetMetaData metaData, boolean useColumnLabel) throws SQLException {
+    final String[] columnNames = readColumnNames(metaData, useColumnLabel);
+    final int[] columnTypes = readColumnTypes(metaData);
+    for (Shape shape : shapes) {
+      if (shape.matches(columnNames, columnTypes)) {
+        return shape;
+      }
+    }
+    Shape shape = new Shape(columnNames, columnTypes, readClassNames(metaData));
+    synchronized (this) {
+      if (shapes.length < MAX_SHAPES) {
+        Shape[] newShapes = Arrays.copyOf(shapes, shapes.length + 1);
+        newShapes[shapes.length] = shape;
+        shapes = newShapes;
+      }
+    }
+    return shape;
+  }
+
+  public int size() {
+    return shapes.length;
+  }
+
+  /**
+   * Returns whether a compiled row mapper of the given result map is kept for any of the shapes.
+   *
+   * @param resultMapId
+   *          the result map id
+   * @return true if a compiled row mapper is kept
+   */
+  public boolean hasCompiledRowMapper(String resultMapId) {
+    for (Shape shape : shapes) {
+      CompiledRowMapper rowMapper = shape.rowMappers.get(resultMapId);
+      if (rowMapper != null && rowMapper != CompiledRowMapper.UNSUPPORTED) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public synchronized void clear() {
+    shapes = new Shape[0];
+  }
+
+  static Shape readShape(ResultSetMetaData metaData, boolean useColumnLabel) throws SQLException {
+    return new Shape(readColumnNames(metaData, useColumnLabel), readColumnTypes(metaData), readClassNames(metaData));
+  }
+
+  private static String[] readColumnNames(ResultSetMetaData metaData, boolean useColumnLabel) throws SQLException {
+    final String[] columnNames = new String[metaData.getColumnCount()];
+    for (int i = 0; i < columnNames.length; i++) {
+      columnNames[i] = useColumnLabel ? metaData.getColumnLabel(i + 1) : metaData.getColumnName(i + 1);
+    }
+    return columnNames;
+  }
+
+  private static int[] readColumnTypes(ResultSetMetaData metaData) throws SQLException {
+    final int[] columnTypes = new int[metaData.getColumnCount()];
+    for (int i = 0; i < columnTypes.length; i++) {
+      columnTypes[i] = metaData.getColumnType(i + 1);
+    }
+    return columnTypes;
+  }
+
+  private static String[] readClassNames(ResultSetMetaData metaData) throws SQLException {
+    final String[] classNames = new String[metaData.getColumnCount()];
+    for (int i = 0; i < classNames.length; i++) {
+      classNames[i] = metaData.getColumnClassName(i + 1);
+    }
+    return classNames;
+  }
+
+  /**
+   * Column metadata of a result set and the plans resolved against it. Instances are shared between threads.
+   */
+  static class Shape {
+
+    private final String[] columnNameArray;
+    private final int[] columnTypeArray;
+    final List<String> columnNames;
+    final List<JdbcType> jdbcTypes;
+    final List<String> classNames;
+    final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new ConcurrentHashMap<>();
+    final Map<String, TypeHandler<?>> columnTypeHandlerMap = new ConcurrentHashMap<>();
+    final Map<String, List<String>> mappedColumnNamesMap = new ConcurrentHashMap<>();
+    final Map<String, List<String>> unMappedColumnNamesMap = new ConcurrentHashMap<>();
+    final Map<String, List<DefaultResultSetHandler.UnMappedColumnAutoMapping>> autoMappingsMap = new ConcurrentHashMap<>();
+    final Map<String, CompiledRowMapper> rowMappers = new ConcurrentHashMap<>();
+
+    Shape(String[] columnNames, int[] columnTypes, String[] classNames) {
+      this.columnNameArray = columnNames;
+      this.columnTypeArray = columnTypes;
+      List<JdbcType> types = new ArrayList<>(columnTypes.length);
+      for (int columnType : columnTypes) {
+        types.add(JdbcType.forCode(columnType));
+      }
+      this.columnNames = Collections.unmodifiableList(Arrays.asList(columnNames));
+      this.jdbcTypes = Collections.unmodifiableList(types);
+      this.classNames = Collections.unmodifiableList(Arrays.asList(classNames));
+    }
+
+    boolean matches(String[] columnNames, int[] columnTypes) {
+      return Arrays.equals(columnTypeArray, columnTypes) && Arrays.equals(columnNameArray, columnNames);
+    }
+  }
+
+}
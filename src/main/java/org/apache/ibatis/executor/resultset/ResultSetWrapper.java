@@ -19,13 +19,12 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.ResultMap;
@@ -41,26 +40,55 @@ import org.apache.ibatis.type.UnknownTypeHandler;
  */
 public class ResultSetWrapper {
 
+  private static final ObjectTypeHandler OBJECT_TYPE_HANDLER = new ObjectTypeHandler();
+
   private final ResultSet resultSet;
   private final TypeHandlerRegistry typeHandlerRegistry;
-  private final List<String> columnNames = new ArrayList<>();
-  private final List<String> classNames = new ArrayList<>();
-  private final List<JdbcType> jdbcTypes = new ArrayList<>();
-  private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
-  private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
-  private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  private final List<String> columnNames;
+  private final List<String> classNames;
+  private final List<JdbcType> jdbcTypes;
+  private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap;
+  private final Map<String, TypeHandler<?>> columnTypeHandlerMap;
+  private final Map<String, List<String>> mappedColumnNamesMap;
+  private final Map<String, List<String>> unMappedColumnNamesMap;
+  private final Map<String, List<DefaultResultSetHandler.UnMappedColumnAutoMapping>> autoMappingsMap;
+  private final Map<String, CompiledRowMapper> rowMappers;
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
+    this(rs, configuration, null);
+  }
+
+  /**
+   * Instantiates a new result set wrapper that shares the column metadata and the resolved mapping plans
+   * with other result sets of the same shape.
+   *
+   * @param rs
+   *          the result set
+   * @param configuration
+   *          the configuration
+   * @param shapeCache
+   *          the shape cache of the mapped statement that returned the result set, or {@code null}
+   * @throws SQLException
+   *           if the result set metadata cannot be read
+   * @since 3.5.5
+   */
+  public ResultSetWrapper(ResultSet rs, Configuration configuration, ResultSetShapeCache shapeCache) throws SQLException {
     super();
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.resultSet = rs;
     final ResultSetMetaData metaData = rs.getMetaData();
-    final int columnCount = metaData.getColumnCount();
-    for (int i = 1; i <= columnCount; i++) {
-      columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
-      jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
-      classNames.add(metaData.getColumnClassName(i));
-    }
+    final ResultSetShapeCache.Shape shape = shapeCache == null
+        ? ResultSetShapeCache.readShape(metaData, configuration.isUseColumnLabel())
+        : shapeCache.getShape(metaData, configuration.isUseColumnLabel());
+    this.columnNames = shape.columnNames;
+    this.classNames = shape.classNames;
+    this.jdbcTypes = shape.jdbcTypes;
+    this.typeHandlerMap = shape.typeHandlerMap;
+    this.columnTypeHandlerMap = shape.columnTypeHandlerMap;
+    this.mappedColumnNamesMap = shape.mappedColumnNamesMap;
+    this.unMappedColumnNamesMap = shape.unMappedColumnNamesMap;
+    this.autoMappingsMap = shape.autoMappingsMap;
+    this.rowMappers = shape.rowMappers;
   }
 
   public ResultSet getResultSet() {
@@ -72,7 +100,7 @@ public class ResultSetWrapper {
   }
 
   public List<String> getClassNames() {
-    return Collections.unmodifiableList(classNames);
+    return classNames;
   }
 
   public List<JdbcType> getJdbcTypes() {
@@ -100,14 +128,8 @@ public class ResultSetWrapper {
    * @return the type handler
    */
   public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
-    TypeHandler<?> handler = null;
-    Map<Class<?>, TypeHandler<?>> columnHandlers = typeHandlerMap.get(columnName);
-    if (columnHandlers == null) {
-      columnHandlers = new HashMap<>();
-      typeHandlerMap.put(columnName, columnHandlers);
-    } else {
-      handler = columnHandlers.get(propertyType);
-    }
+    Map<Class<?>, TypeHandler<?>> columnHandlers = typeHandlerMap.computeIfAbsent(columnName, k -> new ConcurrentHashMap<>());
+    TypeHandler<?> handler = columnHandlers.get(propertyType);
     if (handler == null) {
       JdbcType jdbcType = getJdbcType(columnName);
       handler = typeHandlerRegistry.getTypeHandler(propertyType, jdbcType);
@@ -132,6 +154,58 @@ public class ResultSetWrapper {
     return handler;
   }
 
+  /**
+   * Gets the type handler to use when reading a column with the type handler of a result mapping.
+   * An {@link UnknownTypeHandler}, which would look up the result set metadata and the type handler registry for every
+   * value it reads, is replaced by the type handler it resolves for the column. The resolved type handler is bound
+   * once per column of the result set.
+   *
+   * @param typeHandler
+   *          the type handler of the result mapping
+   * @param columnName
+   *          the column name
+   * @return the type handler
+   * @since 3.5.5
+   */
+  public TypeHandler<?> getTypeHandler(TypeHandler<?> typeHandler, String columnName) {
+    if (typeHandler == null || typeHandler.getClass() != UnknownTypeHandler.class || columnName == null) {
+      return typeHandler;
+    }
+    // the last column wins when labels are duplicated, as in UnknownTypeHandler
+    return columnTypeHandlerMap.computeIfAbsent(columnName, k -> resolveColumnTypeHandler(columnNames.lastIndexOf(k)));
+  }
+
+  /**
+   * Same as {@link #getTypeHandler(TypeHandler, String)} for a column read by its 1-based index. The resolved type
+   * handler is not cached.
+   */
+  TypeHandler<?> getTypeHandler(TypeHandler<?> typeHandler, int columnIndex) {
+    if (typeHandler == null || typeHandler.getClass() != UnknownTypeHandler.class) {
+      return typeHandler;
+    }
+    return resolveColumnTypeHandler(columnIndex - 1);
+  }
+
+  private TypeHandler<?> resolveColumnTypeHandler(int index) {
+    // Replicate logic of UnknownTypeHandler#resolveTypeHandler
+    TypeHandler<?> handler = null;
+    if (index != -1) {
+      final Class<?> javaType = resolveClass(classNames.get(index));
+      final JdbcType jdbcType = jdbcTypes.get(index);
+      if (javaType != null && jdbcType != null) {
+        handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
+      } else if (javaType != null) {
+        handler = typeHandlerRegistry.getTypeHandler(javaType);
+      } else if (jdbcType != null) {
+        handler = typeHandlerRegistry.getTypeHandler(jdbcType);
+      }
+    }
+    if (handler == null || handler instanceof UnknownTypeHandler) {
+      handler = OBJECT_TYPE_HANDLER;
+    }
+    return handler;
+  }
+
   private Class<?> resolveClass(String className) {
     try {
       // #699 className could be null
@@ -179,6 +253,22 @@ public class ResultSetWrapper {
     return unMappedColumnNames;
   }
 
+  List<DefaultResultSetHandler.UnMappedColumnAutoMapping> getAutoMappings(String mapKey) {
+    return autoMappingsMap.get(mapKey);
+  }
+
+  void putAutoMappings(String mapKey, List<DefaultResultSetHandler.UnMappedColumnAutoMapping> autoMappings) {
+    autoMappingsMap.put(mapKey, autoMappings);
+  }
+
+  CompiledRowMapper getCompiledRowMapper(String resultMapId) {
+    return rowMappers.get(resultMapId);
+  }
+
+  void putCompiledRowMapper(String resultMapId, CompiledRowMapper rowMapper) {
+    rowMappers.put(resultMapId, rowMapper);
+  }
+
   private String getMapKey(ResultMap resultMap, String columnPrefix) {
     return resultMap.getId() + ":" + columnPrefix;
   }
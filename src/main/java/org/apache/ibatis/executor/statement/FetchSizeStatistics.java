@@ -0,0 +1,134 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the number of rows returned by the executions of a mapped statement and suggests a fetch size for the next
+ * execution when adaptive fetch sizes are enabled.
+ * <p>
+ * The suggestion covers both an exponential moving average of the row counts and their 90th percentile over the last
+ * executions, plus one row so that the end of the results is usually detected in the same round trip. A fetch size can
+ * also be pinned, in which case it is used as is instead of the learned one.
+ *
+ * @since 3.5.5
+ * @see org.apache.ibatis.session.Configuration#isAdaptiveFetchSize()
+ */
+public class FetchSizeStatistics {
+
+  private static final int WINDOW_SIZE = 32;
+  private static final double SMOOTHING_FACTOR = 0.2;
+  private static final int PERCENTILE = 90;
+
+  private final int[] window = new int[WINDOW_SIZE];
+  private long executions;
+  private double averageRows;
+  private int percentileRows;
+  private volatile Integer pinnedFetchSize;
+
+  /**
+   * Records the number of rows returned by an execution.
+   *
+   * @param rows
+   *          the number of rows
+   */
+  public synchronized void record(int rows) {
+    window[(int) (executions % WINDOW_SIZE)] = rows;
+    averageRows = executions == 0 ? rows : averageRows + SMOOTHING_FACTOR * (rows - averageRows);
+    executions++;
+    int[] sorted = Arrays.copyOf(window, (int) Math.min(executions, WINDOW_SIZE));
+    Arrays.sort(sorted);
+    percentileRows = sorted[(sorted.length * PERCENTILE + 99) / 100 - 1];
+  }
+
+  /**
+   * Returns the fetch size to use for the next execution.
+   *
+   * @param minFetchSize
+   *          the smallest fetch size to suggest
+   * @param maxFetchSize
+   *          the largest fetch size to suggest
+   * @return the pinned fetch size if any, otherwise the learned fetch size within the given bounds, or {@code null}
+   *         when no execution has been recorded yet
+   */
+  public Integer getFetchSize(int minFetchSize, int maxFetchSize) {
+    Integer pinned = pinnedFetchSize;
+    if (pinned != null) {
+      return pinned;
+    }
+    synchronized (this) {
+      if (executions == 0) {
+        return null;
+      }
+      long rows = Math.max((long) Math.ceil(averageRows), percentileRows) + 1;
+      return (int) Math.max(minFetchSize, Math.min(maxFetchSize, rows));
+    }
+  }
+
+  public synchronized long getExecutions() {
+    return executions;
+  }
+
+  /**
+   * Returns the exponential moving average of the number of rows returned.
+   *
+   * @return the average number of rows
+   */
+  public synchronized double getAverageRows() {
+    return averageRows;
+  }
+
+  /**
+   * Returns the 90th percentile of the number of rows returned by the last 32 executions.
+   *
+   * @return the percentile number of rows
+   */
+  public synchronized int getPercentileRows() {
+    return percentileRows;
+  }
+
+  public Integer getPinnedFetchSize() {
+    return pinnedFetchSize;
+  }
+
+  /**
+   * Pins the fetch size used for the next executions, regardless of the recorded row counts.
+   *
+   * @param fetchSize
+   *          the fetch size, or {@code null} to use the learned fetch size again
+   */
+  public void pin(Integer fetchSize) {
+    this.pinnedFetchSize = fetchSize;
+  }
+
+  /**
+   * Forgets the recorded row counts. A pinned fetch size is kept.
+   */
+  public synchronized void reset() {
+    Arrays.fill(window, 0);
+    executions = 0;
+    averageRows = 0;
+    percentileRows = 0;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "FetchSizeStatistics [executions=" + executions + ", averageRows=" + averageRows + ", percentileRows="
+        + percentileRows + ", pinnedFetchSize=" + pinnedFetchSize + "]";
+  }
+
+}
@@ -30,6 +30,7 @@ import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
@@ -129,7 +130,9 @@ public class CacheBuilder {
         cache = new SerializedCache(cache);
       }
       cache = new LoggingCache(cache);
-      cache = new SynchronizedCache(cache);
+      if (!isConcurrent()) {
+        cache = new SynchronizedCache(cache);
+      }
       if (blocking) {
         cache = new BlockingCache(cache);
       }
@@ -139,6 +142,15 @@ public class CacheBuilder {
     }
   }
 
+  /**
+   * The caches that only use the concurrent eviction decorator do not need to be synchronized, unless they are cleared
+   * periodically: ScheduledCache checks and clears the cache without locking. LoggingCache counts atomically and
+   * SerializedCache keeps no state.
+   */
+  private boolean isConcurrent() {
+    return clearInterval == null && decorators.size() == 1 && TinyLfuCache.class.equals(decorators.get(0));
+  }
+
   private void setCacheProperties(Cache cache) {
     if (properties != null) {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
@@ -23,6 +23,8 @@ import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.executor.resultset.ResultSetShapeCache;
+import org.apache.ibatis.executor.statement.FetchSizeStatistics;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
@@ -56,6 +58,9 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private Integer cursorPrefetch;
+  private ResultSetShapeCache resultSetShapeCache;
+  private FetchSizeStatistics fetchSizeStatistics;
 
   MappedStatement() {
     // constructor disabled
@@ -80,6 +85,8 @@ public final class MappedStatement {
       }
       mappedStatement.statementLog = LogFactory.getLog(logId);
       mappedStatement.lang = configuration.getDefaultScriptingLanguageInstance();
+      mappedStatement.resultSetShapeCache = new ResultSetShapeCache();
+      mappedStatement.fetchSizeStatistics = new FetchSizeStatistics();
     }
 
     public Builder resource(String resource) {
@@ -174,6 +181,19 @@ public final class MappedStatement {
       return this;
     }
 
+    /**
+     * Cursor prefetch.
+     *
+     * @param cursorPrefetch
+     *          the number of rows a cursor maps ahead of the caller, or null to disable prefetching
+     * @return the builder
+     * @since 3.5.5
+     */
+    public Builder cursorPrefetch(Integer cursorPrefetch) {
+      mappedStatement.cursorPrefetch = cursorPrefetch;
+      return this;
+    }
+
     /**
      * Resul sets.
      *
@@ -290,6 +310,37 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  /**
+   * Gets the number of rows a cursor returned by this statement reads and maps ahead of the caller on a background
+   * thread.
+   *
+   * @return the number of rows to prefetch, or null if rows are mapped on the caller thread
+   * @since 3.5.5
+   */
+  public Integer getCursorPrefetch() {
+    return cursorPrefetch;
+  }
+
+  /**
+   * Gets the cache of column metadata and mapping plans for the result sets returned by this statement.
+   *
+   * @return the result set shape cache
+   * @since 3.5.5
+   */
+  public ResultSetShapeCache getResultSetShapeCache() {
+    return resultSetShapeCache;
+  }
+
+  /**
+   * Gets the row counts recorded for this statement and the fetch size learned from them.
+   *
+   * @return the fetch size statistics
+   * @since 3.5.5
+   */
+  public FetchSizeStatistics getFetchSizeStatistics() {
+    return fetchSizeStatistics;
+  }
+
   /**
    * Gets the resul sets.
    *
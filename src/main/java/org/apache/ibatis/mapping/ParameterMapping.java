@@ -17,6 +17,7 @@ package org.apache.ibatis.mapping;
 
 import java.sql.ResultSet;
 
+import org.apache.ibatis.reflection.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -30,6 +31,7 @@ public class ParameterMapping {
   private Configuration configuration;
 
   private String property;
+  private PropertyPath propertyPath;
   private ParameterMode mode;
   private Class<?> javaType = Object.class;
   private JdbcType jdbcType;
@@ -102,6 +104,9 @@ public class ParameterMapping {
     public ParameterMapping build() {
       resolveTypeHandler();
       validate();
+      if (parameterMapping.property != null) {
+        parameterMapping.propertyPath = PropertyPath.compile(parameterMapping.property);
+      }
       return parameterMapping;
     }
 
@@ -135,6 +140,16 @@ public class ParameterMapping {
     return property;
   }
 
+  /**
+   * Returns the property expression compiled for repeated evaluation.
+   *
+   * @return the property path, or {@code null} when no property is mapped
+   * @since 3.5.5
+   */
+  public PropertyPath getPropertyPath() {
+    return propertyPath;
+  }
+
   /**
    * Used for handling output of callable statements.
    *
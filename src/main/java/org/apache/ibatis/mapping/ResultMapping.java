@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.ibatis.reflection.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -32,6 +33,7 @@ public class ResultMapping {
 
   private Configuration configuration;
   private String property;
+  private PropertyPath propertyPath;
   private String column;
   private Class<?> javaType;
   private JdbcType jdbcType;
@@ -45,6 +47,7 @@ public class ResultMapping {
   private String resultSet;
   private String foreignColumn;
   private boolean lazy;
+  private Integer batchSize;
 
   ResultMapping() {
   }
@@ -132,12 +135,29 @@ public class ResultMapping {
       return this;
     }
 
+    /**
+     * Sets the maximum number of keys loaded by one execution of the nested select. The nested select receives the
+     * keys as a list and its rows are matched to the parents with the foreign column.
+     *
+     * @param batchSize
+     *          the batch size, {@code null} to execute the nested select once per key
+     * @return this builder
+     * @since 3.5.5
+     */
+    public Builder batchSize(Integer batchSize) {
+      resultMapping.batchSize = batchSize;
+      return this;
+    }
+
     public ResultMapping build() {
       // lock down collections
       resultMapping.flags = Collections.unmodifiableList(resultMapping.flags);
       resultMapping.composites = Collections.unmodifiableList(resultMapping.composites);
       resolveTypeHandler();
       validate();
+      if (resultMapping.property != null) {
+        resultMapping.propertyPath = PropertyPath.compile(resultMapping.property);
+      }
       return resultMapping;
     }
 
@@ -167,6 +187,18 @@ public class ResultMapping {
           throw new IllegalStateException("There should be the same number of columns and foreignColumns in property " + resultMapping.property);
         }
       }
+      if (resultMapping.batchSize != null) {
+        if (resultMapping.nestedQueryId == null || resultMapping.resultSet != null) {
+          throw new IllegalStateException("A batchSize can only be set with a nested select in property " + resultMapping.property);
+        }
+        if (resultMapping.batchSize < 1) {
+          throw new IllegalStateException("The batchSize should be positive in property " + resultMapping.property);
+        }
+        if (!resultMapping.composites.isEmpty() || resultMapping.foreignColumn == null
+            || resultMapping.foreignColumn.indexOf(',') > -1) {
+          throw new IllegalStateException("A batched nested select requires a single column and foreignColumn in property " + resultMapping.property);
+        }
+      }
     }
 
     private void resolveTypeHandler() {
@@ -187,6 +219,16 @@ public class ResultMapping {
     return property;
   }
 
+  /**
+   * Returns the property expression compiled for repeated evaluation.
+   *
+   * @return the property path, or {@code null} when no property is mapped
+   * @since 3.5.5
+   */
+  public PropertyPath getPropertyPath() {
+    return propertyPath;
+  }
+
   public String getColumn() {
     return column;
   }
@@ -251,6 +293,16 @@ public class ResultMapping {
     this.lazy = lazy;
   }
 
+  /**
+   * Gets the maximum number of keys loaded by one execution of the nested select.
+   *
+   * @return the batch size, {@code null} if the nested select is executed once per key
+   * @since 3.5.5
+   */
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
   public boolean isSimple() {
     return this.nestedResultMapId == null && this.nestedQueryId == null && this.resultSet == null;
   }
@@ -298,6 +350,7 @@ public class ResultMapping {
     sb.append(", resultSet='").append(resultSet).append('\'');
     sb.append(", foreignColumn='").append(foreignColumn).append('\'');
     sb.append(", lazy=").append(lazy);
+    sb.append(", batchSize=").append(batchSize);
     sb.append('}');
     return sb.toString();
   }
@@ -18,6 +18,8 @@ package org.apache.ibatis.plugin;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Clinton Begin
@@ -25,20 +27,78 @@ import java.util.List;
 public class InterceptorChain {
 
   private final List<Interceptor> interceptors = new ArrayList<>();
+  private volatile List<Segment> segments = Collections.emptyList();
 
   public Object pluginAll(Object target) {
-    for (Interceptor interceptor : interceptors) {
-      target = interceptor.plugin(target);
+    for (Segment segment : segments) {
+      target = segment.plugin(target);
     }
     return target;
   }
 
   public void addInterceptor(Interceptor interceptor) {
     interceptors.add(interceptor);
+    segments = buildSegments(interceptors);
   }
 
   public List<Interceptor> getInterceptors() {
     return Collections.unmodifiableList(interceptors);
   }
 
+  /**
+   * Groups consecutive interceptors that rely on the default {@link Interceptor#plugin(Object)} so that they are
+   * applied with a single proxy per target. Interceptors overriding it are still called one by one, in order.
+   */
+  private static List<Segment> buildSegments(List<Interceptor> interceptors) {
+    List<Segment> segments = new ArrayList<>();
+    Segment composed = null;
+    for (Interceptor interceptor : interceptors) {
+      if (usesDefaultPlugin(interceptor)) {
+        if (composed == null) {
+          composed = new Segment(true);
+          segments.add(composed);
+        }
+        composed.interceptors.add(interceptor);
+      } else {
+        Segment segment = new Segment(false);
+        segment.interceptors.add(interceptor);
+        segments.add(segment);
+        composed = null;
+      }
+    }
+    return segments;
+  }
+
+  private static boolean usesDefaultPlugin(Interceptor interceptor) {
+    try {
+      return interceptor.getClass().getMethod("plugin", Object.class).getDeclaringClass() == Interceptor.class;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static class Segment {
+
+    private final boolean composed;
+    private final List<Interceptor> interceptors = new ArrayList<>();
+    private final Map<Class<?>, Plugin.Chain> chains = new ConcurrentHashMap<>();
+
+    Segment(boolean composed) {
+      this.composed = composed;
+    }
+
+    Object plugin(Object target) {
+      if (!composed) {
+        return interceptors.get(0).plugin(target);
+      }
+      Class<?> type = target.getClass();
+      Plugin.Chain chain = chains.get(type);
+      if (chain == null) {
+        chain = Plugin.Chain.resolve(type, interceptors);
+        chains.putIfAbsent(type, chain);
+      }
+      return chain.wrap(target);
+    }
+  }
+
 }
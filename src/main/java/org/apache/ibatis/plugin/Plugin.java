@@ -16,12 +16,18 @@
 package org.apache.ibatis.plugin;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
 
@@ -30,43 +36,72 @@ import org.apache.ibatis.reflection.ExceptionUtil;
  */
 public class Plugin implements InvocationHandler {
 
+  private static final Map<Class<?>, Map<Class<?>, Set<Method>>> signatureMapCache = new ConcurrentHashMap<>();
+
   private final Object target;
-  private final Interceptor interceptor;
-  private final Map<Class<?>, Set<Method>> signatureMap;
+  private final Chain chain;
+  private final int levels;
+  private Object[] targets;
 
-  private Plugin(Object target, Interceptor interceptor, Map<Class<?>, Set<Method>> signatureMap) {
+  private Plugin(Object target, Chain chain, int levels) {
     this.target = target;
-    this.interceptor = interceptor;
-    this.signatureMap = signatureMap;
+    this.chain = chain;
+    this.levels = levels;
   }
 
   public static Object wrap(Object target, Interceptor interceptor) {
-    Map<Class<?>, Set<Method>> signatureMap = getSignatureMap(interceptor);
-    Class<?> type = target.getClass();
-    Class<?>[] interfaces = getAllInterfaces(type, signatureMap);
-    if (interfaces.length > 0) {
-      return Proxy.newProxyInstance(
-          type.getClassLoader(),
-          interfaces,
-          new Plugin(target, interceptor, signatureMap));
-    }
-    return target;
+    return Chain.resolve(target.getClass(), Collections.singletonList(interceptor)).wrap(target);
   }
 
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     try {
-      Set<Method> methods = signatureMap.get(method.getDeclaringClass());
-      if (methods != null && methods.contains(method)) {
-        return interceptor.intercept(new Invocation(target, method, args));
-      }
-      return method.invoke(target, args);
+      return proceed(levels - 1, method, args);
     } catch (Exception e) {
       throw ExceptionUtil.unwrapThrowable(e);
     }
   }
 
+  private Object proceed(int level, Method method, Object[] args) throws Throwable {
+    for (int i = level; i >= 0; i--) {
+      Set<Method> methods = chain.signatureMaps.get(i).get(method.getDeclaringClass());
+      if (methods != null && methods.contains(method)) {
+        Invocation invocation = i == 0 ? new Invocation(target, method, args) : new ChainedInvocation(this, i, method, args);
+        return chain.interceptors.get(i).intercept(invocation);
+      }
+    }
+    return method.invoke(target, args);
+  }
+
+  /**
+   * Returns the object an interceptor at the given level sees as its target: the plugged object itself for the
+   * innermost level, or a proxy applying only the inner levels. These proxies are created on first use.
+   */
+  private Object getTarget(int level) {
+    if (level == 0) {
+      return target;
+    }
+    if (targets == null) {
+      targets = new Object[levels];
+    }
+    Object levelTarget = targets[level];
+    if (levelTarget == null) {
+      levelTarget = chain.newProxy(target, level);
+      targets[level] = levelTarget;
+    }
+    return levelTarget;
+  }
+
   private static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
+    Map<Class<?>, Set<Method>> signatureMap = signatureMapCache.get(interceptor.getClass());
+    if (signatureMap == null) {
+      signatureMap = Collections.unmodifiableMap(buildSignatureMap(interceptor));
+      signatureMapCache.putIfAbsent(interceptor.getClass(), signatureMap);
+    }
+    return signatureMap;
+  }
+
+  private static Map<Class<?>, Set<Method>> buildSignatureMap(Interceptor interceptor) {
     Intercepts interceptsAnnotation = interceptor.getClass().getAnnotation(Intercepts.class);
     // issue #251
     if (interceptsAnnotation == null) {
@@ -86,17 +121,83 @@ public class Plugin implements InvocationHandler {
     return signatureMap;
   }
 
-  private static Class<?>[] getAllInterfaces(Class<?> type, Map<Class<?>, Set<Method>> signatureMap) {
-    Set<Class<?>> interfaces = new HashSet<>();
+  private static Set<Class<?>> getAllInterfaces(Class<?> type) {
+    Set<Class<?>> interfaces = new LinkedHashSet<>();
     while (type != null) {
-      for (Class<?> c : type.getInterfaces()) {
-        if (signatureMap.containsKey(c)) {
-          interfaces.add(c);
+      Collections.addAll(interfaces, type.getInterfaces());
+      type = type.getSuperclass();
+    }
+    return interfaces;
+  }
+
+  /**
+   * The interceptors that apply to a target type, innermost first, with the interfaces exposed at each level.
+   * <p>
+   * Applying a chain creates a single proxy that dispatches to every interceptor in turn, which behaves like wrapping
+   * the target once per interceptor: each level only exposes the interfaces its interceptor has signatures for, and
+   * {@link Invocation#proceed()} continues with the next inner interceptor.
+   */
+  static final class Chain {
+
+    private final List<Interceptor> interceptors = new ArrayList<>();
+    private final List<Map<Class<?>, Set<Method>>> signatureMaps = new ArrayList<>();
+    private final List<Class<?>[]> interfaces = new ArrayList<>();
+
+    private Chain() {
+    }
+
+    static Chain resolve(Class<?> type, List<Interceptor> candidates) {
+      Chain chain = new Chain();
+      Set<Class<?>> available = getAllInterfaces(type);
+      for (Interceptor interceptor : candidates) {
+        Map<Class<?>, Set<Method>> signatureMap = getSignatureMap(interceptor);
+        Set<Class<?>> matched = new LinkedHashSet<>(available);
+        matched.retainAll(signatureMap.keySet());
+        if (!matched.isEmpty()) {
+          chain.interceptors.add(interceptor);
+          chain.signatureMaps.add(signatureMap);
+          chain.interfaces.add(matched.toArray(new Class<?>[0]));
+          available = matched;
         }
       }
-      type = type.getSuperclass();
+      return chain;
+    }
+
+    Object wrap(Object target) {
+      return interceptors.isEmpty() ? target : newProxy(target, interceptors.size());
+    }
+
+    private Object newProxy(Object target, int levels) {
+      return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces.get(levels - 1),
+          new Plugin(target, this, levels));
+    }
+  }
+
+  private static class ChainedInvocation extends Invocation {
+
+    private final Plugin plugin;
+    private final int level;
+
+    ChainedInvocation(Plugin plugin, int level, Method method, Object[] args) {
+      super(plugin.target, method, args);
+      this.plugin = plugin;
+      this.level = level;
+    }
+
+    @Override
+    public Object getTarget() {
+      return plugin.getTarget(level);
+    }
+
+    @Override
+    public Object proceed() throws InvocationTargetException {
+      try {
+        return plugin.proceed(level - 1, getMethod(), getArgs());
+      } catch (Throwable t) {
+        // same as calling the inner proxy reflectively
+        throw new InvocationTargetException(ExceptionUtil.unwrapThrowable(t));
+      }
     }
-    return interfaces.toArray(new Class<?>[interfaces.size()]);
   }
 
 }
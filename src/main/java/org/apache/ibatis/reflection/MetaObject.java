@@ -141,6 +141,31 @@ public class MetaObject {
     }
   }
 
+  /**
+   * Gets the value of a pre-compiled property expression.
+   *
+   * @param path
+   *          the property path
+   * @return the value
+   * @since 3.5.5
+   */
+  public Object getValue(PropertyPath path) {
+    return path.getValue(this);
+  }
+
+  /**
+   * Sets the value of a pre-compiled property expression.
+   *
+   * @param path
+   *          the property path
+   * @param value
+   *          the value
+   * @since 3.5.5
+   */
+  public void setValue(PropertyPath path, Object value) {
+    path.setValue(this, value);
+  }
+
   public MetaObject metaObjectForProperty(String name) {
     Object value = getValue(name);
     return MetaObject.forObject(value, objectFactory, objectWrapperFactory, reflectorFactory);
@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+/**
+ * A reflector factory whose reflectors access properties through method handles instead of core reflection.
+ * <p>
+ * Getters and setters are called through functions generated with {@link java.lang.invoke.LambdaMetafactory} in the
+ * declaring class, so that they can be inlined like a direct call. Fields are accessed through method handles. Any
+ * member that cannot be accessed this way (e.g. in a module that is not open to MyBatis) is accessed through core
+ * reflection as usual.
+ * <p>
+ * It can be enabled in the configuration with {@code <reflectorFactory type="org.apache.ibatis.reflection.MethodHandleReflectorFactory"/>}.
+ *
+ * @since 3.5.5
+ */
+public class MethodHandleReflectorFactory extends DefaultReflectorFactory {
+
+  @Override
+  protected Reflector newReflector(Class<?> type) {
+    return new Reflector(type, true);
+  }
+
+}
@@ -0,0 +1,249 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+
+/**
+ * A property expression such as {@code order.customer.name} that has been tokenized once and can be evaluated many
+ * times.
+ * <p>
+ * Plain bean and map properties are read and written directly, using the getter and setter invokers resolved for the
+ * last class seen at each step, without creating a {@link MetaObject} per step. Anything else (indexed properties,
+ * collections, custom object wrappers, missing properties and {@code null} values on the way of a write) is delegated
+ * to {@link MetaObject}, so the result is always the same as calling {@link MetaObject#getValue(String)} or
+ * {@link MetaObject#setValue(String, Object)} with the expression.
+ *
+ * @since 3.5.5
+ */
+public final class PropertyPath {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  private final String expression;
+  private final Segment[] segments;
+
+  private PropertyPath(String expression) {
+    this.expression = expression;
+    List<Segment> list = new ArrayList<>();
+    PropertyTokenizer prop = new PropertyTokenizer(expression);
+    String remaining = expression;
+    while (true) {
+      list.add(new Segment(prop.getName(), prop.getIndex() != null, remaining));
+      if (!prop.hasNext()) {
+        break;
+      }
+      remaining = prop.getChildren();
+      prop = prop.next();
+    }
+    this.segments = list.toArray(new Segment[0]);
+  }
+
+  public static PropertyPath compile(String expression) {
+    return new PropertyPath(expression);
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  public Object getValue(MetaObject metaObject) {
+    return getValue(metaObject.getOriginalObject(), metaObject.getObjectFactory(), metaObject.getObjectWrapperFactory(),
+        metaObject.getReflectorFactory());
+  }
+
+  public Object getValue(Object object, ObjectFactory objectFactory, ObjectWrapperFactory objectWrapperFactory,
+      ReflectorFactory reflectorFactory) {
+    Object current = object;
+    for (Segment segment : segments) {
+      if (current == null) {
+        return null;
+      }
+      if (segment.indexed || !isPlain(current, objectWrapperFactory)) {
+        return MetaObject.forObject(current, objectFactory, objectWrapperFactory, reflectorFactory)
+            .getValue(segment.remaining);
+      }
+      if (current instanceof Map) {
+        current = ((Map<?, ?>) current).get(segment.name);
+      } else {
+        Invoker getter = segment.getter(current.getClass(), reflectorFactory);
+        if (getter == null) {
+          return MetaObject.forObject(current, objectFactory, objectWrapperFactory, reflectorFactory)
+              .getValue(segment.remaining);
+        }
+        current = segment.get(getter, current);
+      }
+    }
+    return current;
+  }
+
+  public void setValue(MetaObject metaObject, Object value) {
+    final ObjectFactory objectFactory = metaObject.getObjectFactory();
+    final ObjectWrapperFactory objectWrapperFactory = metaObject.getObjectWrapperFactory();
+    final ReflectorFactory reflectorFactory = metaObject.getReflectorFactory();
+    Object current = metaObject.getOriginalObject();
+    MetaObject parent = metaObject;
+    final int last = segments.length - 1;
+    for (int i = 0; i <= last; i++) {
+      Segment segment = segments[i];
+      if (current == null) {
+        // let MetaObject instantiate the missing value from its parent
+        parent.setValue(segments[i - 1].remaining, value);
+        return;
+      }
+      if (segment.indexed || !isPlain(current, objectWrapperFactory)) {
+        forObject(current, metaObject, i, objectFactory, objectWrapperFactory, reflectorFactory)
+            .setValue(segment.remaining, value);
+        return;
+      }
+      final Invoker invoker;
+      if (current instanceof Map) {
+        invoker = null;
+      } else {
+        invoker = i == last ? segment.setter(current.getClass(), reflectorFactory)
+            : segment.getter(current.getClass(), reflectorFactory);
+        if (invoker == null) {
+          forObject(current, metaObject, i, objectFactory, objectWrapperFactory, reflectorFactory)
+              .setValue(segment.remaining, value);
+          return;
+        }
+      }
+      if (i == last) {
+        if (invoker == null) {
+          @SuppressWarnings("unchecked")
+          Map<String, Object> map = (Map<String, Object>) current;
+          map.put(segment.name, value);
+        } else {
+          segment.set(invoker, current, value);
+        }
+        return;
+      }
+      Object next = invoker == null ? ((Map<?, ?>) current).get(segment.name) : segment.get(invoker, current);
+      if (next == null) {
+        if (value == null) {
+          // don't instantiate child path if value is null
+          return;
+        }
+        parent = forObject(current, metaObject, i, objectFactory, objectWrapperFactory, reflectorFactory);
+      }
+      current = next;
+    }
+  }
+
+  private static MetaObject forObject(Object object, MetaObject root, int index, ObjectFactory objectFactory,
+      ObjectWrapperFactory objectWrapperFactory, ReflectorFactory reflectorFactory) {
+    return index == 0 ? root : MetaObject.forObject(object, objectFactory, objectWrapperFactory, reflectorFactory);
+  }
+
+  private static boolean isPlain(Object object, ObjectWrapperFactory objectWrapperFactory) {
+    return !(object instanceof ObjectWrapper) && !(object instanceof Collection)
+        && !objectWrapperFactory.hasWrapperFor(object);
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+
+  private static class Segment {
+    private final String name;
+    private final boolean indexed;
+    private final String remaining;
+    private volatile Binding getter;
+    private volatile Binding setter;
+
+    Segment(String name, boolean indexed, String remaining) {
+      this.name = name;
+      this.indexed = indexed;
+      this.remaining = remaining;
+    }
+
+    Invoker getter(Class<?> type, ReflectorFactory reflectorFactory) {
+      Binding binding = getter;
+      if (binding == null || !binding.matches(type, reflectorFactory)) {
+        Reflector reflector = reflectorFactory.findForClass(type);
+        binding = new Binding(type, reflectorFactory, reflector.hasGetter(name) ? reflector.getGetInvoker(name) : null);
+        getter = binding;
+      }
+      return binding.invoker;
+    }
+
+    Invoker setter(Class<?> type, ReflectorFactory reflectorFactory) {
+      Binding binding = setter;
+      if (binding == null || !binding.matches(type, reflectorFactory)) {
+        Reflector reflector = reflectorFactory.findForClass(type);
+        binding = new Binding(type, reflectorFactory, reflector.hasSetter(name) ? reflector.getSetInvoker(name) : null);
+        setter = binding;
+      }
+      return binding.invoker;
+    }
+
+    Object get(Invoker invoker, Object object) {
+      try {
+        try {
+          return invoker.invoke(object, NO_ARGUMENTS);
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not get property '" + name + "' from " + object.getClass() + ".  Cause: " + t.toString(), t);
+      }
+    }
+
+    void set(Invoker invoker, Object object, Object value) {
+      try {
+        try {
+          invoker.invoke(object, new Object[] { value });
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not set property '" + name + "' of '" + object.getClass() + "' with value '" + value + "' Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+  /**
+   * The invoker resolved for the last class seen by a segment; {@code null} when the class has no such property.
+   */
+  private static class Binding {
+    private final Class<?> type;
+    private final ReflectorFactory reflectorFactory;
+    private final Invoker invoker;
+
+    Binding(Class<?> type, ReflectorFactory reflectorFactory, Invoker invoker) {
+      this.type = type;
+      this.reflectorFactory = reflectorFactory;
+      this.invoker = invoker;
+    }
+
+    boolean matches(Class<?> type, ReflectorFactory reflectorFactory) {
+      return this.type == type && this.reflectorFactory == reflectorFactory;
+    }
+  }
+
+}
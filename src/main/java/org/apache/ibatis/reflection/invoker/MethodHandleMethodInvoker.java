@@ -0,0 +1,112 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.ibatis.lang.UsesJava7;
+
+/**
+ * Calls a getter or a setter through a function generated with {@link java.lang.invoke.LambdaMetafactory}, or through a
+ * method handle when no function can be generated. Falls back to core reflection when neither is available.
+ *
+ * @since 3.5.5
+ */
+public class MethodHandleMethodInvoker extends MethodInvoker {
+
+  private final Class<?> targetType;
+  private final Class<?> valueType;
+  private final boolean nullable;
+  private final Function<Object, Object> getter;
+  private final BiConsumer<Object, Object> setter;
+  private final MethodHandle handle;
+
+  public MethodHandleMethodInvoker(Method method) {
+    super(method);
+    this.targetType = method.getDeclaringClass();
+    this.valueType = method.getParameterTypes().length == 1 ? MethodHandleUtil.wrap(method.getParameterTypes()[0]) : null;
+    this.nullable = valueType != null && !method.getParameterTypes()[0].isPrimitive();
+    if (method.getParameterTypes().length == 1) {
+      this.getter = null;
+      this.setter = MethodHandleUtil.setterFunction(method);
+      this.handle = setter == null ? MethodHandleUtil.setterHandle(method) : null;
+    } else if (method.getParameterTypes().length == 0) {
+      this.getter = MethodHandleUtil.getterFunction(method);
+      this.setter = null;
+      this.handle = getter == null ? MethodHandleUtil.getterHandle(method) : null;
+    } else {
+      this.getter = null;
+      this.setter = null;
+      this.handle = null;
+    }
+  }
+
+  /**
+   * Returns a function calling the setter method of the given invoker, generated with
+   * {@link java.lang.invoke.LambdaMetafactory}. The function does not convert its argument, it must be null or an
+   * instance of the wrapped parameter type, and null only if the parameter type is not primitive.
+   *
+   * @param invoker
+   *          a setter invoker
+   * @return the function, or null if the invoker does not call a method or no function can be generated
+   */
+  public static BiConsumer<Object, Object> toSetterFunction(Invoker invoker) {
+    if (invoker instanceof MethodInvoker && ((MethodInvoker) invoker).getMethod().getParameterTypes().length == 1) {
+      return MethodHandleUtil.setterFunction(((MethodInvoker) invoker).getMethod());
+    }
+    return null;
+  }
+
+  // invokeExact is signature polymorphic, so its call sites never match the Java 8 API signature
+  @Override
+  @UsesJava7
+  public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+    if (!accepts(target, args)) {
+      // let reflection handle and report anything unusual
+      return super.invoke(target, args);
+    }
+    try {
+      if (getter != null) {
+        return getter.apply(target);
+      } else if (setter != null) {
+        setter.accept(target, args[0]);
+        return null;
+      } else if (valueType == null) {
+        return (Object) handle.invokeExact(target);
+      } else {
+        handle.invokeExact(target, args[0]);
+        return null;
+      }
+    } catch (Throwable t) {
+      throw new InvocationTargetException(t);
+    }
+  }
+
+  private boolean accepts(Object target, Object[] args) {
+    if ((getter == null && setter == null && handle == null) || !targetType.isInstance(target)) {
+      return false;
+    }
+    if (valueType == null) {
+      return args == null || args.length == 0;
+    }
+    return args != null && args.length == 1 && (args[0] == null ? nullable : valueType.isInstance(args[0]));
+  }
+
+}
@@ -0,0 +1,58 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+
+import org.apache.ibatis.lang.UsesJava7;
+import org.apache.ibatis.reflection.ReflectionException;
+
+/**
+ * Writes a field through a method handle. Falls back to core reflection when no handle can be created.
+ *
+ * @since 3.5.5
+ */
+public class MethodHandleSetFieldInvoker extends SetFieldInvoker {
+
+  private final MethodHandle handle;
+
+  public MethodHandleSetFieldInvoker(Field field) {
+    super(field);
+    this.handle = MethodHandleUtil.setterHandle(field);
+  }
+
+  // invokeExact is signature polymorphic, so its call sites never match the Java 8 API signature
+  @Override
+  @UsesJava7
+  public Object invoke(Object target, Object[] args) throws IllegalAccessException {
+    if (handle == null || target == null) {
+      return super.invoke(target, args);
+    }
+    try {
+      handle.invokeExact(target, args[0]);
+      return null;
+    } catch (ClassCastException | NullPointerException e) {
+      // wrong target or a null primitive; let reflection report it as usual
+      return super.invoke(target, args);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new ReflectionException(t);
+    }
+  }
+
+}
@@ -0,0 +1,197 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.ibatis.lang.UsesJava7;
+import org.apache.ibatis.reflection.Reflector;
+
+/**
+ * Builds method handles and generated functions for property accessors.
+ * <p>
+ * Accessors are looked up with full access to their declaring class, so that the generated functions are defined next
+ * to it and can call non-public members. Every method returns {@code null} when this is not possible, for example
+ * when the declaring class is in a module that is not open, and the caller keeps using core reflection.
+ */
+final class MethodHandleUtil {
+
+  private static final int ALLOWED_MODES = MethodHandles.Lookup.PRIVATE | MethodHandles.Lookup.PROTECTED
+      | MethodHandles.Lookup.PACKAGE | MethodHandles.Lookup.PUBLIC;
+  private static final Constructor<Lookup> lookupConstructor;
+  private static final Method privateLookupInMethod;
+
+  static {
+    Method privateLookupIn;
+    try {
+      privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+    } catch (NoSuchMethodException e) {
+      privateLookupIn = null;
+    }
+    privateLookupInMethod = privateLookupIn;
+
+    Constructor<Lookup> lookup = null;
+    if (privateLookupInMethod == null) {
+      // JDK 1.8
+      try {
+        lookup = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+        lookup.setAccessible(true);
+      } catch (Exception e) {
+        lookup = null;
+      }
+    }
+    lookupConstructor = lookup;
+  }
+
+  private MethodHandleUtil() {
+    // Prevent Instantiation
+  }
+
+  // invokeExact is signature polymorphic, so its call sites never match the Java 8 API signature
+  @SuppressWarnings("unchecked")
+  @UsesJava7
+  static Function<Object, Object> getterFunction(Method method) {
+    Lookup lookup = privateLookupIn(method.getDeclaringClass());
+    if (lookup == null || Modifier.isStatic(method.getModifiers())) {
+      return null;
+    }
+    try {
+      MethodHandle handle = lookup.unreflect(method);
+      return (Function<Object, Object>) LambdaMetafactory.metafactory(lookup, "apply",
+          MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class), handle,
+          handle.type().wrap()).getTarget().invokeExact();
+    } catch (Throwable t) {
+      return null;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @UsesJava7
+  static BiConsumer<Object, Object> setterFunction(Method method) {
+    Lookup lookup = privateLookupIn(method.getDeclaringClass());
+    if (lookup == null || Modifier.isStatic(method.getModifiers())) {
+      return null;
+    }
+    try {
+      MethodHandle handle = lookup.unreflect(method);
+      return (BiConsumer<Object, Object>) LambdaMetafactory.metafactory(lookup, "accept",
+          MethodType.methodType(BiConsumer.class), MethodType.methodType(void.class, Object.class, Object.class), handle,
+          handle.type().wrap().changeReturnType(void.class)).getTarget().invokeExact();
+    } catch (Throwable t) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a handle of type {@code (Object)Object} calling the given getter.
+   */
+  static MethodHandle getterHandle(Method method) {
+    if (Modifier.isStatic(method.getModifiers())) {
+      return null;
+    }
+    try {
+      return unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a handle of type {@code (Object,Object)void} calling the given setter.
+   */
+  static MethodHandle setterHandle(Method method) {
+    if (Modifier.isStatic(method.getModifiers())) {
+      return null;
+    }
+    try {
+      return unreflect(method).asType(MethodType.methodType(void.class, Object.class, Object.class));
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a handle of type {@code (Object)Object} reading the given field.
+   */
+  static MethodHandle getterHandle(Field field) {
+    if (Modifier.isStatic(field.getModifiers())) {
+      return null;
+    }
+    try {
+      Lookup lookup = privateLookupIn(field.getDeclaringClass());
+      MethodHandle handle = lookup != null ? lookup.unreflectGetter(field) : MethodHandles.lookup().unreflectGetter(accessible(field));
+      return handle.asType(MethodType.methodType(Object.class, Object.class));
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a handle of type {@code (Object,Object)void} writing the given field.
+   */
+  static MethodHandle setterHandle(Field field) {
+    if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+      return null;
+    }
+    try {
+      Lookup lookup = privateLookupIn(field.getDeclaringClass());
+      MethodHandle handle = lookup != null ? lookup.unreflectSetter(field) : MethodHandles.lookup().unreflectSetter(accessible(field));
+      return handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  static Class<?> wrap(Class<?> type) {
+    return MethodType.methodType(type).wrap().returnType();
+  }
+
+  private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+    Lookup lookup = privateLookupIn(method.getDeclaringClass());
+    return lookup != null ? lookup.unreflect(method) : MethodHandles.lookup().unreflect(accessible(method));
+  }
+
+  private static <T extends java.lang.reflect.AccessibleObject> T accessible(T member) {
+    if (Reflector.canControlMemberAccessible()) {
+      member.setAccessible(true);
+    }
+    return member;
+  }
+
+  private static Lookup privateLookupIn(Class<?> type) {
+    try {
+      if (privateLookupInMethod != null) {
+        return (Lookup) privateLookupInMethod.invoke(null, type, MethodHandles.lookup());
+      } else if (lookupConstructor != null) {
+        return lookupConstructor.newInstance(type, ALLOWED_MODES);
+      }
+    } catch (Exception e) {
+      // not accessible
+    }
+    return null;
+  }
+
+}
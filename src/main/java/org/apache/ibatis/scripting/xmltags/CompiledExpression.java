@@ -0,0 +1,633 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+/**
+ * An expression of the subset of OGNL commonly used in dynamic SQL, compiled into a tree that reads the properties
+ * directly.
+ * <p>
+ * The subset consists of property paths, the {@code size()}, {@code isEmpty()} and {@code length()} methods, the
+ * {@code null}, boolean, string and number literals, the equality and relational operators, {@code and}, {@code or}
+ * and {@code not}. Expressions out of this subset are not compiled. Evaluations that would not give the same result as
+ * OGNL in an obvious way (e.g. comparing a string with a number, or reading a property of null) throw a
+ * {@link FallbackException} so that the expression can be evaluated by OGNL instead.
+ */
+abstract class CompiledExpression {
+
+  private static final ReflectorFactory REFLECTOR_FACTORY = new DefaultReflectorFactory();
+  private static final DynamicContext.ContextAccessor CONTEXT_ACCESSOR = new DynamicContext.ContextAccessor();
+
+  abstract Object getValue(Object root);
+
+  /**
+   * Compiles the given expression.
+   *
+   * @param expression
+   *          the OGNL expression
+   * @return the compiled expression, or null if the expression is out of the supported subset
+   */
+  static CompiledExpression compile(String expression) {
+    try {
+      return new Parser(expression).parse();
+    } catch (FallbackException e) {
+      return null;
+    }
+  }
+
+  static boolean booleanValue(Object value) {
+    if (value == null) {
+      return false;
+    } else if (value instanceof Boolean) {
+      return (Boolean) value;
+    } else if (value instanceof String) {
+      // like OGNL, only "true" is true
+      return Boolean.parseBoolean((String) value);
+    } else if (value instanceof Character) {
+      return (Character) value != 0;
+    } else if (value instanceof Number) {
+      return ((Number) value).doubleValue() != 0;
+    }
+    return true;
+  }
+
+  private static boolean isIntegral(Object value) {
+    return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+  }
+
+  private static int compareNumbers(Object left, Object right) {
+    if (isIntegral(left) && isIntegral(right)) {
+      return Long.compare(((Number) left).longValue(), ((Number) right).longValue());
+    }
+    if (left instanceof Number && right instanceof Number && !(left instanceof BigDecimal || left instanceof BigInteger
+        || right instanceof BigDecimal || right instanceof BigInteger)) {
+      double leftValue = ((Number) left).doubleValue();
+      double rightValue = ((Number) right).doubleValue();
+      return leftValue == rightValue ? 0 : (leftValue < rightValue ? -1 : 1);
+    }
+    throw FallbackException.INSTANCE;
+  }
+
+  /**
+   * Thrown when an expression cannot be compiled or evaluated without OGNL.
+   */
+  static final class FallbackException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    static final FallbackException INSTANCE = new FallbackException();
+
+    private FallbackException() {
+      super(null, null, false, false);
+    }
+  }
+
+  private static final class Literal extends CompiledExpression {
+    private final Object value;
+
+    Literal(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    Object getValue(Object root) {
+      return value;
+    }
+  }
+
+  private static final class Property extends CompiledExpression {
+    private final CompiledExpression target;
+    private final String name;
+    private volatile Getter getter;
+
+    Property(CompiledExpression target, String name) {
+      this.target = target;
+      this.name = name;
+    }
+
+    @Override
+    Object getValue(Object root) {
+      Object object = target == null ? root : target.getValue(root);
+      if (object == null) {
+        throw FallbackException.INSTANCE;
+      }
+      if (object instanceof DynamicContext.ContextMap) {
+        try {
+          return CONTEXT_ACCESSOR.getProperty(null, object, name);
+        } catch (Exception e) {
+          throw FallbackException.INSTANCE;
+        }
+      } else if (object instanceof Map) {
+        Map<?, ?> map = (Map<?, ?>) object;
+        switch (name) {
+          case "size":
+            return map.size();
+          case "isEmpty":
+            return map.isEmpty();
+          case "keys":
+          case "keySet":
+          case "values":
+            throw FallbackException.INSTANCE;
+          default:
+            return map.get(name);
+        }
+      } else if (object instanceof Collection) {
+        Collection<?> collection = (Collection<?>) object;
+        switch (name) {
+          case "size":
+            return collection.size();
+          case "isEmpty":
+          case "empty":
+            return collection.isEmpty();
+          case "iterator":
+            throw FallbackException.INSTANCE;
+          default:
+            break;
+        }
+      } else if (object.getClass().isArray()) {
+        if ("length".equals(name)) {
+          return Array.getLength(object);
+        }
+        throw FallbackException.INSTANCE;
+      } else if (object instanceof Iterator || object instanceof Enumeration) {
+        throw FallbackException.INSTANCE;
+      }
+      return getProperty(object);
+    }
+
+    private Object getProperty(Object object) {
+      Getter getter = this.getter;
+      if (getter == null || getter.type != object.getClass()) {
+        Reflector reflector = REFLECTOR_FACTORY.findForClass(object.getClass());
+        if (!reflector.hasGetter(name)) {
+          throw FallbackException.INSTANCE;
+        }
+        getter = new Getter(object.getClass(), reflector.getGetInvoker(name));
+        this.getter = getter;
+      }
+      try {
+        return getter.invoker.invoke(object, null);
+      } catch (Exception e) {
+        throw FallbackException.INSTANCE;
+      }
+    }
+  }
+
+  private static final class Getter {
+    private final Class<?> type;
+    private final Invoker invoker;
+
+    Getter(Class<?> type, Invoker invoker) {
+      this.type = type;
+      this.invoker = invoker;
+    }
+  }
+
+  private static final class MethodCall extends CompiledExpression {
+    private final CompiledExpression target;
+    private final String name;
+
+    MethodCall(CompiledExpression target, String name) {
+      this.target = target;
+      this.name = name;
+    }
+
+    @Override
+    Object getValue(Object root) {
+      Object object = target.getValue(root);
+      if ("size".equals(name)) {
+        if (object instanceof Collection) {
+          return ((Collection<?>) object).size();
+        } else if (object instanceof Map) {
+          return ((Map<?, ?>) object).size();
+        }
+      } else if ("isEmpty".equals(name)) {
+        if (object instanceof Collection) {
+          return ((Collection<?>) object).isEmpty();
+        } else if (object instanceof Map) {
+          return ((Map<?, ?>) object).isEmpty();
+        } else if (object instanceof String) {
+          return ((String) object).isEmpty();
+        }
+      } else if ("length".equals(name) && object instanceof CharSequence) {
+        return ((CharSequence) object).length();
+      }
+      throw FallbackException.INSTANCE;
+    }
+  }
+
+  private static final class Not extends CompiledExpression {
+    private final CompiledExpression operand;
+
+    Not(CompiledExpression operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    Object getValue(Object root) {
+      return booleanValue(operand.getValue(root)) ? Boolean.FALSE : Boolean.TRUE;
+    }
+  }
+
+  private static final class And extends CompiledExpression {
+    private final CompiledExpression[] operands;
+
+    And(List<CompiledExpression> operands) {
+      this.operands = operands.toArray(new CompiledExpression[0]);
+    }
+
+    @Override
+    Object getValue(Object root) {
+      // like OGNL, returns the value of the first false operand or of the last operand
+      Object result = null;
+      for (int i = 0; i < operands.length; i++) {
+        result = operands[i].getValue(root);
+        if (i < operands.length - 1 && !booleanValue(result)) {
+          break;
+        }
+      }
+      return result;
+    }
+  }
+
+  private static final class Or extends CompiledExpression {
+    private final CompiledExpression[] operands;
+
+    Or(List<CompiledExpression> operands) {
+      this.operands = operands.toArray(new CompiledExpression[0]);
+    }
+
+    @Override
+    Object getValue(Object root) {
+      // like OGNL, returns the value of the first true operand or of the last operand
+      Object result = null;
+      for (int i = 0; i < operands.length; i++) {
+        result = operands[i].getValue(root);
+        if (i < operands.length - 1 && booleanValue(result)) {
+          break;
+        }
+      }
+      return result;
+    }
+  }
+
+  private static final class Equality extends CompiledExpression {
+    private final CompiledExpression left;
+    private final CompiledExpression right;
+    private final boolean negated;
+
+    Equality(CompiledExpression left, CompiledExpression right, boolean negated) {
+      this.left = left;
+      this.right = right;
+      this.negated = negated;
+    }
+
+    @Override
+    Object getValue(Object root) {
+      Object leftValue = left.getValue(root);
+      Object rightValue = right.getValue(root);
+      boolean equal;
+      if (leftValue == null || rightValue == null || leftValue == rightValue) {
+        equal = leftValue == rightValue;
+      } else if ((leftValue instanceof String && rightValue instanceof String)
+          || (leftValue instanceof Boolean && rightValue instanceof Boolean)) {
+        equal = leftValue.equals(rightValue);
+      } else {
+        equal = compareNumbers(leftValue, rightValue) == 0;
+      }
+      return equal != negated;
+    }
+  }
+
+  private static final class Comparison extends CompiledExpression {
+    private final CompiledExpression left;
+    private final CompiledExpression right;
+    private final String operator;
+
+    Comparison(CompiledExpression left, CompiledExpression right, String operator) {
+      this.left = left;
+      this.right = right;
+      this.operator = operator;
+    }
+
+    @Override
+    Object getValue(Object root) {
+      Object leftValue = left.getValue(root);
+      Object rightValue = right.getValue(root);
+      int result;
+      if (leftValue instanceof String && rightValue instanceof String) {
+        result = ((String) leftValue).compareTo((String) rightValue);
+      } else {
+        result = compareNumbers(leftValue, rightValue);
+      }
+      switch (operator) {
+        case "<":
+          return result < 0;
+        case "<=":
+          return result <= 0;
+        case ">":
+          return result > 0;
+        default:
+          return result >= 0;
+      }
+    }
+  }
+
+  /**
+   * A recursive descent parser of the supported subset, following the operator precedence of OGNL.
+   */
+  private static final class Parser {
+    // the token of the string literals, which cannot be confused with an operator or an identifier
+    private static final String STRING_LITERAL = "'";
+
+    private final String expression;
+    private int position;
+    private String token;
+    private Object literal;
+
+    Parser(String expression) {
+      this.expression = expression;
+      next();
+    }
+
+    CompiledExpression parse() {
+      CompiledExpression result = parseOr();
+      if (token != null) {
+        throw FallbackException.INSTANCE;
+      }
+      return result;
+    }
+
+    private CompiledExpression parseOr() {
+      List<CompiledExpression> operands = new ArrayList<>();
+      operands.add(parseAnd());
+      while ("||".equals(token) || "or".equals(token)) {
+        next();
+        operands.add(parseAnd());
+      }
+      return operands.size() == 1 ? operands.get(0) : new Or(operands);
+    }
+
+    private CompiledExpression parseAnd() {
+      List<CompiledExpression> operands = new ArrayList<>();
+      operands.add(parseEquality());
+      while ("&&".equals(token) || "and".equals(token)) {
+        next();
+        operands.add(parseEquality());
+      }
+      return operands.size() == 1 ? operands.get(0) : new And(operands);
+    }
+
+    private CompiledExpression parseEquality() {
+      CompiledExpression result = parseRelational();
+      while (true) {
+        if ("==".equals(token) || "eq".equals(token)) {
+          next();
+          result = new Equality(result, parseRelational(), false);
+        } else if ("!=".equals(token) || "neq".equals(token)) {
+          next();
+          result = new Equality(result, parseRelational(), true);
+        } else {
+          return result;
+        }
+      }
+    }
+
+    private CompiledExpression parseRelational() {
+      CompiledExpression result = parseUnary();
+      while (true) {
+        String operator = relationalOperator(token);
+        if (operator == null) {
+          return result;
+        }
+        next();
+        result = new Comparison(result, parseUnary(), operator);
+      }
+    }
+
+    private String relationalOperator(String token) {
+      if (token == null) {
+        return null;
+      }
+      switch (token) {
+        case "<":
+        case "lt":
+          return "<";
+        case "<=":
+        case "lte":
+          return "<=";
+        case ">":
+        case "gt":
+          return ">";
+        case ">=":
+        case "gte":
+          return ">=";
+        default:
+          return null;
+      }
+    }
+
+    private CompiledExpression parseUnary() {
+      if ("!".equals(token) || "not".equals(token)) {
+        next();
+        return new Not(parseUnary());
+      }
+      return parsePrimary();
+    }
+
+    private CompiledExpression parsePrimary() {
+      if (token == null) {
+        throw FallbackException.INSTANCE;
+      }
+      if ("(".equals(token)) {
+        next();
+        CompiledExpression result = parseOr();
+        expect(")");
+        return result;
+      }
+      if (literal != null) {
+        Object value = literal;
+        next();
+        return new Literal(value);
+      }
+      switch (token) {
+        case "null":
+          next();
+          return new Literal(null);
+        case "true":
+          next();
+          return new Literal(Boolean.TRUE);
+        case "false":
+          next();
+          return new Literal(Boolean.FALSE);
+        default:
+          break;
+      }
+      CompiledExpression result = new Property(null, identifier());
+      while (".".equals(token)) {
+        next();
+        String name = identifier();
+        if ("(".equals(token)) {
+          next();
+          expect(")");
+          result = new MethodCall(result, name);
+        } else {
+          result = new Property(result, name);
+        }
+      }
+      return result;
+    }
+
+    private String identifier() {
+      String name = token;
+      if (literal != null || name == null || !Character.isJavaIdentifierStart(name.charAt(0)) || isKeyword(name)) {
+        throw FallbackException.INSTANCE;
+      }
+      next();
+      return name;
+    }
+
+    private boolean isKeyword(String name) {
+      switch (name) {
+        case "and":
+        case "or":
+        case "not":
+        case "eq":
+        case "neq":
+        case "lt":
+        case "lte":
+        case "gt":
+        case "gte":
+        case "null":
+        case "true":
+        case "false":
+        case "in":
+        case "instanceof":
+        case "new":
+        case "shl":
+        case "shr":
+        case "ushr":
+        case "band":
+        case "bor":
+        case "xor":
+          return true;
+        default:
+          return false;
+      }
+    }
+
+    private void expect(String expected) {
+      if (!expected.equals(token)) {
+        throw FallbackException.INSTANCE;
+      }
+      next();
+    }
+
+    private void next() {
+      literal = null;
+      while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+        position++;
+      }
+      if (position == expression.length()) {
+        token = null;
+        return;
+      }
+      char c = expression.charAt(position);
+      int start = position;
+      if (Character.isJavaIdentifierStart(c)) {
+        while (position < expression.length() && Character.isJavaIdentifierPart(expression.charAt(position))) {
+          position++;
+        }
+        token = expression.substring(start, position);
+      } else if (Character.isDigit(c)) {
+        nextNumber();
+      } else if (c == '\'' || c == '"') {
+        nextString(c);
+      } else if (expression.startsWith("==", position) || expression.startsWith("!=", position)
+          || expression.startsWith("<=", position) || expression.startsWith(">=", position)
+          || expression.startsWith("&&", position) || expression.startsWith("||", position)) {
+        position += 2;
+        token = expression.substring(start, position);
+      } else if (c == '<' || c == '>' || c == '!' || c == '(' || c == ')' || c == '.') {
+        position++;
+        token = String.valueOf(c);
+      } else {
+        throw FallbackException.INSTANCE;
+      }
+    }
+
+    private void nextNumber() {
+      int start = position;
+      while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+        position++;
+      }
+      boolean decimal = false;
+      if (position + 1 < expression.length() && expression.charAt(position) == '.'
+          && Character.isDigit(expression.charAt(position + 1))) {
+        decimal = true;
+        position++;
+        while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+          position++;
+        }
+      }
+      if (position < expression.length() && Character.isJavaIdentifierPart(expression.charAt(position))) {
+        // type suffixes, hexadecimal and exponent notations
+        throw FallbackException.INSTANCE;
+      }
+      token = expression.substring(start, position);
+      if (decimal) {
+        literal = Double.valueOf(token);
+      } else if (token.length() > 1 && token.charAt(0) == '0') {
+        // octal notation
+        throw FallbackException.INSTANCE;
+      } else {
+        try {
+          literal = Integer.valueOf(token);
+        } catch (NumberFormatException e) {
+          throw FallbackException.INSTANCE;
+        }
+      }
+    }
+
+    private void nextString(char quote) {
+      int end = expression.indexOf(quote, position + 1);
+      if (end < 0) {
+        throw FallbackException.INSTANCE;
+      }
+      String value = expression.substring(position + 1, end);
+      if (value.indexOf('\\') >= 0 || (quote == '\'' && value.length() == 1)) {
+        // escape sequences and character literals
+        throw FallbackException.INSTANCE;
+      }
+      position = end + 1;
+      token = STRING_LITERAL;
+      literal = value;
+    }
+  }
+
+}
@@ -0,0 +1,55 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An expression evaluator that compiles the expressions commonly used in dynamic SQL into direct property reads
+ * and comparisons, and evaluates the other expressions with OGNL.
+ *
+ * @since 3.5.5
+ * @see CompiledXMLLanguageDriver
+ */
+public class CompiledExpressionEvaluator extends ExpressionEvaluator {
+
+  private static final CompiledExpression NOT_COMPILED = new CompiledExpression() {
+    @Override
+    Object getValue(Object root) {
+      throw FallbackException.INSTANCE;
+    }
+  };
+
+  private static final Map<String, CompiledExpression> expressionCache = new ConcurrentHashMap<>();
+
+  @Override
+  protected Object getValue(String expression, Object parameterObject) {
+    CompiledExpression compiledExpression = expressionCache.computeIfAbsent(expression, e -> {
+      CompiledExpression compiled = CompiledExpression.compile(e);
+      return compiled == null ? NOT_COMPILED : compiled;
+    });
+    if (compiledExpression != NOT_COMPILED) {
+      try {
+        return compiledExpression.getValue(parameterObject);
+      } catch (RuntimeException e) {
+        // evaluate with OGNL to get the same result or error
+      }
+    }
+    return super.getValue(expression, parameterObject);
+  }
+
+}
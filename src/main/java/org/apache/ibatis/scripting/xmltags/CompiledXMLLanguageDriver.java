@@ -0,0 +1,40 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * A XML language driver that compiles the common expressions of the {@code test}, {@code bind} and
+ * {@code collection} attributes instead of interpreting them with OGNL. The expressions that cannot be compiled are
+ * still evaluated with OGNL.
+ *
+ * @since 3.5.5
+ * @see CompiledExpressionEvaluator
+ */
+public class CompiledXMLLanguageDriver extends XMLLanguageDriver {
+
+  private final ExpressionEvaluator evaluator = new CompiledExpressionEvaluator();
+
+  @Override
+  public SqlSource createSqlSource(Configuration configuration, XNode script, Class<?> parameterType) {
+    XMLScriptBuilder builder = new XMLScriptBuilder(configuration, script, parameterType, evaluator);
+    return builder.parseScriptNode();
+  }
+
+}
@@ -15,9 +15,16 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -25,8 +32,11 @@ import org.apache.ibatis.session.Configuration;
  */
 public class DynamicSqlSource implements SqlSource {
 
+  private static final int MAX_PARSED_SQL = 64;
+
   private final Configuration configuration;
   private final SqlNode rootSqlNode;
+  private final Map<String, ParsedSql> parsedSqlCache = new ConcurrentHashMap<>();
 
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
     this.configuration = configuration;
@@ -37,12 +47,62 @@ public class DynamicSqlSource implements SqlSource {
   public BoundSql getBoundSql(Object parameterObject) {
     DynamicContext context = new DynamicContext(configuration, parameterObject);
     rootSqlNode.apply(context);
-    SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
     Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-    SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
-    BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+    String originalSql = context.getSql();
+    MetaObject metaBindings = configuration.newMetaObject(context.getBindings());
+    ParsedSql parsedSql = parsedSqlCache.get(originalSql);
+    if (parsedSql == null || !parsedSql.matches(parameterType, metaBindings)) {
+      SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+      SqlSource sqlSource = sqlSourceParser.parse(originalSql, parameterType, context.getBindings());
+      BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+      parsedSql = new ParsedSql(boundSql.getSql(), boundSql.getParameterMappings(), parameterType, metaBindings);
+      if (parsedSqlCache.size() >= MAX_PARSED_SQL) {
+        parsedSqlCache.clear();
+      }
+      parsedSqlCache.put(originalSql, parsedSql);
+    }
+    BoundSql boundSql = new BoundSql(configuration, parsedSql.sql, new ArrayList<>(parsedSql.parameterMappings), parameterObject);
     context.getBindings().forEach(boundSql::setAdditionalParameter);
     return boundSql;
   }
 
+  /**
+   * The result of parsing the {@code #{}} placeholders of a generated SQL. The types of the parameter mappings depend on
+   * the parameter type and on the types of the bound values they refer to, so these are checked before reusing it.
+   */
+  private static class ParsedSql {
+
+    private final String sql;
+    private final List<ParameterMapping> parameterMappings;
+    private final Class<?> parameterType;
+    private final Class<?>[] bindingTypes;
+
+    ParsedSql(String sql, List<ParameterMapping> parameterMappings, Class<?> parameterType, MetaObject metaBindings) {
+      this.sql = sql;
+      this.parameterMappings = parameterMappings;
+      this.parameterType = parameterType;
+      this.bindingTypes = new Class<?>[parameterMappings.size()];
+      for (int i = 0; i < bindingTypes.length; i++) {
+        bindingTypes[i] = getBindingType(metaBindings, parameterMappings.get(i).getProperty());
+      }
+    }
+
+    boolean matches(Class<?> parameterType, MetaObject metaBindings) {
+      if (this.parameterType != parameterType) {
+        return false;
+      }
+      for (int i = 0; i < bindingTypes.length; i++) {
+        if (bindingTypes[i] != getBindingType(metaBindings, parameterMappings.get(i).getProperty())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static Class<?> getBindingType(MetaObject metaBindings, String property) {
+      // same lookup as SqlSourceBuilder, issue #448
+      return property != null && metaBindings.hasGetter(property) ? metaBindings.getGetterType(property) : null;
+    }
+  }
+
 }
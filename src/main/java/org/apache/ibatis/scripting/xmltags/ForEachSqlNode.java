@@ -35,9 +35,17 @@ public class ForEachSqlNode implements SqlNode {
   private final String item;
   private final String index;
   private final Configuration configuration;
+  private final ItemTemplate itemTemplate;
 
   public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator) {
-    this.evaluator = new ExpressionEvaluator();
+    this(configuration, contents, collectionExpression, index, item, open, close, separator, new ExpressionEvaluator());
+  }
+
+  /**
+   * @since 3.5.5
+   */
+  public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator, ExpressionEvaluator evaluator) {
+    this.evaluator = evaluator;
     this.collectionExpression = collectionExpression;
     this.contents = contents;
     this.open = open;
@@ -46,6 +54,7 @@ public class ForEachSqlNode implements SqlNode {
     this.index = index;
     this.item = item;
     this.configuration = configuration;
+    this.itemTemplate = ItemTemplate.of(contents, item);
   }
 
   @Override
@@ -55,6 +64,10 @@ public class ForEachSqlNode implements SqlNode {
     if (!iterable.iterator().hasNext()) {
       return true;
     }
+    if (itemTemplate != null) {
+      applyItemTemplate(context, iterable);
+      return true;
+    }
     boolean first = true;
     applyOpen(context);
     int i = 0;
@@ -89,6 +102,25 @@ public class ForEachSqlNode implements SqlNode {
     return true;
   }
 
+  /**
+   * Renders a body that only references the item in a single placeholder, such as {@code #{item}}, without the
+   * per-item contexts and token rewriting. The SQL and bindings used by the placeholders are the same.
+   */
+  private void applyItemTemplate(DynamicContext context, Iterable<?> iterable) {
+    applyOpen(context);
+    boolean first = true;
+    for (Object o : iterable) {
+      context.appendSql(first || separator == null ? "" : separator);
+      first = false;
+      String itemName = itemizeItem(item, context.getUniqueNumber());
+      context.bind(itemName, o instanceof Map.Entry ? ((Map.Entry<?, ?>) o).getValue() : o);
+      context.appendSql(itemTemplate.render(itemName));
+    }
+    applyClose(context);
+    context.getBindings().remove(item);
+    context.getBindings().remove(index);
+  }
+
   private void applyIndex(DynamicContext context, Object o, int i) {
     if (index != null) {
       context.bind(index, o);
@@ -119,6 +151,50 @@ public class ForEachSqlNode implements SqlNode {
     return ITEM_PREFIX + item + "_" + i;
   }
 
+  /**
+   * A static body holding a single placeholder that starts with the item name, split around that name.
+   */
+  private static class ItemTemplate {
+    private final String head;
+    private final String tail;
+
+    private ItemTemplate(String head, String tail) {
+      this.head = head;
+      this.tail = tail;
+    }
+
+    static ItemTemplate of(SqlNode contents, String item) {
+      while (item != null && contents instanceof MixedSqlNode && ((MixedSqlNode) contents).getContents().size() == 1) {
+        contents = ((MixedSqlNode) contents).getContents().get(0);
+      }
+      if (item == null || !(contents instanceof StaticTextSqlNode)) {
+        return null;
+      }
+      String text = ((StaticTextSqlNode) contents).getText();
+      int start = text.indexOf("#{");
+      int end = text.indexOf('}', start);
+      if (start < 0 || end < 0 || text.indexOf("#{", start + 2) >= 0 || text.indexOf('\\') >= 0) {
+        return null;
+      }
+      String content = text.substring(start + 2, end);
+      int nameStart = 0;
+      while (nameStart < content.length() && Character.isWhitespace(content.charAt(nameStart))) {
+        nameStart++;
+      }
+      int nameEnd = nameStart + item.length();
+      // same match as FilteredDynamicContext
+      if (!content.startsWith(item, nameStart)
+          || nameEnd < content.length() && ".,:".indexOf(content.charAt(nameEnd)) < 0 && !Character.isWhitespace(content.charAt(nameEnd))) {
+        return null;
+      }
+      return new ItemTemplate(text.substring(0, start + 2), text.substring(start + 2 + nameEnd));
+    }
+
+    String render(String itemName) {
+      return head + itemName + tail;
+    }
+  }
+
   private static class FilteredDynamicContext extends DynamicContext {
     private final DynamicContext delegate;
     private final int index;
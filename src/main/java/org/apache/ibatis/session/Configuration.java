@@ -25,6 +25,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import org.apache.ibatis.binding.MapperRegistry;
@@ -37,9 +40,11 @@ import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
+import org.apache.ibatis.datasource.pooled.ConcurrentPooledDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 import org.apache.ibatis.executor.BatchExecutor;
@@ -86,6 +91,7 @@ import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.CompiledXMLLanguageDriver;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
@@ -113,15 +119,24 @@ public class Configuration {
   protected boolean callSettersOnNulls;
   protected boolean useActualParamName = true;
   protected boolean returnInstanceForEmptyRow;
+  protected boolean useCompiledRowMappers;
+  protected boolean useCompactMapResults;
+  protected boolean groupBatchesBySql;
+  protected boolean adaptiveFetchSize;
+  protected int minAdaptiveFetchSize = 10;
+  protected int maxAdaptiveFetchSize = 1000;
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
   protected Class<? extends VFS> vfsImpl;
   protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
+  protected Integer localCacheSize;
+  protected Long localCacheMaxBytes;
   protected JdbcType jdbcTypeForNull = JdbcType.OTHER;
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected Integer maxBatchSize;
   protected ResultSetType defaultResultSetType;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
@@ -136,6 +151,7 @@ public class Configuration {
   protected ProxyFactory proxyFactory = new JavassistProxyFactory(); // #224 Using internal Javassist instead of OGNL
 
   protected String databaseId;
+  protected volatile java.util.concurrent.Executor asyncExecutor;
   /**
    * Configuration factory class.
    * Used to create Configuration for loading deserialized unread properties.
@@ -184,6 +200,7 @@ public class Configuration {
 
     typeAliasRegistry.registerAlias("JNDI", JndiDataSourceFactory.class);
     typeAliasRegistry.registerAlias("POOLED", PooledDataSourceFactory.class);
+    typeAliasRegistry.registerAlias("CONCURRENT_POOLED", ConcurrentPooledDataSourceFactory.class);
     typeAliasRegistry.registerAlias("UNPOOLED", UnpooledDataSourceFactory.class);
 
     typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
@@ -191,11 +208,13 @@ public class Configuration {
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+    typeAliasRegistry.registerAlias("TINYLFU", TinyLfuCache.class);
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
     typeAliasRegistry.registerAlias("XML", XMLLanguageDriver.class);
     typeAliasRegistry.registerAlias("RAW", RawLanguageDriver.class);
+    typeAliasRegistry.registerAlias("COMPILED_XML", CompiledXMLLanguageDriver.class);
 
     typeAliasRegistry.registerAlias("SLF4J", Slf4jImpl.class);
     typeAliasRegistry.registerAlias("COMMONS_LOGGING", JakartaCommonsLoggingImpl.class);
@@ -266,6 +285,221 @@ public class Configuration {
     this.returnInstanceForEmptyRow = returnEmptyInstance;
   }
 
+  /**
+   * Gets whether the rows of flat result maps are mapped by compiled row mappers.
+   *
+   * @return true if compiled row mappers are used
+   * @since 3.5.5
+   */
+  public boolean isUseCompiledRowMappers() {
+    return useCompiledRowMappers;
+  }
+
+  /**
+   * Sets whether the rows of flat result maps are mapped by compiled row mappers.
+   * <p>
+   * A compiled row mapper reads each column by index and calls the resolved setter directly. It is only used for
+   * result maps without nested result maps, nested selects, discriminators or constructor mappings.
+   *
+   * @param useCompiledRowMappers
+   *          true to use compiled row mappers
+   * @since 3.5.5
+   */
+  public void setUseCompiledRowMappers(boolean useCompiledRowMappers) {
+    this.useCompiledRowMappers = useCompiledRowMappers;
+  }
+
+  /**
+   * Gets whether the rows of map results are returned as compact maps.
+   *
+   * @return true if compact maps are used for map results
+   * @since 3.5.5
+   */
+  public boolean isUseCompactMapResults() {
+    return useCompactMapResults;
+  }
+
+  /**
+   * Sets whether the rows of map results are returned as compact maps.
+   * <p>
+   * A compact map stores the values of a row in an array indexed by the column names, which are shared by all the rows
+   * of a result set. It is only used for result maps whose type is {@code java.util.Map} (the {@code map} alias) and
+   * is created without calling the {@link ObjectFactory}.
+   *
+   * @param useCompactMapResults
+   *          true to use compact maps for map results
+   * @since 3.5.5
+   */
+  public void setUseCompactMapResults(boolean useCompactMapResults) {
+    this.useCompactMapResults = useCompactMapResults;
+  }
+
+  /**
+   * Gets whether the batch executor groups pending statements by SQL regardless of the order they were added.
+   *
+   * @return true if pending statements are grouped by SQL
+   * @since 3.5.5
+   */
+  public boolean isGroupBatchesBySql() {
+    return groupBatchesBySql;
+  }
+
+  /**
+   * Sets whether the batch executor groups pending statements by SQL regardless of the order they were added.
+   * <p>
+   * By default a new JDBC batch is started whenever the SQL or the mapped statement changes, so interleaved statements
+   * are executed in the order they were added. When grouping is enabled, statements with the same SQL and mapped
+   * statement are added to the same JDBC batch and batches are executed in the order of their first statement. Only
+   * enable this when the batched statements do not depend on each other.
+   *
+   * @param groupBatchesBySql
+   *          true to group pending statements by SQL
+   * @since 3.5.5
+   */
+  public void setGroupBatchesBySql(boolean groupBatchesBySql) {
+    this.groupBatchesBySql = groupBatchesBySql;
+  }
+
+  /**
+   * Gets the maximum number of parameter sets added to a single JDBC batch.
+   *
+   * @return the maximum batch size, or null if batches are unbounded
+   * @since 3.5.5
+   */
+  public Integer getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * Sets the maximum number of parameter sets added to a single JDBC batch.
+   * <p>
+   * When a batch reaches this size, the batch executor executes it right away and keeps collecting into the same
+   * statement. Its result is returned with the others by the next flush.
+   *
+   * @param maxBatchSize
+   *          the maximum batch size, or null for unbounded batches
+   * @since 3.5.5
+   */
+  public void setMaxBatchSize(Integer maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Gets whether the fetch size of statements without an explicit fetch size is learned from the rows they returned.
+   *
+   * @return true if adaptive fetch sizes are enabled
+   * @since 3.5.5
+   */
+  public boolean isAdaptiveFetchSize() {
+    return adaptiveFetchSize;
+  }
+
+  /**
+   * Sets whether the fetch size of statements without an explicit fetch size is learned from the rows they returned.
+   * <p>
+   * When enabled, the number of rows returned by each query is recorded in the
+   * {@link MappedStatement#getFetchSizeStatistics() statistics} of its mapped statement, and the next executions use a
+   * fetch size that covers the usual row count, between {@link #getMinAdaptiveFetchSize()} and
+   * {@link #getMaxAdaptiveFetchSize()}. The {@link #getDefaultFetchSize() default fetch size} is used until a row count
+   * has been recorded.
+   *
+   * @param adaptiveFetchSize
+   *          true to enable adaptive fetch sizes
+   * @since 3.5.5
+   */
+  public void setAdaptiveFetchSize(boolean adaptiveFetchSize) {
+    this.adaptiveFetchSize = adaptiveFetchSize;
+  }
+
+  /**
+   * Gets the smallest fetch size chosen by adaptive fetch sizes.
+   *
+   * @return the smallest adaptive fetch size
+   * @since 3.5.5
+   */
+  public int getMinAdaptiveFetchSize() {
+    return minAdaptiveFetchSize;
+  }
+
+  /**
+   * Sets the smallest fetch size chosen by adaptive fetch sizes.
+   *
+   * @param minAdaptiveFetchSize
+   *          the smallest adaptive fetch size
+   * @since 3.5.5
+   */
+  public void setMinAdaptiveFetchSize(int minAdaptiveFetchSize) {
+    this.minAdaptiveFetchSize = minAdaptiveFetchSize;
+  }
+
+  /**
+   * Gets the largest fetch size chosen by adaptive fetch sizes.
+   *
+   * @return the largest adaptive fetch size
+   * @since 3.5.5
+   */
+  public int getMaxAdaptiveFetchSize() {
+    return maxAdaptiveFetchSize;
+  }
+
+  /**
+   * Sets the largest fetch size chosen by adaptive fetch sizes.
+   *
+   * @param maxAdaptiveFetchSize
+   *          the largest adaptive fetch size
+   * @since 3.5.5
+   */
+  public void setMaxAdaptiveFetchSize(int maxAdaptiveFetchSize) {
+    this.maxAdaptiveFetchSize = maxAdaptiveFetchSize;
+  }
+
+  /**
+   * Gets the maximum number of entries kept in the local cache of a session.
+   *
+   * @return the maximum number of entries, or null if unbounded
+   * @since 3.5.5
+   */
+  public Integer getLocalCacheSize() {
+    return localCacheSize;
+  }
+
+  /**
+   * Sets the maximum number of entries kept in the local cache of a session.
+   * <p>
+   * When the local cache grows beyond this size, the least recently used entries are evicted after the current
+   * top-level query completes.
+   *
+   * @param localCacheSize
+   *          the maximum number of entries, or null for an unbounded local cache
+   * @since 3.5.5
+   */
+  public void setLocalCacheSize(Integer localCacheSize) {
+    this.localCacheSize = localCacheSize;
+  }
+
+  /**
+   * Gets the maximum estimated size in bytes of the results kept in the local cache of a session.
+   *
+   * @return the maximum size in bytes, or null if unbounded
+   * @since 3.5.5
+   */
+  public Long getLocalCacheMaxBytes() {
+    return localCacheMaxBytes;
+  }
+
+  /**
+   * Sets the maximum estimated size in bytes of the results kept in the local cache of a session.
+   * <p>
+   * Sizes are rough estimates: each result object counts for a fixed size, while strings and byte arrays are measured.
+   *
+   * @param localCacheMaxBytes
+   *          the maximum size in bytes, or null for an unbounded local cache
+   * @since 3.5.5
+   */
+  public void setLocalCacheMaxBytes(Long localCacheMaxBytes) {
+    this.localCacheMaxBytes = localCacheMaxBytes;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -370,6 +604,53 @@ public class Configuration {
     this.proxyFactory = proxyFactory;
   }
 
+  /**
+   * Gets the executor that runs the mapper methods returning a {@link java.util.concurrent.CompletableFuture}.
+   * <p>
+   * When none is set, virtual threads are used on JDK 21 and later, and a pool of daemon threads on older JDKs.
+   *
+   * @return the executor of asynchronous mapper methods
+   * @since 3.5.5
+   */
+  public java.util.concurrent.Executor getAsyncExecutor() {
+    java.util.concurrent.Executor executor = asyncExecutor;
+    if (executor == null) {
+      synchronized (this) {
+        if (asyncExecutor == null) {
+          asyncExecutor = newDefaultAsyncExecutor();
+        }
+        executor = asyncExecutor;
+      }
+    }
+    return executor;
+  }
+
+  /**
+   * Sets the executor that runs the mapper methods returning a {@link java.util.concurrent.CompletableFuture}.
+   *
+   * @param asyncExecutor
+   *          the executor, or {@code null} to use the default one
+   * @since 3.5.5
+   */
+  public void setAsyncExecutor(java.util.concurrent.Executor asyncExecutor) {
+    this.asyncExecutor = asyncExecutor;
+  }
+
+  private static java.util.concurrent.Executor newDefaultAsyncExecutor() {
+    try {
+      return (java.util.concurrent.Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      // virtual threads are not available before JDK 21
+    }
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "mybatis-async-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    return Executors.newCachedThreadPool(threadFactory);
+  }
+
   public boolean isAggressiveLazyLoading() {
     return aggressiveLazyLoading;
   }
@@ -19,7 +19,9 @@ import java.io.Closeable;
 import java.sql.Connection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
+import org.apache.ibatis.cache.LocalCacheStatistics;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
 
@@ -144,6 +146,45 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * A Stream offers the same results as a Cursor, and closes the cursor when the stream is closed.
+   * @param <T> the returned stream element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @return Stream of mapped objects
+   * @since 3.5.5
+   * @see Cursor#stream()
+   */
+  default <T> Stream<T> selectStream(String statement) {
+    return this.<T>selectCursor(statement).stream();
+  }
+
+  /**
+   * A Stream offers the same results as a Cursor, and closes the cursor when the stream is closed.
+   * @param <T> the returned stream element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @return Stream of mapped objects
+   * @since 3.5.5
+   * @see Cursor#stream()
+   */
+  default <T> Stream<T> selectStream(String statement, Object parameter) {
+    return this.<T>selectCursor(statement, parameter).stream();
+  }
+
+  /**
+   * A Stream offers the same results as a Cursor, and closes the cursor when the stream is closed.
+   * @param <T> the returned stream element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds to limit object retrieval
+   * @return Stream of mapped objects
+   * @since 3.5.5
+   * @see Cursor#stream()
+   */
+  default <T> Stream<T> selectStream(String statement, Object parameter, RowBounds rowBounds) {
+    return this.<T>selectCursor(statement, parameter, rowBounds).stream();
+  }
+
   /**
    * Retrieve a single row mapped from the statement key and parameter
    * using a {@code ResultHandler}.
@@ -268,6 +309,16 @@ public interface SqlSession extends Closeable {
    */
   void clearCache();
 
+  /**
+   * Retrieves the statistics of the local session cache.
+   *
+   * @return the local cache statistics, or null if not available
+   * @since 3.5.5
+   */
+  default LocalCacheStatistics getLocalCacheStatistics() {
+    return null;
+  }
+
   /**
    * Retrieves current configuration.
    * @return Configuration
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
+import org.apache.ibatis.cache.LocalCacheStatistics;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.reflection.ExceptionUtil;
@@ -279,6 +280,15 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     sqlSession.clearCache();
   }
 
+  @Override
+  public LocalCacheStatistics getLocalCacheStatistics() {
+    final SqlSession sqlSession = localSqlSession.get();
+    if (sqlSession == null) {
+      throw new SqlSessionException("Error:  Cannot get the cache statistics.  No managed session is started.");
+    }
+    return sqlSession.getLocalCacheStatistics();
+  }
+
   @Override
   public void commit() {
     final SqlSession sqlSession = localSqlSession.get();
@@ -0,0 +1,189 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+/**
+ * A binary large object that is streamed instead of being loaded on the heap.
+ * <p>
+ * When mapped from a result, it holds the {@link Blob} locator returned by the driver and opens a stream only when the
+ * content is read. Unlike a stream returned by {@link java.sql.ResultSet#getBinaryStream(int)}, the locator stays
+ * readable after the result set moves on or is closed, for as long as the driver keeps it (at least until the end of
+ * the transaction), so it can be used in nested result maps and cursors. Calling {@link #close()} releases it earlier.
+ * <p>
+ * When used as a parameter, the content is read from the given stream while the statement is executed.
+ *
+ * @since 3.5.5
+ * @see StreamingBlobTypeHandler
+ */
+public final class StreamingBlob implements Closeable {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Blob blob;
+  private final InputStream source;
+  private final long length;
+
+  private StreamingBlob(Blob blob, InputStream source, long length) {
+    this.blob = blob;
+    this.source = source;
+    this.length = length;
+  }
+
+  /**
+   * Wraps a blob returned by the driver.
+   *
+   * @param blob
+   *          the blob
+   * @return the streaming blob
+   */
+  public static StreamingBlob of(Blob blob) {
+    return new StreamingBlob(blob, null, -1);
+  }
+
+  /**
+   * Creates a parameter whose content is read from the given stream.
+   *
+   * @param source
+   *          the content
+   * @return the streaming blob
+   */
+  public static StreamingBlob of(InputStream source) {
+    return of(source, -1);
+  }
+
+  /**
+   * Creates a parameter whose content is read from the given stream.
+   *
+   * @param source
+   *          the content
+   * @param length
+   *          the number of bytes to read, or {@code -1} when unknown
+   * @return the streaming blob
+   */
+  public static StreamingBlob of(InputStream source, long length) {
+    return new StreamingBlob(null, source, length);
+  }
+
+  /**
+   * Returns the blob returned by the driver, or {@code null} when this instance was created from a stream.
+   *
+   * @return the blob
+   */
+  public Blob getBlob() {
+    return blob;
+  }
+
+  /**
+   * Returns the number of bytes, or {@code -1} when unknown.
+   *
+   * @return the length
+   * @throws SQLException
+   *           if the driver fails to read the length
+   */
+  public long length() throws SQLException {
+    return blob != null ? blob.length() : length;
+  }
+
+  /**
+   * Opens a stream on the content. A stream given as a parameter is returned as is and can only be read once.
+   *
+   * @return the stream
+   * @throws SQLException
+   *           if the driver fails to open the stream
+   */
+  public InputStream openStream() throws SQLException {
+    return blob != null ? blob.getBinaryStream() : source;
+  }
+
+  /**
+   * Copies the content to the given stream through a fixed size buffer.
+   *
+   * @param out
+   *          the destination
+   * @return the number of bytes copied
+   * @throws IOException
+   *           if reading or writing fails
+   * @throws SQLException
+   *           if the driver fails to open the stream
+   */
+  public long transferTo(OutputStream out) throws IOException, SQLException {
+    try (InputStream in = openStream()) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      long count = 0;
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+        count += n;
+      }
+      return count;
+    }
+  }
+
+  /**
+   * Copies the content to the given channel through a fixed size buffer.
+   *
+   * @param channel
+   *          the destination
+   * @return the number of bytes copied
+   * @throws IOException
+   *           if reading or writing fails
+   * @throws SQLException
+   *           if the driver fails to open the stream
+   */
+  public long transferTo(WritableByteChannel channel) throws IOException, SQLException {
+    try (InputStream in = openStream()) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+      long count = 0;
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        byteBuffer.clear();
+        byteBuffer.limit(n);
+        while (byteBuffer.hasRemaining()) {
+          channel.write(byteBuffer);
+        }
+        count += n;
+      }
+      return count;
+    }
+  }
+
+  /**
+   * Releases the blob held by this instance, or closes the stream given as a parameter.
+   */
+  @Override
+  public void close() throws IOException {
+    if (blob != null) {
+      try {
+        blob.free();
+      } catch (SQLException e) {
+        throw new IOException("Error freeing blob.  Cause: " + e, e);
+      }
+    } else if (source != null) {
+      source.close();
+    }
+  }
+
+}
@@ -0,0 +1,66 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The {@link TypeHandler} for {@link StreamingBlob}. Results keep the {@link Blob} locator and are read lazily;
+ * parameters are bound as streams.
+ *
+ * @since 3.5.5
+ */
+public class StreamingBlobTypeHandler extends BaseTypeHandler<StreamingBlob> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, StreamingBlob parameter, JdbcType jdbcType)
+      throws SQLException {
+    if (parameter.getBlob() != null) {
+      ps.setBlob(i, parameter.getBlob());
+    } else if (parameter.length() >= 0) {
+      ps.setBlob(i, parameter.openStream(), parameter.length());
+    } else {
+      ps.setBlob(i, parameter.openStream());
+    }
+  }
+
+  @Override
+  public StreamingBlob getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return toStreamingBlob(rs.getBlob(columnName));
+  }
+
+  @Override
+  public StreamingBlob getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return toStreamingBlob(rs.getBlob(columnIndex));
+  }
+
+  @Override
+  public StreamingBlob getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return toStreamingBlob(cs.getBlob(columnIndex));
+  }
+
+  private StreamingBlob toStreamingBlob(Blob blob) {
+    return blob == null ? null : StreamingBlob.of(blob);
+  }
+
+}
@@ -0,0 +1,157 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+/**
+ * A character large object that is streamed instead of being loaded on the heap.
+ * <p>
+ * When mapped from a result, it holds the {@link Clob} locator returned by the driver and opens a reader only when the
+ * content is read. The locator stays readable after the result set moves on or is closed, for as long as the driver
+ * keeps it (at least until the end of the transaction). Calling {@link #close()} releases it earlier.
+ * <p>
+ * When used as a parameter, the content is read from the given reader while the statement is executed.
+ *
+ * @since 3.5.5
+ * @see StreamingClobTypeHandler
+ */
+public final class StreamingClob implements Closeable {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Clob clob;
+  private final Reader source;
+  private final long length;
+
+  private StreamingClob(Clob clob, Reader source, long length) {
+    this.clob = clob;
+    this.source = source;
+    this.length = length;
+  }
+
+  /**
+   * Wraps a clob returned by the driver.
+   *
+   * @param clob
+   *          the clob
+   * @return the streaming clob
+   */
+  public static StreamingClob of(Clob clob) {
+    return new StreamingClob(clob, null, -1);
+  }
+
+  /**
+   * Creates a parameter whose content is read from the given reader.
+   *
+   * @param source
+   *          the content
+   * @return the streaming clob
+   */
+  public static StreamingClob of(Reader source) {
+    return of(source, -1);
+  }
+
+  /**
+   * Creates a parameter whose content is read from the given reader.
+   *
+   * @param source
+   *          the content
+   * @param length
+   *          the number of characters to read, or {@code -1} when unknown
+   * @return the streaming clob
+   */
+  public static StreamingClob of(Reader source, long length) {
+    return new StreamingClob(null, source, length);
+  }
+
+  /**
+   * Returns the clob returned by the driver, or {@code null} when this instance was created from a reader.
+   *
+   * @return the clob
+   */
+  public Clob getClob() {
+    return clob;
+  }
+
+  /**
+   * Returns the number of characters, or {@code -1} when unknown.
+   *
+   * @return the length
+   * @throws SQLException
+   *           if the driver fails to read the length
+   */
+  public long length() throws SQLException {
+    return clob != null ? clob.length() : length;
+  }
+
+  /**
+   * Opens a reader on the content. A reader given as a parameter is returned as is and can only be read once.
+   *
+   * @return the reader
+   * @throws SQLException
+   *           if the driver fails to open the reader
+   */
+  public Reader openReader() throws SQLException {
+    return clob != null ? clob.getCharacterStream() : source;
+  }
+
+  /**
+   * Copies the content to the given writer through a fixed size buffer.
+   *
+   * @param out
+   *          the destination
+   * @return the number of characters copied
+   * @throws IOException
+   *           if reading or writing fails
+   * @throws SQLException
+   *           if the driver fails to open the reader
+   */
+  public long transferTo(Writer out) throws IOException, SQLException {
+    try (Reader in = openReader()) {
+      char[] buffer = new char[BUFFER_SIZE];
+      long count = 0;
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+        count += n;
+      }
+      return count;
+    }
+  }
+
+  /**
+   * Releases the clob held by this instance, or closes the reader given as a parameter.
+   */
+  @Override
+  public void close() throws IOException {
+    if (clob != null) {
+      try {
+        clob.free();
+      } catch (SQLException e) {
+        throw new IOException("Error freeing clob.  Cause: " + e, e);
+      }
+    } else if (source != null) {
+      source.close();
+    }
+  }
+
+}
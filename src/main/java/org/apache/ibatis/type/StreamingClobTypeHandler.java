@@ -0,0 +1,66 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The {@link TypeHandler} for {@link StreamingClob}. Results keep the {@link Clob} locator and are read lazily;
+ * parameters are bound as readers.
+ *
+ * @since 3.5.5
+ */
+public class StreamingClobTypeHandler extends BaseTypeHandler<StreamingClob> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, StreamingClob parameter, JdbcType jdbcType)
+      throws SQLException {
+    if (parameter.getClob() != null) {
+      ps.setClob(i, parameter.getClob());
+    } else if (parameter.length() >= 0) {
+      ps.setClob(i, parameter.openReader(), parameter.length());
+    } else {
+      ps.setClob(i, parameter.openReader());
+    }
+  }
+
+  @Override
+  public StreamingClob getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return toStreamingClob(rs.getClob(columnName));
+  }
+
+  @Override
+  public StreamingClob getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return toStreamingClob(rs.getClob(columnIndex));
+  }
+
+  @Override
+  public StreamingClob getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return toStreamingClob(cs.getClob(columnIndex));
+  }
+
+  private StreamingClob toStreamingClob(Clob clob) {
+    return clob == null ? null : StreamingClob.of(clob);
+  }
+
+}
@@ -0,0 +1,106 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class AsyncMapperTest {
+
+  private static final AtomicInteger tasks = new AtomicInteger();
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setup() throws Exception {
+    DataSource dataSource = BaseDataTest.createBlogDataSource();
+    Environment environment = new Environment("Production", new JdbcTransactionFactory(), dataSource);
+    Configuration configuration = new Configuration(environment);
+    configuration.setMapUnderscoreToCamelCase(true);
+    configuration.setAsyncExecutor(command -> {
+      tasks.incrementAndGet();
+      ForkJoinPool.commonPool().execute(command);
+    });
+    configuration.addMapper(AsyncAuthorMapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @Test
+  void shouldSelectAsynchronously() throws Exception {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      AsyncAuthorMapper mapper = session.getMapper(AsyncAuthorMapper.class);
+      int tasksBefore = tasks.get();
+      CompletableFuture<Author> author = mapper.selectAuthor(101);
+      CompletableFuture<List<Author>> authors = mapper.selectAuthors();
+      CompletableFuture<Map<Integer, Author>> authorMap = mapper.selectAuthorMap();
+
+      assertEquals("jim", author.get().getUsername());
+      assertThat(authors.get()).extracting(Author::getId).containsExactly(101, 102);
+      assertThat(authorMap.get()).containsOnlyKeys(101, 102);
+      assertTrue(mapper.selectOptionalAuthor(102).get().isPresent());
+      assertTrue(!mapper.selectOptionalAuthor(-1).get().isPresent());
+      assertEquals(tasksBefore + 5, tasks.get());
+    }
+  }
+
+  @Test
+  void shouldCommitInItsOwnSession() throws Exception {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      AsyncAuthorMapper mapper = session.getMapper(AsyncAuthorMapper.class);
+      String bio = mapper.selectAuthor(102).get().getBio();
+      try {
+        assertEquals(1, mapper.updateBio(102, "async").get());
+        try (SqlSession other = sqlSessionFactory.openSession()) {
+          assertEquals("async", other.getMapper(AsyncAuthorMapper.class).selectAuthor(102).get().getBio());
+        }
+      } finally {
+        mapper.updateBio(102, bio).get();
+      }
+    }
+  }
+
+  @Test
+  void shouldCompleteExceptionally() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      AsyncAuthorMapper mapper = session.getMapper(AsyncAuthorMapper.class);
+      ExecutionException e = assertThrows(ExecutionException.class, () -> mapper.selectFromMissingTable().get());
+      assertThat(e.getCause()).isInstanceOf(PersistenceException.class);
+    }
+  }
+
+}
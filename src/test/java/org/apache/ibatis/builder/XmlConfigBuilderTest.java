@@ -91,11 +91,20 @@ class XmlConfigBuilderTest {
       assertThat(config.isMapUnderscoreToCamelCase()).isFalse();
       assertThat(config.isSafeRowBoundsEnabled()).isFalse();
       assertThat(config.getLocalCacheScope()).isEqualTo(LocalCacheScope.SESSION);
+      assertNull(config.getLocalCacheSize());
+      assertNull(config.getLocalCacheMaxBytes());
       assertThat(config.getJdbcTypeForNull()).isEqualTo(JdbcType.OTHER);
       assertThat(config.getLazyLoadTriggerMethods()).isEqualTo(new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString")));
       assertThat(config.isSafeResultHandlerEnabled()).isTrue();
       assertThat(config.getDefaultScriptingLanuageInstance()).isInstanceOf(XMLLanguageDriver.class);
       assertThat(config.isCallSettersOnNulls()).isFalse();
+      assertThat(config.isUseCompiledRowMappers()).isFalse();
+      assertThat(config.isUseCompactMapResults()).isFalse();
+      assertThat(config.isGroupBatchesBySql()).isFalse();
+      assertNull(config.getMaxBatchSize());
+      assertThat(config.isAdaptiveFetchSize()).isFalse();
+      assertThat(config.getMinAdaptiveFetchSize()).isEqualTo(10);
+      assertThat(config.getMaxAdaptiveFetchSize()).isEqualTo(1000);
       assertNull(config.getLogPrefix());
       assertNull(config.getLogImpl());
       assertNull(config.getConfigurationFactory());
@@ -16,6 +16,9 @@
 package org.apache.ibatis.builder.xml.dynamic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -23,6 +26,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -36,11 +40,13 @@ import org.apache.ibatis.scripting.xmltags.IfSqlNode;
 import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
 import org.apache.ibatis.scripting.xmltags.SetSqlNode;
 import org.apache.ibatis.scripting.xmltags.SqlNode;
+import org.apache.ibatis.scripting.xmltags.StaticTextSqlNode;
 import org.apache.ibatis.scripting.xmltags.TextSqlNode;
 import org.apache.ibatis.scripting.xmltags.WhereSqlNode;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.type.JdbcType;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -376,6 +382,94 @@ class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals("__frch_u_0", boundSql.getParameterMappings().get(3).getProperty());
   }
 
+  @Test
+  void shouldReuseParsedSqlForSameGeneratedSql() {
+    DynamicSqlSource source = new DynamicSqlSource(new Configuration(), mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG"),
+        new ForEachSqlNode(new Configuration(), mixedContents(new TextSqlNode("#{item}")), "list", null, "item",
+            "WHERE ID in (", ")", ",")));
+    Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("list", Arrays.asList(1, 2));
+    BoundSql first = source.getBoundSql(parameterObject);
+    parameterObject.put("list", Arrays.asList(3, 4));
+    BoundSql second = source.getBoundSql(parameterObject);
+    assertEquals("SELECT * FROM BLOG WHERE ID in (  ? , ? )", second.getSql());
+    assertSame(first.getParameterMappings().get(0), second.getParameterMappings().get(0));
+    assertNotSame(first.getParameterMappings(), second.getParameterMappings());
+    assertEquals(3, second.getAdditionalParameter("__frch_item_0"));
+    assertEquals(4, second.getAdditionalParameter("__frch_item_1"));
+
+    parameterObject.put("list", Arrays.asList(1, 2, 3));
+    assertEquals(3, source.getBoundSql(parameterObject).getParameterMappings().size());
+  }
+
+  @Test
+  void shouldReparseWhenBoundValueTypesChange() {
+    DynamicSqlSource source = new DynamicSqlSource(new Configuration(), mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG"),
+        new ForEachSqlNode(new Configuration(), mixedContents(new TextSqlNode("#{item}")), "list", null, "item",
+            "WHERE ID in (", ")", ",")));
+    Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("list", Arrays.asList(1, 2));
+    BoundSql first = source.getBoundSql(parameterObject);
+    assertEquals(Integer.class, first.getParameterMappings().get(0).getJavaType());
+    parameterObject.put("list", Arrays.asList("a", "b"));
+    BoundSql second = source.getBoundSql(parameterObject);
+    assertEquals(first.getSql(), second.getSql());
+    assertEquals(String.class, second.getParameterMappings().get(0).getJavaType());
+  }
+
+  @Test
+  void shouldRenderPlainItemPlaceholders() {
+    Configuration configuration = new Configuration();
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("INSERT INTO BLOG (ID, TITLE) VALUES"),
+        new ForEachSqlNode(configuration, mixedContents(new StaticTextSqlNode("(#{ item.id ,jdbcType=INTEGER}, 'x')")),
+            "list", "i", "item", null, null, ",")));
+    Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("list", Arrays.asList(new Bean("1"), new Bean("2")));
+    BoundSql boundSql = source.getBoundSql(parameterObject);
+    assertEquals("INSERT INTO BLOG (ID, TITLE) VALUES  (?, 'x') , (?, 'x')", boundSql.getSql());
+    assertEquals("__frch_item_0.id", boundSql.getParameterMappings().get(0).getProperty());
+    assertEquals(JdbcType.INTEGER, boundSql.getParameterMappings().get(0).getJdbcType());
+    assertEquals("__frch_item_1.id", boundSql.getParameterMappings().get(1).getProperty());
+    assertEquals("2", boundSql.getAdditionalParameter("__frch_item_1.id"));
+    assertFalse(boundSql.hasAdditionalParameter("item"));
+  }
+
+  @Test
+  void shouldRenderPlainItemPlaceholdersForMapValues() {
+    Configuration configuration = new Configuration();
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(configuration, mixedContents(new StaticTextSqlNode("#{value}")),
+            "map", "key", "value", "(", ")", ",")));
+    Map<String, Integer> map = new LinkedHashMap<>();
+    map.put("a", 1);
+    map.put("b", 2);
+    Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("map", map);
+    BoundSql boundSql = source.getBoundSql(parameterObject);
+    assertEquals("SELECT * FROM BLOG WHERE ID in (  ? , ? )", boundSql.getSql());
+    assertEquals(1, boundSql.getAdditionalParameter("__frch_value_0"));
+    assertEquals(2, boundSql.getAdditionalParameter("__frch_value_1"));
+  }
+
+  @Test
+  void shouldNotTreatLongerNameAsPlainItem() {
+    Configuration configuration = new Configuration();
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(configuration, mixedContents(new StaticTextSqlNode("#{items}")),
+            "list", null, "item", "(", ")", ",")));
+    Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("list", Arrays.asList(1, 2));
+    parameterObject.put("items", 3);
+    BoundSql boundSql = source.getBoundSql(parameterObject);
+    assertEquals("items", boundSql.getParameterMappings().get(0).getProperty());
+    assertEquals("items", boundSql.getParameterMappings().get(1).getProperty());
+  }
+
   private DynamicSqlSource createDynamicSqlSource(SqlNode... contents) throws IOException, SQLException {
     createBlogDataSource();
     final String resource = "org/apache/ibatis/builder/MapperConfig.xml";
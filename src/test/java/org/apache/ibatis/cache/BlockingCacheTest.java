@@ -0,0 +1,107 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BlockingCacheTest {
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldWaitUntilMissedItemIsPut() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject(0));
+    Future<Object> reader = executor.submit(() -> cache.getObject(0));
+    Thread.sleep(100);
+    assertFalse(reader.isDone());
+    cache.putObject(0, "zero");
+    assertEquals("zero", reader.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldLetWaitingThreadLoadItemWhenLockIsReleased() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject(0));
+    Future<Object> reader = executor.submit(() -> {
+      Object value = cache.getObject(0);
+      cache.putObject(0, "loaded");
+      return value;
+    });
+    Thread.sleep(100);
+    assertFalse(reader.isDone());
+    cache.removeObject(0);
+    assertNull(reader.get(10, TimeUnit.SECONDS));
+    assertEquals("loaded", cache.getObject(0));
+  }
+
+  @Test
+  void shouldNotBlockThreadHoldingTheLock() {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setTimeout(100);
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(0));
+    cache.putObject(0, "zero");
+    assertEquals("zero", cache.getObject(0));
+  }
+
+  @Test
+  void shouldNotReleaseLockHeldByAnotherThread() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setTimeout(100);
+    assertNull(cache.getObject(0));
+    executor.submit(() -> cache.removeObject(0)).get();
+    Future<Object> reader = executor.submit(() -> cache.getObject(0));
+    ExecutionException e = assertThrows(ExecutionException.class, () -> reader.get(10, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof CacheException);
+    cache.removeObject(0);
+  }
+
+  @Test
+  void shouldFailAfterTimeout() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setTimeout(100);
+    assertNull(cache.getObject(0));
+    Future<Object> reader = executor.submit(() -> cache.getObject(0));
+    ExecutionException e = assertThrows(ExecutionException.class, () -> reader.get(10, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof CacheException);
+    cache.removeObject(0);
+    assertNull(executor.submit(() -> cache.getObject(0)).get(10, TimeUnit.SECONDS));
+  }
+
+}
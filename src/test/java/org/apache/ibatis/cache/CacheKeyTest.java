@@ -87,6 +87,29 @@ class CacheKeyTest {
     assertEquals(key1, key2);
   }
 
+  @Test
+  void shouldTestCacheKeysGrownBeyondExpectedUpdateCount() throws Exception {
+    CacheKey key1 = new CacheKey(1);
+    CacheKey key2 = new CacheKey(new Object[] { "a", "b", "c", "d", "e", "f", "g", "h", "i", "j" });
+    for (Object o : new Object[] { "a", "b", "c", "d", "e", "f", "g", "h", "i", "j" }) {
+      key1.update(o);
+    }
+    assertEquals(10, key1.getUpdateCount());
+    assertEquals(key1, key2);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertEquals(key1.toString(), key2.toString());
+  }
+
+  @Test
+  void shouldNotShareUpdatesWithClone() throws Exception {
+    CacheKey key1 = new CacheKey(new Object[] { 1, "hello" });
+    CacheKey key2 = key1.clone();
+    key2.update(null);
+    assertNotEquals(key1, key2);
+    assertEquals(2, key1.getUpdateCount());
+    assertEquals(3, key2.getUpdateCount());
+  }
+
   @Test
   void serializationExceptionTest() {
     CacheKey cacheKey = new CacheKey();
@@ -103,6 +126,17 @@ class CacheKeyTest {
     Assertions.assertEquals(cacheKey, serialize(cacheKey));
   }
 
+  @Test
+  void shouldUpdateDeserializedCacheKey() throws Exception {
+    CacheKey cacheKey = new CacheKey();
+    cacheKey.update("serializable");
+    CacheKey deserialized = serialize(cacheKey);
+    cacheKey.update(1);
+    deserialized.update(1);
+    Assertions.assertEquals(cacheKey, deserialized);
+    Assertions.assertEquals(cacheKey.toString(), deserialized.toString());
+  }
+
   private static <T> T serialize(T object) throws Exception {
       ByteArrayOutputStream baos = new ByteArrayOutputStream();
       new ObjectOutputStream(baos).writeObject(object);
@@ -0,0 +1,119 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cache.impl.LocalCache;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+
+class LocalCacheTest {
+
+  @Test
+  void shouldKeepAllEntriesWhenUnbounded() {
+    LocalCache cache = new LocalCache("default");
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(0, cache.evict());
+    assertEquals(1000, cache.getSize());
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedEntries() {
+    LocalCache cache = new LocalCache("default", 2, null);
+    cache.putObject("a", "a");
+    cache.putObject("b", "b");
+    cache.putObject("c", "c");
+    // not evicted until requested
+    assertEquals(3, cache.getSize());
+    assertEquals("a", cache.getObject("a"));
+    assertEquals(1, cache.evict());
+    assertEquals(2, cache.getSize());
+    assertNotNull(cache.getObject("a"));
+    assertNull(cache.getObject("b"));
+    assertNotNull(cache.getObject("c"));
+    assertEquals(1, cache.getEvictions());
+  }
+
+  @Test
+  void shouldEvictByEstimatedSize() {
+    LocalCache cache = new LocalCache("default", null, 1000L);
+    cache.putObject("a", new byte[400]);
+    cache.putObject("b", new byte[400]);
+    assertEquals(832, cache.getEstimatedBytes());
+    cache.putObject("c", new byte[400]);
+    assertEquals(1, cache.evict());
+    assertNull(cache.getObject("a"));
+    assertEquals(832, cache.getEstimatedBytes());
+    cache.removeObject("b");
+    assertEquals(416, cache.getEstimatedBytes());
+    cache.clear();
+    assertEquals(0, cache.getEstimatedBytes());
+  }
+
+  @Test
+  void shouldNotifyEvictedKeys() {
+    LocalCache cache = new LocalCache("default", 1, null);
+    cache.putObject("a", "a");
+    cache.putObject("b", "b");
+    cache.putObject("c", "c");
+    List<Object> evictedKeys = new ArrayList<>();
+    assertEquals(2, cache.evict(evictedKeys::add));
+    assertEquals(Arrays.asList("a", "b"), evictedKeys);
+    assertEquals(2, cache.getEvictions());
+  }
+
+  @Test
+  void shouldReportStatisticsThroughSession() throws Exception {
+    Environment environment = new Environment("test", new JdbcTransactionFactory(), BaseDataTest.createBlogDataSource());
+    Configuration configuration = new Configuration(environment);
+    configuration.setLocalCacheSize(2);
+    configuration.addMapper(Mapper.class);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int id : Arrays.asList(101, 101, 102, 103, 101)) {
+        mapper.selectAuthorIds(id);
+      }
+      LocalCacheStatistics statistics = sqlSession.getLocalCacheStatistics();
+      assertEquals(1, statistics.getHits());
+      assertEquals(4, statistics.getMisses());
+      assertEquals(2, statistics.getEvictions());
+      assertEquals(2, statistics.getSize());
+      sqlSession.clearCache();
+      assertEquals(0, sqlSession.getLocalCacheStatistics().getSize());
+    }
+  }
+
+  interface Mapper {
+    @Select("select id from author where id = #{id}")
+    List<Integer> selectAuthorIds(int id);
+  }
+
+}
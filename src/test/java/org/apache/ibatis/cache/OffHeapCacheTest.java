@@ -0,0 +1,139 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.apache.ibatis.cache.impl.ReflectorCacheCodec;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Blog;
+import org.apache.ibatis.domain.blog.Post;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class OffHeapCacheTest {
+
+  @Test
+  void shouldReturnCopiesOfMappedBeans() {
+    OffHeapCache cache = new OffHeapCache("default");
+    Author author = new Author(101, "jim", "********", "jim@ibatis.apache.org", "", Section.NEWS);
+    Blog blog = new Blog(1, "Jim Business", author, new ArrayList<>());
+    for (int i = 0; i < 3; i++) {
+      Post post = new Post();
+      post.setId(i);
+      post.setBlog(blog);
+      post.setAuthor(author);
+      post.setSection(Section.VIDEOS);
+      post.setCreatedOn(new Date(1000L * i));
+      post.setSubject("subject " + i);
+      blog.getPosts().add(post);
+    }
+    cache.putObject("blogs", new ArrayList<>(Arrays.asList(blog)));
+
+    @SuppressWarnings("unchecked")
+    List<Blog> blogs = (List<Blog>) cache.getObject("blogs");
+    Blog copy = blogs.get(0);
+    assertNotSame(blog, copy);
+    assertEquals("Jim Business", copy.getTitle());
+    assertEquals(author, copy.getAuthor());
+    assertEquals(3, copy.getPosts().size());
+    Post post = copy.getPosts().get(2);
+    assertEquals("subject 2", post.getSubject());
+    assertEquals(new Date(2000L), post.getCreatedOn());
+    assertEquals(Section.VIDEOS, post.getSection());
+    assertNull(post.getBody());
+    // shared references are kept
+    assertSame(copy, post.getBlog());
+    assertSame(copy.getAuthor(), post.getAuthor());
+    assertNotSame(copy, cache.getObject("blogs"));
+  }
+
+  @Test
+  void shouldFallBackToSerialization() {
+    OffHeapCache cache = new OffHeapCache("default");
+    LinkedList<Object> list = new LinkedList<>(Arrays.asList(LocalDate.of(2020, 1, 1), new BigDecimal("1.50"), null));
+    cache.putObject(1, list);
+    assertEquals(list, cache.getObject(1));
+    assertThrows(CacheException.class, () -> cache.putObject(2, new Object[] { new Object() }));
+  }
+
+  @Test
+  void shouldEvictOldestSlab() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSlabSize(1000);
+    cache.setMaxBytes(3000);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, new byte[100]);
+    }
+    assertTrue(cache.getUsedBytes() <= 3000);
+    assertTrue(cache.getSize() < 100);
+    assertEquals(100 - cache.getSize(), cache.getEvictions());
+    assertNull(cache.getObject(0));
+    assertArrayEquals(new byte[100], (byte[]) cache.getObject(99));
+  }
+
+  @Test
+  void shouldNotCacheValuesLargerThanSlab() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSlabSize(1000);
+    cache.putObject(1, "small");
+    cache.putObject(1, new byte[1000]);
+    assertNull(cache.getObject(1));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldRemoveAndClear() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject(1, "one");
+    cache.putObject(2, "two");
+    cache.removeObject(1);
+    assertNull(cache.getObject(1));
+    assertEquals("two", cache.getObject(2));
+    assertEquals(1, cache.getSize());
+    cache.clear();
+    assertNull(cache.getObject(2));
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getUsedBytes());
+    cache.putObject(3, "three");
+    assertEquals("three", cache.getObject(3));
+  }
+
+  @Test
+  void shouldBeConfiguredWithCacheProperties() {
+    Properties properties = new Properties();
+    properties.setProperty("slabSize", "100");
+    properties.setProperty("maxBytes", "1000");
+    properties.setProperty("codecType", ReflectorCacheCodec.class.getName());
+    Cache cache = new CacheBuilder("default").implementation(OffHeapCache.class).properties(properties).build();
+    cache.putObject(1, "one");
+    cache.putObject(2, new byte[100]);
+    assertEquals("one", cache.getObject(1));
+    assertNull(cache.getObject(2));
+  }
+
+}
@@ -0,0 +1,240 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+class TinyLfuCacheTest {
+
+  @Test
+  void shouldNotGrowBeyondSize() {
+    TinyLfuCache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.setSize(10);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(10, cache.getSize());
+    assertEquals(99, cache.getObject(99));
+  }
+
+  @Test
+  void shouldKeepFrequentlyUsedItem() {
+    TinyLfuCache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.setSize(10);
+    cache.putObject(0, 0);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(0, cache.getObject(0));
+    }
+    for (int i = 1; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(0, cache.getObject(0));
+    assertEquals(10, cache.getSize());
+  }
+
+  @Test
+  void shouldNotGrowBeyondMaxBytes() {
+    TinyLfuCache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.setMaxBytes(1000);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, new byte[100]);
+    }
+    assertTrue(cache.getSize() <= 1000 / 116);
+    // an item missed repeatedly is eventually admitted
+    for (int i = 0; i < 5 && cache.getObject(100) == null; i++) {
+      cache.putObject(100, new byte[100]);
+    }
+    assertNotNull(cache.getObject(100));
+    assertTrue(cache.getSize() <= 1000 / 116);
+    cache.putObject(100, new byte[2000]);
+    assertNull(cache.getObject(100));
+  }
+
+  @Test
+  void shouldReplaceItem() {
+    Cache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.putObject(0, 0);
+    cache.putObject(0, 1);
+    assertEquals(1, cache.getObject(0));
+    assertEquals(1, cache.getSize());
+    cache.putObject(0, null);
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldRemoveItemOnDemand() {
+    Cache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    assertEquals(0, cache.removeObject(0));
+    assertNull(cache.getObject(0));
+  }
+
+  @Test
+  void shouldFlushAllItemsOnDemand() {
+    Cache cache = new TinyLfuCache(new PerpetualCache("default"));
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldHaveBetterHitRatioThanLruOnZipfianTrace() {
+    int[] trace = zipfianTrace(10000, 200000, 42);
+    double lru = hitRatio(newLruCache(500), trace);
+    double tinyLfu = hitRatio(newTinyLfuCache(500), trace);
+    assertTrue(tinyLfu > lru, "TinyLFU " + tinyLfu + " LRU " + lru);
+  }
+
+  @Test
+  void shouldStayBoundedUnderConcurrentAccess() throws Exception {
+    TinyLfuCache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.setSize(100);
+    int[] trace = zipfianTrace(1000, 20000, 7);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(executor.submit(() -> {
+          for (int key : trace) {
+            Object value = cache.getObject(key);
+            if (value == null) {
+              cache.putObject(key, key);
+            } else {
+              assertEquals(key, value);
+            }
+            if (key % 97 == 0) {
+              cache.removeObject(key);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertTrue(cache.getSize() <= 100);
+  }
+
+  @Disabled("Benchmark, run manually")
+  @Test
+  void compareWithLru() throws Exception {
+    int[] trace = zipfianTrace(100000, 2000000, 42);
+    for (int size : new int[] { 1000, 5000, 20000 }) {
+      System.out.println("size " + size + ": LRU hit ratio " + hitRatio(newLruCache(size), trace)
+          + ", TinyLFU hit ratio " + hitRatio(newTinyLfuCache(size), trace));
+    }
+    for (int round = 0; round < 3; round++) {
+      System.out.println("LRU: " + measureThroughput(new SynchronizedCache(newLruCache(5000)), trace) + " ops/s");
+      System.out.println("TinyLFU: " + measureThroughput(newTinyLfuCache(5000), trace) + " ops/s");
+    }
+  }
+
+  private static Cache newLruCache(int size) {
+    LruCache cache = new LruCache(new PerpetualCache("default"));
+    cache.setSize(size);
+    return cache;
+  }
+
+  private static Cache newTinyLfuCache(int size) {
+    TinyLfuCache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.setSize(size);
+    return cache;
+  }
+
+  private static double hitRatio(Cache cache, int[] trace) {
+    int hits = 0;
+    for (int key : trace) {
+      if (cache.getObject(key) != null) {
+        hits++;
+      } else {
+        cache.putObject(key, key);
+      }
+    }
+    return (double) hits / trace.length;
+  }
+
+  private static long measureThroughput(Cache cache, int[] trace) throws Exception {
+    int threads = 8;
+    long duration = 3000;
+    LongAdder operations = new LongAdder();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      long end = System.currentTimeMillis() + duration;
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int offset = t * (trace.length / threads);
+        futures.add(executor.submit(() -> {
+          for (int i = offset; System.currentTimeMillis() < end; i = (i + 1) % trace.length) {
+            Integer key = trace[i];
+            if (cache.getObject(key) == null) {
+              cache.putObject(key, key);
+            }
+            operations.increment();
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      return operations.sum() * 1000 / duration;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static int[] zipfianTrace(int keys, int length, long seed) {
+    double[] cumulative = new double[keys];
+    double sum = 0;
+    for (int i = 0; i < keys; i++) {
+      sum += 1 / Math.pow(i + 1, 0.99);
+      cumulative[i] = sum;
+    }
+    Random random = new Random(seed);
+    int[] trace = new int[length];
+    for (int i = 0; i < length; i++) {
+      int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+      trace[i] = index < 0 ? -index - 1 : index;
+    }
+    return trace;
+  }
+
+}
@@ -20,21 +20,26 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javassist.util.proxy.Proxy;
 
 import javax.sql.DataSource;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
 import org.apache.ibatis.domain.blog.Post;
 import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
@@ -461,6 +466,50 @@ class BaseExecutorTest extends BaseDataTest {
     }
   }
 
+  @Test
+  void shouldNotCreateCacheKeyWhenLocalCacheIsStatementScoped() throws Exception {
+    config.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    AtomicInteger cacheKeys = new AtomicInteger();
+    Executor executor = new CachingExecutor(new SimpleExecutor(config, new JdbcTransaction(ds, null, false)) {
+      @Override
+      public CacheKey createCacheKey(MappedStatement ms, Object parameterObject, RowBounds rowBounds, BoundSql boundSql) {
+        cacheKeys.incrementAndGet();
+        return super.createCacheKey(ms, parameterObject, rowBounds, boundSql);
+      }
+    });
+    try {
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+      assertEquals(2, executor.query(selectStatement, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER).size());
+      assertEquals(2, executor.query(selectStatement, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER).size());
+      assertEquals(0, cacheKeys.get());
+
+      config.setLocalCacheScope(LocalCacheScope.SESSION);
+      assertEquals(2, executor.query(selectStatement, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER).size());
+      assertEquals(1, cacheKeys.get());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  void shouldEvictOutputParametersTogetherWithTheirResults() throws Exception {
+    config.setLocalCacheSize(1);
+    SimpleExecutor executor = new SimpleExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      CacheKey callableKey = new CacheKey(new Object[] { "callable" });
+      executor.localCache.putObject(callableKey, new ArrayList<>());
+      executor.localOutputParameterCache.putObject(callableKey, new HashMap<>());
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+      assertEquals(2, executor.query(selectStatement, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER).size());
+      assertNull(executor.localCache.getObject(callableKey));
+      assertNull(executor.localOutputParameterCache.getObject(callableKey));
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
   protected Executor createExecutor(Transaction transaction) {
     return new SimpleExecutor(config, transaction);
   }
@@ -0,0 +1,87 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CompactRowMapTest {
+
+  private final CompactRowMap.Keys keys = new CompactRowMap.Keys(Arrays.asList("a", "b", "a", "c"));
+
+  @Test
+  void shouldShareKeysAndKeepNullValues() {
+    assertEquals(3, keys.size());
+    CompactRowMap map = new CompactRowMap(keys);
+    map.put("b", null);
+    assertTrue(map.containsKey("b"));
+    assertFalse(map.containsKey("a"));
+    assertTrue(map.containsValue(null));
+    assertEquals(1, map.size());
+    assertNull(map.get("missing"));
+    assertNull(map.remove("missing"));
+  }
+
+  @Test
+  void shouldRemoveThroughIterator() {
+    CompactRowMap map = new CompactRowMap(keys);
+    map.put("a", 1);
+    map.put("c", 3);
+    map.put("d", 4);
+    Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+    assertEquals("a", iterator.next().getKey());
+    Map.Entry<String, Object> entry = iterator.next();
+    assertEquals("c", entry.getKey());
+    assertTrue(iterator.hasNext());
+    iterator.remove();
+    assertEquals("d", iterator.next().getKey());
+    iterator.remove();
+    assertFalse(iterator.hasNext());
+    assertThrows(IllegalStateException.class, iterator::remove);
+    assertEquals(1, map.size());
+    assertEquals(1, map.get("a"));
+  }
+
+  @Test
+  void shouldFailFastOnConcurrentModification() {
+    CompactRowMap map = new CompactRowMap(keys);
+    map.put("a", 1);
+    map.put("b", 2);
+    Iterator<String> iterator = map.keySet().iterator();
+    iterator.next();
+    map.put("c", 3);
+    assertThrows(ConcurrentModificationException.class, iterator::next);
+  }
+
+  @Test
+  void shouldWriteEntryValuesThrough() {
+    CompactRowMap map = new CompactRowMap(keys);
+    map.put("a", 1);
+    map.entrySet().iterator().next().setValue(2);
+    assertEquals(2, map.get("a"));
+  }
+
+}
@@ -0,0 +1,81 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class NestedResultObjectsTest {
+
+  @Test
+  void shouldScopeRowsByParent() {
+    NestedResultObjects objects = new NestedResultObjects();
+    Object scope = new Object();
+    NestedResultObjects.Row parent1 = objects.getRow(objects.getRoot(), scope, 1L);
+    NestedResultObjects.Row parent2 = objects.getRow(objects.getRoot(), scope, 2L);
+    assertNotSame(parent1, parent2);
+    assertSame(parent1, objects.getRow(objects.getRoot(), scope, 1L));
+
+    Object childScope = new Object();
+    NestedResultObjects.Row child = objects.getRow(parent1, childScope, 10L);
+    assertSame(child, objects.getRow(parent1, childScope, 10L));
+    assertNotSame(child, objects.getRow(parent2, childScope, 10L));
+    assertNotSame(child, objects.getRow(parent1, new Object(), 10L));
+  }
+
+  @Test
+  void shouldKeepLongAndObjectKeysApart() {
+    NestedResultObjects objects = new NestedResultObjects();
+    Object scope = new Object();
+    NestedResultObjects.Row longRow = objects.getRow(objects.getRoot(), scope, 1L);
+    NestedResultObjects.Row objectRow = objects.getRow(objects.getRoot(), scope, "1");
+    NestedResultObjects.Row nullRow = objects.getRow(objects.getRoot(), scope, null);
+    assertNotSame(longRow, objectRow);
+    assertNotSame(objectRow, nullRow);
+    assertSame(nullRow, objects.getRow(objects.getRoot(), scope, null));
+  }
+
+  @Test
+  void shouldReleaseRowsOnClear() {
+    NestedResultObjects objects = new NestedResultObjects();
+    Object scope = new Object();
+    NestedResultObjects.Row row = objects.getRow(objects.getRoot(), scope, 1L);
+    row.value = "value";
+    objects.clear();
+    assertNull(objects.getRow(objects.getRoot(), scope, 1L).value);
+  }
+
+  @Test
+  void shouldGrowLongRowMap() {
+    NestedResultObjects.LongRowMap map = new NestedResultObjects.LongRowMap();
+    NestedResultObjects.Row[] rows = new NestedResultObjects.Row[10000];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = map.getOrCreate(i * 31L - 5000L);
+    }
+    assertEquals(rows.length, map.size());
+    for (int i = 0; i < rows.length; i++) {
+      assertSame(rows[i], map.get(i * 31L - 5000L));
+      assertSame(rows[i], map.getOrCreate(i * 31L - 5000L));
+    }
+    assertEquals(rows.length, map.size());
+    assertNull(map.get(Long.MIN_VALUE));
+  }
+
+}
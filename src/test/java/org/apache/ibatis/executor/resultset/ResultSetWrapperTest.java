@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.ObjectTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.junit.jupiter.api.Test;
+
+class ResultSetWrapperTest {
+
+  @Test
+  void shouldBindUnknownTypeHandlerOncePerColumn() throws SQLException {
+    Configuration configuration = new Configuration();
+    ResultSetWrapper rsw = new ResultSetWrapper(mockResultSet(), configuration);
+    TypeHandler<Object> unknownTypeHandler = configuration.getTypeHandlerRegistry().getUnknownTypeHandler();
+
+    TypeHandler<?> idHandler = rsw.getTypeHandler(unknownTypeHandler, "ID");
+    assertEquals(IntegerTypeHandler.class, idHandler.getClass());
+    assertSame(idHandler, rsw.getTypeHandler(unknownTypeHandler, "ID"));
+    assertEquals(StringTypeHandler.class, rsw.getTypeHandler(unknownTypeHandler, "NAME").getClass());
+    assertEquals(StringTypeHandler.class, rsw.getTypeHandler(unknownTypeHandler, 2).getClass());
+    assertEquals(ObjectTypeHandler.class, rsw.getTypeHandler(unknownTypeHandler, "MISSING").getClass());
+  }
+
+  @Test
+  void shouldKeepOtherTypeHandlers() throws SQLException {
+    ResultSetWrapper rsw = new ResultSetWrapper(mockResultSet(), new Configuration());
+    TypeHandler<String> typeHandler = new StringTypeHandler();
+    assertSame(typeHandler, rsw.getTypeHandler(typeHandler, "ID"));
+    assertSame(typeHandler, rsw.getTypeHandler(typeHandler, 1));
+  }
+
+  private ResultSet mockResultSet() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rsmd.getColumnCount()).thenReturn(2);
+    when(rsmd.getColumnLabel(1)).thenReturn("ID");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getName());
+    when(rsmd.getColumnLabel(2)).thenReturn("NAME");
+    when(rsmd.getColumnType(2)).thenReturn(Types.VARCHAR);
+    when(rsmd.getColumnClassName(2)).thenReturn(String.class.getName());
+    return rs;
+  }
+
+}
@@ -145,4 +145,40 @@ class BaseStatementHandlerTest {
         verify(statement).setQueryTimeout(10);
     }
 
+    @Test
+    void specifyDefaultFetchSizeBeforeAdaptiveFetchSizeIsLearned() throws SQLException {
+        doReturn(true).when(configuration).isAdaptiveFetchSize();
+        doReturn(50).when(configuration).getDefaultFetchSize();
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(50); // apply a default fetch size
+    }
+
+    @Test
+    void specifyAdaptiveFetchSize() throws SQLException {
+        doReturn(true).when(configuration).isAdaptiveFetchSize();
+        MappedStatement mappedStatement = mappedStatementBuilder.build();
+        mappedStatement.getFetchSizeStatistics().record(100);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(101); // apply a learned fetch size
+    }
+
+    @Test
+    void specifyMappedStatementFetchSizeAndAdaptiveFetchSize() throws SQLException {
+        doReturn(true).when(configuration).isAdaptiveFetchSize();
+        mappedStatementBuilder.fetchSize(30);
+        MappedStatement mappedStatement = mappedStatementBuilder.build();
+        mappedStatement.getFetchSizeStatistics().record(100);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(30); // apply a mapped statement fetch size
+    }
+
 }
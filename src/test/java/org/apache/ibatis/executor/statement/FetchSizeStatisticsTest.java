@@ -0,0 +1,119 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+
+class FetchSizeStatisticsTest {
+
+  @Test
+  void shouldNotSuggestFetchSizeBeforeFirstExecution() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    assertNull(statistics.getFetchSize(10, 1000));
+    assertEquals(0, statistics.getExecutions());
+  }
+
+  @Test
+  void shouldSuggestFetchSizeWithinBounds() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    statistics.record(3);
+    assertEquals(10, statistics.getFetchSize(10, 1000));
+    statistics.reset();
+    statistics.record(1000000);
+    assertEquals(1000, statistics.getFetchSize(10, 1000));
+    statistics.reset();
+    statistics.record(200);
+    assertEquals(201, statistics.getFetchSize(10, 1000));
+  }
+
+  @Test
+  void shouldCoverHighPercentileOfRecentExecutions() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    for (int i = 0; i < 9; i++) {
+      statistics.record(10);
+    }
+    statistics.record(500);
+    assertEquals(10, statistics.getExecutions());
+    assertEquals(10, statistics.getPercentileRows());
+    statistics.record(500);
+    assertEquals(500, statistics.getPercentileRows());
+    assertEquals(501, statistics.getFetchSize(1, 1000));
+  }
+
+  @Test
+  void shouldSmoothAverage() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    statistics.record(100);
+    assertEquals(100.0, statistics.getAverageRows());
+    statistics.record(200);
+    assertEquals(120.0, statistics.getAverageRows(), 0.0001);
+  }
+
+  @Test
+  void shouldForgetOldExecutions() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    statistics.record(5000);
+    for (int i = 0; i < 32; i++) {
+      statistics.record(10);
+    }
+    assertEquals(10, statistics.getPercentileRows());
+  }
+
+  @Test
+  void shouldUsePinnedFetchSize() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    statistics.pin(5);
+    assertEquals(5, statistics.getFetchSize(10, 1000));
+    statistics.record(200);
+    assertEquals(5, statistics.getFetchSize(10, 1000));
+    statistics.pin(null);
+    assertEquals(201, statistics.getFetchSize(10, 1000));
+  }
+
+  @Test
+  void shouldRecordRowsReturnedByQueries() throws Exception {
+    Environment environment = new Environment("test", new JdbcTransactionFactory(), BaseDataTest.createBlogDataSource());
+    Configuration configuration = new Configuration(environment);
+    configuration.setAdaptiveFetchSize(true);
+    configuration.addMapper(Mapper.class);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Integer> ids = sqlSession.getMapper(Mapper.class).selectAuthorIds();
+      FetchSizeStatistics statistics = configuration.getMappedStatement(Mapper.class.getName() + ".selectAuthorIds")
+          .getFetchSizeStatistics();
+      assertEquals(1, statistics.getExecutions());
+      assertEquals(ids.size(), statistics.getPercentileRows());
+    }
+  }
+
+  interface Mapper {
+    @Select("select id from author")
+    List<Integer> selectAuthorIds();
+  }
+
+}
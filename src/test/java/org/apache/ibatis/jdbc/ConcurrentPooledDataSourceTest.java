@@ -0,0 +1,290 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.jdbc;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.pooled.ConcurrentPooledDataSource;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentPooledDataSourceTest extends BaseDataTest {
+
+  @Test
+  void shouldProperlyMaintainPoolOf3ActiveAnd2IdleConnections() throws Exception {
+    PooledDataSource ds = createConcurrentPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      ds.setDefaultAutoCommit(false);
+      ds.setDriverProperties(new Properties() {
+        {
+          setProperty("username", "sa");
+          setProperty("password", "");
+        }
+      });
+      ds.setPoolMaximumActiveConnections(3);
+      ds.setPoolMaximumIdleConnections(2);
+      ds.setPoolMaximumCheckoutTime(10000);
+      ds.setPoolPingConnectionsNotUsedFor(1);
+      ds.setPoolPingEnabled(true);
+      ds.setPoolPingQuery("SELECT * FROM PRODUCT");
+      ds.setPoolTimeToWait(10000);
+      ds.setLogWriter(null);
+      List<Connection> connections = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        connections.add(ds.getConnection());
+      }
+      assertEquals(3, ds.getPoolState().getActiveConnectionCount());
+      for (Connection c : connections) {
+        c.close();
+      }
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(4, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+      assertEquals(0, ds.getPoolState().getHadToWaitCount());
+      assertEquals(0, ds.getPoolState().getAverageOverdueCheckoutTime());
+      assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
+      assertEquals(0, ds.getPoolState().getAverageWaitTime());
+      assertNotNull(ds.getPoolState().toString());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldKeepCachedStatementsOfReturnedConnections() throws Exception {
+    PooledDataSource ds = createConcurrentPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolPreparedStatementCacheSize(10);
+      for (int i = 0; i < 3; i++) {
+        try (Connection c = ds.getConnection(); PreparedStatement st = c.prepareStatement("SELECT 1 FROM (VALUES(0))")) {
+          st.executeQuery().close();
+        }
+      }
+      assertEquals(2, ds.getPoolState().getStatementCacheHitCount());
+      assertEquals(1, ds.getPoolState().getStatementCacheMissCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldReuseConnectionLastReturnedByTheSameThread() throws Exception {
+    PooledDataSource ds = createConcurrentPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      Connection c1 = ds.getConnection();
+      Connection c2 = ds.getConnection();
+      Connection real2 = PooledDataSource.unwrapConnection(c2);
+      c1.close();
+      c2.close();
+      Connection c3 = ds.getConnection();
+      assertSame(real2, PooledDataSource.unwrapConnection(c3));
+      c3.close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldHandOffReturnedConnectionToWaitingThread() throws Exception {
+    PooledDataSource ds = createConcurrentPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolTimeToWait(20000);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Connection c1 = ds.getConnection();
+      Connection real = PooledDataSource.unwrapConnection(c1);
+      Future<Connection> waiter = executor.submit(() -> {
+        try (Connection c2 = ds.getConnection()) {
+          return PooledDataSource.unwrapConnection(c2);
+        }
+      });
+      while (ds.getPoolState().getHadToWaitCount() == 0) {
+        Thread.sleep(10);
+      }
+      c1.close();
+      assertSame(real, waiter.get(10, TimeUnit.SECONDS));
+      assertEquals(1, ds.getPoolState().getHadToWaitCount());
+      assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldHandOffReturnedConnectionBeforeReturningThreadCanReuseIt() throws Exception {
+    PooledDataSource ds = createConcurrentPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolTimeToWait(20000);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    List<String> borrowers = Collections.synchronizedList(new ArrayList<>());
+    try {
+      Connection c1 = ds.getConnection();
+      Future<?> waiter = executor.submit(() -> {
+        try (Connection c2 = ds.getConnection()) {
+          borrowers.add("waiter");
+          Thread.sleep(50);
+        }
+        return null;
+      });
+      while (ds.getPoolState().getHadToWaitCount() == 0) {
+        Thread.sleep(10);
+      }
+      c1.close();
+      try (Connection c3 = ds.getConnection()) {
+        borrowers.add("returning thread");
+      }
+      waiter.get(10, TimeUnit.SECONDS);
+      assertEquals(Arrays.asList("waiter", "returning thread"), borrowers);
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldClaimOverdueConnection() throws Exception {
+    PooledDataSource ds = createConcurrentPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolMaximumCheckoutTime(50);
+      Connection c1 = ds.getConnection();
+      Thread.sleep(100);
+      Connection c2 = ds.getConnection();
+      assertEquals(1, ds.getPoolState().getClaimedOverdueConnectionCount());
+      assertEquals(1, ds.getPoolState().getActiveConnectionCount());
+      c1.close();
+      assertEquals(1, ds.getPoolState().getBadConnectionCount());
+      c2.close();
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldNeverExceedMaximumActiveConnectionsUnderContention() throws Exception {
+    PooledDataSource ds = createConcurrentPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(4);
+    ds.setPoolMaximumIdleConnections(4);
+    ds.setPoolTimeToWait(100);
+    int threads = 16;
+    int iterations = 200;
+    AtomicInteger inUse = new AtomicInteger();
+    AtomicInteger maxInUse = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int j = 0; j < iterations; j++) {
+            try (Connection c = ds.getConnection()) {
+              maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+              assertFalse(c.isClosed());
+              inUse.decrementAndGet();
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+      assertTrue(maxInUse.get() <= 4);
+      assertEquals(threads * iterations, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertTrue(ds.getPoolState().getIdleConnectionCount() <= 4);
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Disabled("Contention benchmark, run manually")
+  @Test
+  void compareThroughputWithPooledDataSource() throws Exception {
+    for (int round = 0; round < 3; round++) {
+      System.out.println("PooledDataSource: " + measureThroughput(createPooledDataSource(JPETSTORE_PROPERTIES)) + " ops/s");
+      System.out.println("ConcurrentPooledDataSource: " + measureThroughput(createConcurrentPooledDataSource(JPETSTORE_PROPERTIES)) + " ops/s");
+    }
+  }
+
+  private long measureThroughput(PooledDataSource ds) throws Exception {
+    ds.setPoolMaximumActiveConnections(8);
+    ds.setPoolMaximumIdleConnections(8);
+    int threads = 64;
+    long duration = TimeUnit.SECONDS.toMillis(5);
+    AtomicInteger operations = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      long end = System.currentTimeMillis() + duration;
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          while (System.currentTimeMillis() < end) {
+            try (Connection c = ds.getConnection()) {
+              c.getAutoCommit();
+            }
+            operations.incrementAndGet();
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      return operations.get() * 1000L / duration;
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  private static ConcurrentPooledDataSource createConcurrentPooledDataSource(String resource) throws Exception {
+    Properties props = Resources.getResourceAsProperties(resource);
+    ConcurrentPooledDataSource ds = new ConcurrentPooledDataSource();
+    ds.setDriver(props.getProperty("driver"));
+    ds.setUrl(props.getProperty("url"));
+    ds.setUsername(props.getProperty("username"));
+    ds.setPassword(props.getProperty("password"));
+    return ds;
+  }
+
+}
@@ -29,6 +29,7 @@ import java.util.concurrent.TimeUnit;
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.hsqldb.jdbc.JDBCConnection;
+import org.hsqldb.jdbc.JDBCPreparedStatement;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
@@ -91,6 +92,82 @@ class PooledDataSourceTest extends BaseDataTest {
     c.close();
   }
 
+  @Test
+  void shouldReuseCachedStatementsAcrossBorrowers() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolPreparedStatementCacheSize(2);
+      final String sql = "SELECT * FROM PRODUCT WHERE PRODUCTID = ?";
+
+      PreparedStatement realStatement;
+      int defaultFetchSize;
+      try (Connection c = ds.getConnection()) {
+        PreparedStatement st = c.prepareStatement(sql);
+        realStatement = st.unwrap(JDBCPreparedStatement.class);
+        defaultFetchSize = st.getFetchSize();
+        st.setFetchSize(defaultFetchSize + 10);
+        st.setString(1, "FI-SW-01");
+        st.executeQuery().close();
+        // a statement in use is never shared
+        try (PreparedStatement other = c.prepareStatement(sql)) {
+          assertNotSame(realStatement, other.unwrap(JDBCPreparedStatement.class));
+        }
+        st.close();
+        assertTrue(st.isClosed());
+        assertThrows(SQLException.class, st::executeQuery);
+      }
+
+      try (Connection c = ds.getConnection(); PreparedStatement st = c.prepareStatement(sql)) {
+        assertSame(realStatement, st.unwrap(JDBCPreparedStatement.class));
+        assertEquals(defaultFetchSize, st.getFetchSize());
+        // the parameters of the previous borrower are cleared
+        assertThrows(SQLException.class, st::executeQuery);
+        assertSame(c, st.getConnection());
+      }
+      assertEquals(1, ds.getPoolState().getStatementCacheHitCount());
+      assertEquals(2, ds.getPoolState().getStatementCacheMissCount());
+      assertEquals(0, ds.getPoolState().getStatementCacheEvictionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedCachedStatements() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolPreparedStatementCacheSize(1);
+      try (Connection c = ds.getConnection()) {
+        PreparedStatement st = c.prepareStatement("SELECT 1 FROM (VALUES(0))");
+        PreparedStatement realStatement = st.unwrap(JDBCPreparedStatement.class);
+        st.close();
+        c.prepareStatement("SELECT 2 FROM (VALUES(0))", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY).close();
+        assertTrue(realStatement.isClosed());
+      }
+      assertEquals(0, ds.getPoolState().getStatementCacheHitCount());
+      assertEquals(2, ds.getPoolState().getStatementCacheMissCount());
+      assertEquals(1, ds.getPoolState().getStatementCacheEvictionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldNotCacheStatementsByDefault() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try (Connection c = ds.getConnection()) {
+      PreparedStatement st = c.prepareStatement("SELECT 1 FROM (VALUES(0))");
+      st.close();
+      assertTrue(st.unwrap(JDBCPreparedStatement.class).isClosed());
+      assertEquals(0, ds.getPoolState().getStatementCacheMissCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
   @Disabled("See the comments")
   @Test
   void shouldReconnectWhenServerKilledLeakedConnection() throws Exception {
@@ -23,6 +23,9 @@ import java.lang.reflect.Field;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -43,6 +46,26 @@ class CacheBuilderTest {
       .hasMessage("Failed cache initialization for 'test' on 'org.apache.ibatis.mapping.CacheBuilderTest$InitializingFailureCache'");
   }
 
+  @Test
+  void testSynchronizedByDefault() {
+    Cache cache = new CacheBuilder("test").build();
+    Assertions.assertThat(cache).isInstanceOf(SynchronizedCache.class);
+  }
+
+  @Test
+  void testConcurrentEvictionNotSynchronized() {
+    Cache cache = new CacheBuilder("test").addDecorator(TinyLfuCache.class).readWrite(true).size(10).build();
+    Assertions.assertThat(cache).isInstanceOf(LoggingCache.class);
+    TinyLfuCache tinyLfuCache = unwrap(unwrap(cache));
+    Assertions.assertThat(tinyLfuCache.getId()).isEqualTo("test");
+  }
+
+  @Test
+  void testConcurrentEvictionSynchronizedWhenCleared() {
+    Cache cache = new CacheBuilder("test").addDecorator(TinyLfuCache.class).clearInterval(60000L).size(10).build();
+    Assertions.assertThat(cache).isInstanceOf(SynchronizedCache.class);
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T unwrap(Cache cache) {
     Field field;
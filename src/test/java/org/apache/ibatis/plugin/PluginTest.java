@@ -17,9 +17,14 @@ package org.apache.ibatis.plugin;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.apache.ibatis.reflection.SystemMetaObject;
+
 import org.junit.jupiter.api.Test;
 
 class PluginTest {
@@ -38,6 +43,88 @@ class PluginTest {
     assertNotEquals("Always", map.toString());
   }
 
+  @Test
+  void shouldApplyInterceptorsInChainOrderWithSingleProxy() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.addInterceptor(new TracingMapPlugin("first", calls));
+    chain.addInterceptor(new TracingMapPlugin("second", calls));
+    chain.addInterceptor(new TracingMapPlugin("third", calls));
+    Map<String, String> target = new HashMap<>();
+    target.put("key", "value");
+    Map<String, String> map = (Map<String, String>) chain.pluginAll(target);
+    assertEquals("value", map.get("key"));
+    assertEquals("[third, second, first]", calls.toString());
+    Object handler = Proxy.getInvocationHandler(map);
+    assertSame(target, SystemMetaObject.forObject(handler).getValue("target"));
+  }
+
+  @Test
+  void shouldExposeInnerChainAsInvocationTarget() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.addInterceptor(new TracingMapPlugin("first", calls));
+    chain.addInterceptor(new TargetCallingMapPlugin());
+    Map<String, String> target = new HashMap<>();
+    target.put("key", "value");
+    Map<String, String> map = (Map<String, String>) chain.pluginAll(target);
+    assertEquals("value", map.get("key"));
+    assertEquals("[first]", calls.toString());
+  }
+
+  @Test
+  void shouldNotInterceptUnmatchedMethodsOfChain() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.addInterceptor(new TracingMapPlugin("first", calls));
+    chain.addInterceptor(new AlwaysMapPlugin());
+    Map<String, String> map = (Map<String, String>) chain.pluginAll(new HashMap<>());
+    map.put("key", "value");
+    assertEquals(1, map.size());
+    assertEquals("Always", map.get("key"));
+    assertTrue(calls.isEmpty());
+  }
+
+  @Test
+  void shouldPropagateExceptionsThroughChain() {
+    InterceptorChain chain = new InterceptorChain();
+    chain.addInterceptor(new FailingMapPlugin());
+    chain.addInterceptor(new TracingMapPlugin("second", new ArrayList<>()));
+    Map<String, String> map = (Map<String, String>) chain.pluginAll(new HashMap<>());
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> map.get("key"));
+    assertEquals("failed", e.getMessage());
+  }
+
+  @Test
+  void shouldCallOverriddenPluginInOrder() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.addInterceptor(new TracingMapPlugin("first", calls));
+    chain.addInterceptor(new Interceptor() {
+      @Override
+      public Object intercept(Invocation invocation) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Object plugin(Object target) {
+        calls.add("plugin");
+        return target;
+      }
+    });
+    chain.addInterceptor(new TracingMapPlugin("third", calls));
+    Map<String, String> map = (Map<String, String>) chain.pluginAll(new HashMap<>());
+    assertNull(map.get("key"));
+    assertEquals("[plugin, third, first]", calls.toString());
+  }
+
+  @Test
+  void shouldRejectInterceptorWithoutAnnotationInChain() {
+    InterceptorChain chain = new InterceptorChain();
+    chain.addInterceptor(invocation -> invocation.proceed());
+    assertThrows(PluginException.class, () -> chain.pluginAll(new HashMap<>()));
+  }
+
   @Intercepts({
       @Signature(type = Map.class, method = "get", args = {Object.class})})
   public static class AlwaysMapPlugin implements Interceptor {
@@ -48,4 +135,40 @@ class PluginTest {
 
   }
 
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class TracingMapPlugin implements Interceptor {
+    private final String name;
+    private final List<String> calls;
+
+    TracingMapPlugin(String name, List<String> calls) {
+      this.name = name;
+      this.calls = calls;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      calls.add(name);
+      return invocation.proceed();
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class TargetCallingMapPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) {
+      return ((Map<?, ?>) invocation.getTarget()).get(invocation.getArgs()[0]);
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class FailingMapPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) {
+      throw new IllegalStateException("failed");
+    }
+  }
+
 }
@@ -0,0 +1,164 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleGetFieldInvoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleMethodInvoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleSetFieldInvoker;
+import org.junit.jupiter.api.Test;
+
+class MethodHandleReflectorFactoryTest {
+
+  private final ReflectorFactory reflectorFactory = new MethodHandleReflectorFactory();
+
+  @Test
+  void shouldUseMethodHandleInvokers() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    assertTrue(reflector.getGetInvoker("name") instanceof MethodHandleMethodInvoker);
+    assertTrue(reflector.getSetInvoker("name") instanceof MethodHandleMethodInvoker);
+    assertTrue(reflector.getGetInvoker("field") instanceof MethodHandleGetFieldInvoker);
+    assertTrue(reflector.getSetInvoker("field") instanceof MethodHandleSetFieldInvoker);
+    assertSame(reflector, reflectorFactory.findForClass(Bean.class));
+  }
+
+  @Test
+  void shouldGetAndSetProperties() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    Bean bean = new Bean();
+    reflector.getSetInvoker("name").invoke(bean, new Object[] { "foo" });
+    reflector.getSetInvoker("count").invoke(bean, new Object[] { 3 });
+    reflector.getSetInvoker("secret").invoke(bean, new Object[] { "hidden" });
+    reflector.getSetInvoker("field").invoke(bean, new Object[] { 7L });
+    reflector.getSetInvoker("items").invoke(bean, new Object[] { new ArrayList<>() });
+    assertEquals("foo", reflector.getGetInvoker("name").invoke(bean, null));
+    assertEquals(3, reflector.getGetInvoker("count").invoke(bean, null));
+    assertEquals("hidden", reflector.getGetInvoker("secret").invoke(bean, null));
+    assertEquals(7L, reflector.getGetInvoker("field").invoke(bean, null));
+    assertEquals(new ArrayList<>(), reflector.getGetInvoker("items").invoke(bean, null));
+    assertEquals(int.class, reflector.getGetterType("count"));
+  }
+
+  @Test
+  void shouldSetNullToReferenceProperty() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    Bean bean = new Bean();
+    bean.setName("foo");
+    reflector.getSetInvoker("name").invoke(bean, new Object[] { null });
+    assertNull(bean.getName());
+  }
+
+  @Test
+  void shouldReportNullToPrimitiveLikeReflection() {
+    Invoker invoker = reflectorFactory.findForClass(Bean.class).getSetInvoker("count");
+    Invoker reflective = new DefaultReflectorFactory().findForClass(Bean.class).getSetInvoker("count");
+    Exception expected = assertThrows(Exception.class, () -> reflective.invoke(new Bean(), new Object[] { null }));
+    Exception actual = assertThrows(Exception.class, () -> invoker.invoke(new Bean(), new Object[] { null }));
+    assertEquals(expected.getClass(), actual.getClass());
+  }
+
+  @Test
+  void shouldWrapExceptionThrownByAccessor() {
+    Invoker invoker = reflectorFactory.findForClass(Bean.class).getGetInvoker("failing");
+    InvocationTargetException e = assertThrows(InvocationTargetException.class, () -> invoker.invoke(new Bean(), null));
+    assertTrue(e.getTargetException() instanceof IllegalStateException);
+  }
+
+  @Test
+  void shouldWorkWithMetaObject() {
+    Bean bean = new Bean();
+    MetaObject metaObject = MetaObject.forObject(bean, SystemMetaObject.DEFAULT_OBJECT_FACTORY,
+        SystemMetaObject.DEFAULT_OBJECT_WRAPPER_FACTORY, reflectorFactory);
+    metaObject.setValue("child.name", "bar");
+    assertEquals("bar", bean.getChild().getName());
+    assertEquals("bar", metaObject.getValue("child.name"));
+    MetaClass metaClass = MetaClass.forClass(Bean.class, reflectorFactory);
+    assertEquals(String.class, metaClass.getGetterType("items[0]"));
+  }
+
+  @Test
+  void shouldAccessJdkClasses() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Date.class);
+    Date date = new Date();
+    reflector.getSetInvoker("time").invoke(date, new Object[] { 1000L });
+    assertEquals(1000L, reflector.getGetInvoker("time").invoke(date, null));
+  }
+
+  static class Bean {
+    private String name;
+    private int count;
+    private String secret;
+    private Long field;
+    private List<String> items;
+    private Bean child;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+
+    private String getSecret() {
+      return secret;
+    }
+
+    private void setSecret(String secret) {
+      this.secret = secret;
+    }
+
+    public List<String> getItems() {
+      return items;
+    }
+
+    public void setItems(List<String> items) {
+      this.items = items;
+    }
+
+    public Bean getChild() {
+      return child;
+    }
+
+    public void setChild(Bean child) {
+      this.child = child;
+    }
+
+    public String getFailing() {
+      throw new IllegalStateException("failing");
+    }
+
+    public static String getStatic() {
+      return "static";
+    }
+  }
+
+}
@@ -0,0 +1,190 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.domain.misc.RichType;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.junit.jupiter.api.Test;
+
+class PropertyPathTest {
+
+  @Test
+  void shouldGetAndSetProperty() {
+    RichType rich = new RichType();
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    PropertyPath path = PropertyPath.compile("richProperty");
+    meta.setValue(path, "foo");
+    assertEquals("foo", rich.getRichProperty());
+    assertEquals("foo", meta.getValue(path));
+    assertEquals("richProperty", path.getExpression());
+  }
+
+  @Test
+  void shouldGetAndSetField() {
+    RichType rich = new RichType();
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    PropertyPath path = PropertyPath.compile("richField");
+    meta.setValue(path, "foo");
+    assertEquals("foo", meta.getValue("richField"));
+    assertEquals("foo", meta.getValue(path));
+  }
+
+  @Test
+  void shouldGetAndSetNestedProperty() {
+    RichType rich = new RichType();
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    PropertyPath path = PropertyPath.compile("richType.richType.richProperty");
+    meta.setValue(path, "foo");
+    assertEquals("foo", rich.getRichType().getRichType().getRichProperty());
+    assertEquals("foo", meta.getValue(path));
+  }
+
+  @Test
+  void shouldNotInstantiateNestedPropertyForNull() {
+    RichType rich = new RichType();
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    PropertyPath path = PropertyPath.compile("richType.richProperty");
+    meta.setValue(path, null);
+    assertNull(rich.getRichType());
+    assertNull(meta.getValue(path));
+  }
+
+  @Test
+  void shouldGetAndSetMapEntries() {
+    RichType rich = new RichType();
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    meta.setValue(PropertyPath.compile("richMap.key"), "foo");
+    assertEquals("foo", rich.getRichMap().get("key"));
+    assertEquals("foo", meta.getValue(PropertyPath.compile("richMap.key")));
+    meta.setValue(PropertyPath.compile("richType.richMap.key"), "bar");
+    assertEquals("bar", rich.getRichType().getRichMap().get("key"));
+
+    Map<String, Object> map = new HashMap<>();
+    map.put("rich", rich);
+    PropertyPath path = PropertyPath.compile("rich.richMap.key");
+    assertEquals("foo", path.getValue(map, SystemMetaObject.DEFAULT_OBJECT_FACTORY,
+        SystemMetaObject.DEFAULT_OBJECT_WRAPPER_FACTORY, new DefaultReflectorFactory()));
+    path.setValue(SystemMetaObject.forObject(map), "baz");
+    assertEquals("baz", rich.getRichMap().get("key"));
+  }
+
+  @Test
+  void shouldDelegateIndexedProperties() {
+    RichType rich = new RichType();
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    meta.setValue(PropertyPath.compile("richList[0]"), "foo");
+    meta.setValue(PropertyPath.compile("richMap[key]"), "bar");
+    assertEquals("foo", meta.getValue(PropertyPath.compile("richList[0]")));
+    assertEquals("bar", meta.getValue(PropertyPath.compile("richMap[key]")));
+    assertEquals("bar", meta.getValue(PropertyPath.compile("richMap.key")));
+  }
+
+  @Test
+  void shouldResolvePropertyForEachClass() {
+    PropertyPath path = PropertyPath.compile("name");
+    MetaObject first = SystemMetaObject.forObject(new First());
+    MetaObject second = SystemMetaObject.forObject(new Second());
+    path.setValue(first, "a");
+    path.setValue(second, "b");
+    assertEquals("a", path.getValue(first));
+    assertEquals("b", path.getValue(second));
+  }
+
+  @Test
+  void shouldReportMissingPropertyLikeMetaObject() {
+    MetaObject meta = SystemMetaObject.forObject(new RichType());
+    PropertyPath path = PropertyPath.compile("missing");
+    ReflectionException expected = assertThrows(ReflectionException.class, () -> meta.getValue("missing"));
+    ReflectionException actual = assertThrows(ReflectionException.class, () -> meta.getValue(path));
+    assertEquals(expected.getMessage(), actual.getMessage());
+    assertThrows(ReflectionException.class, () -> meta.setValue(path, "foo"));
+  }
+
+  @Test
+  void shouldPropagateExceptionFromGetter() {
+    MetaObject meta = SystemMetaObject.forObject(new Failing());
+    PropertyPath path = PropertyPath.compile("value");
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> meta.getValue(path));
+    assertEquals("failing", e.getMessage());
+    assertThrows(ReflectionException.class, () -> meta.setValue(path, "foo"));
+  }
+
+  @Test
+  void shouldUseCustomObjectWrapper() {
+    ObjectWrapperFactory objectWrapperFactory = new ObjectWrapperFactory() {
+      @Override
+      public boolean hasWrapperFor(Object object) {
+        return object instanceof RichType;
+      }
+
+      @Override
+      public ObjectWrapper getWrapperFor(MetaObject metaObject, Object object) {
+        return new BeanWrapper(metaObject, object) {
+          @Override
+          public Object get(PropertyTokenizer prop) {
+            return "wrapped";
+          }
+        };
+      }
+    };
+    MetaObject meta = MetaObject.forObject(new RichType(), SystemMetaObject.DEFAULT_OBJECT_FACTORY,
+        objectWrapperFactory, new DefaultReflectorFactory());
+    assertEquals("wrapped", meta.getValue(PropertyPath.compile("richProperty")));
+  }
+
+  static class First {
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  static class Second {
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  static class Failing {
+    public String getValue() {
+      throw new IllegalStateException("failing");
+    }
+
+    public void setValue(String value) {
+      throw new IllegalStateException("failing");
+    }
+  }
+
+}
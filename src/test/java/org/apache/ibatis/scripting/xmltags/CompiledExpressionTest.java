@@ -0,0 +1,193 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+class CompiledExpressionTest {
+
+  private static final String[] EXPRESSIONS = {
+      "username", "password", "id", "id == 1", "id != 1", "id > 0", "id >= 2", "id < 2", "id lte 1",
+      "username == 'cbegin'", "username != 'cbegin'", "username == \"cbegin\"", "username != null and username != ''",
+      "password == null or password == ''", "!(id == 1)", "not id", "username.length() > 3", "tags.size() > 1",
+      "tags.size", "tags.isEmpty()", "tags != null and !tags.isEmpty()", "map.key == 'value'", "map.size > 0",
+      "map.missing == null", "author.username == 'cbegin'", "author.id == 1L", "author.id == 1.0",
+      "price > 1.5", "price == 2", "id == ''", "flag == 'Y'", "flag == 'YES'", "favouriteSection == 'NEWS'",
+      "author.username.length() == 6", "nothing.username == null", "_parameter != null", "true and false or true",
+      "id and username", "id or username", "array.length == 2", "array.size == 2" };
+
+  @Test
+  void shouldCompileCommonExpressions() {
+    assertNotNull(CompiledExpression.compile("username != null and username != ''"));
+    assertNotNull(CompiledExpression.compile("(id gt 1 or id lt 0) and !tags.isEmpty()"));
+    assertNotNull(CompiledExpression.compile("author.username.length() == 6"));
+    assertNotNull(CompiledExpression.compile("price >= 1.5 && name neq \"x\""));
+  }
+
+  @Test
+  void shouldNotCompileOtherExpressions() {
+    assertNull(CompiledExpression.compile("id + 1 > 2"));
+    assertNull(CompiledExpression.compile("tags[0] == 'a'"));
+    assertNull(CompiledExpression.compile("@java.lang.Math@max(id, 1)"));
+    assertNull(CompiledExpression.compile("username.indexOf('c') == 0"));
+    assertNull(CompiledExpression.compile("flag == 'Y'"));
+    assertNull(CompiledExpression.compile("id == 1L"));
+    assertNull(CompiledExpression.compile("id in {1, 2}"));
+    assertNull(CompiledExpression.compile("id ? 1 : 0"));
+    assertNull(CompiledExpression.compile("username == 'a\\'b'"));
+    assertNull(CompiledExpression.compile("id =="));
+  }
+
+  @Test
+  void shouldEvaluateLikeOgnlOnBeanParameter() {
+    Configuration configuration = new Configuration();
+    Author author = new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS);
+    assertSameResults(new DynamicContext(configuration, author).getBindings());
+  }
+
+  @Test
+  void shouldEvaluateLikeOgnlOnMapParameter() {
+    Configuration configuration = new Configuration();
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("id", 2);
+    parameter.put("username", "jdoe");
+    parameter.put("password", "");
+    parameter.put("tags", new ArrayList<>(Arrays.asList("a", "b")));
+    parameter.put("map", new HashMap<>(Collections.singletonMap("key", "value")));
+    parameter.put("author", new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS));
+    parameter.put("price", 2.0d);
+    parameter.put("flag", "Y");
+    parameter.put("favouriteSection", Section.NEWS);
+    parameter.put("array", new int[] { 1, 2 });
+    assertSameResults(new DynamicContext(configuration, parameter).getBindings());
+
+    parameter.put("id", 0);
+    parameter.put("tags", new ArrayList<>());
+    parameter.put("price", 1L);
+    assertSameResults(new DynamicContext(configuration, parameter).getBindings());
+  }
+
+  @Test
+  void shouldApplyOgnlTruthinessToStringOperands() {
+    String[] expressions = { "!name", "name and flag", "e and e != ''", "name or flag", "!e", "t and flag",
+        "t or flag", "!t" };
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("name", "abc");
+    parameter.put("flag", Boolean.TRUE);
+    parameter.put("e", "");
+    parameter.put("t", "true");
+    for (String expression : expressions) {
+      CompiledExpression compiled = CompiledExpression.compile(expression);
+      assertNotNull(compiled, expression);
+      assertEquals(OgnlCache.getValue(expression, parameter), compiled.getValue(parameter), expression);
+    }
+  }
+
+  @Test
+  void shouldBuildSameSqlAsXmlLanguageDriver() {
+    Configuration configuration = new Configuration();
+    String script = "<script>select * from author <where>"
+        + "<if test=\"id != null and id > 0\">and id = #{id}</if>"
+        + "<if test=\"username != null and username != ''\">and username = #{username}</if>"
+        + "<if test=\"tags != null and tags.size() > 0\">and tag in"
+        + "<foreach collection=\"tags\" item=\"tag\" open=\"(\" close=\")\" separator=\",\">#{tag}</foreach></if>"
+        + "<bind name=\"pattern\" value=\"username\"/>"
+        + "</where></script>";
+    SqlSource expected = new XMLLanguageDriver().createSqlSource(configuration, script, Map.class);
+    SqlSource actual = new CompiledXMLLanguageDriver().createSqlSource(configuration, script, Map.class);
+
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("id", 1);
+    parameter.put("username", "");
+    parameter.put("tags", new ArrayList<>(Arrays.asList("a", "b")));
+    BoundSql expectedBoundSql = expected.getBoundSql(parameter);
+    BoundSql actualBoundSql = actual.getBoundSql(parameter);
+    assertEquals(expectedBoundSql.getSql(), actualBoundSql.getSql());
+    assertEquals(expectedBoundSql.getParameterMappings().size(), actualBoundSql.getParameterMappings().size());
+    assertEquals("", actualBoundSql.getAdditionalParameter("pattern"));
+  }
+
+  @Disabled("Benchmark, run manually")
+  @Test
+  void compareGetBoundSqlWithXmlLanguageDriver() {
+    Configuration configuration = new Configuration();
+    StringBuilder script = new StringBuilder("<script>select * from author <where>");
+    for (int i = 0; i < 40; i++) {
+      script.append("<if test=\"id != null and id > ").append(i).append("\">and id > ").append(i).append("</if>");
+      script.append("<if test=\"username != null and username != ''\">and username = #{username}</if>");
+    }
+    script.append("</where></script>");
+    SqlSource ognl = new XMLLanguageDriver().createSqlSource(configuration, script.toString(), Map.class);
+    SqlSource compiled = new CompiledXMLLanguageDriver().createSqlSource(configuration, script.toString(), Map.class);
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("id", 20);
+    parameter.put("username", "cbegin");
+    for (int round = 0; round < 5; round++) {
+      System.out.println("XMLLanguageDriver: " + measure(ognl, parameter) + " ops/s");
+      System.out.println("CompiledXMLLanguageDriver: " + measure(compiled, parameter) + " ops/s");
+    }
+  }
+
+  private static long measure(SqlSource sqlSource, Object parameter) {
+    long operations = 0;
+    long start = System.nanoTime();
+    long end = start + 2_000_000_000L;
+    while (System.nanoTime() < end) {
+      sqlSource.getBoundSql(parameter);
+      operations++;
+    }
+    return operations * 1_000_000_000L / (System.nanoTime() - start);
+  }
+
+  private static void assertSameResults(Object root) {
+    ExpressionEvaluator ognl = new ExpressionEvaluator();
+    ExpressionEvaluator compiled = new CompiledExpressionEvaluator();
+    List<String> mismatches = new ArrayList<>();
+    for (String expression : EXPRESSIONS) {
+      String expected = evaluate(ognl, expression, root);
+      String actual = evaluate(compiled, expression, root);
+      if (!expected.equals(actual)) {
+        mismatches.add(expression + ": expected " + expected + " but was " + actual);
+      }
+    }
+    assertTrue(mismatches.isEmpty(), mismatches.toString());
+  }
+
+  private static String evaluate(ExpressionEvaluator evaluator, String expression, Object root) {
+    try {
+      Object value = evaluator.getValue(expression, root);
+      return value == null ? "null" : value.getClass().getSimpleName() + ":" + value;
+    } catch (RuntimeException e) {
+      return e.getClass().getSimpleName() + ":" + e.getMessage();
+    }
+  }
+
+}
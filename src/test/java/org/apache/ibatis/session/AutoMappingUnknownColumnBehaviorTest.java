@@ -124,6 +124,28 @@ class AutoMappingUnknownColumnBehaviorTest {
         }
     }
 
+    @Test
+    void warningOnEachExecutionWithCompiledRowMappers() {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        configuration.setAutoMappingUnknownColumnBehavior(AutoMappingUnknownColumnBehavior.WARNING);
+        configuration.setUseCompiledRowMappers(true);
+        try {
+            for (int i = 0; i < 2; i++) {
+                LastEventSavedAppender.event = null;
+                try (SqlSession session = sqlSessionFactory.openSession()) {
+                    Mapper mapper = session.getMapper(Mapper.class);
+                    SimpleAuthor author = mapper.selectSimpleAuthor(101);
+                    assertThat(author.getId()).isNull();
+                    assertThat(author.getUsername()).isEqualTo("jim");
+                }
+                assertThat(LastEventSavedAppender.event).isNotNull();
+                assertThat(LastEventSavedAppender.event.getMessage().toString()).startsWith("Unknown column is detected on 'org.apache.ibatis.session.AutoMappingUnknownColumnBehaviorTest$Mapper.selectSimpleAuthor' auto-mapping.");
+            }
+        } finally {
+            configuration.setUseCompiledRowMappers(false);
+        }
+    }
+
     @Test
     void failingCauseByUnknownColumn() {
         sqlSessionFactory.getConfiguration().setAutoMappingUnknownColumnBehavior(AutoMappingUnknownColumnBehavior.FAILING);
@@ -0,0 +1,125 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_grouping;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchGroupingTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    // create an SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_grouping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_grouping/CreateDB.sql");
+  }
+
+  @Test
+  void shouldGroupInterleavedStatementsBySql() {
+    sqlSessionFactory.getConfiguration().setMaxBatchSize(null);
+    List<Named> users = new ArrayList<>();
+    List<Named> depts = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 5; i++) {
+        Named user = new Named("user" + i);
+        Named dept = new Named("dept" + i);
+        users.add(user);
+        depts.add(dept);
+        mapper.insertUser(user);
+        mapper.insertDept(dept);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals("org.apache.ibatis.submitted.batch_grouping.Mapper.insertUser", results.get(0).getMappedStatement().getId());
+      assertEquals(5, results.get(0).getParameterObjects().size());
+      assertEquals("org.apache.ibatis.submitted.batch_grouping.Mapper.insertDept", results.get(1).getMappedStatement().getId());
+      assertEquals(5, results.get(1).getParameterObjects().size());
+      assertEquals(5, mapper.countUsers());
+      assertEquals(5, mapper.countDepts());
+      sqlSession.commit();
+    }
+    for (int i = 0; i < 5; i++) {
+      assertEquals(Integer.valueOf(i + 1), users.get(i).getId());
+      assertEquals(Integer.valueOf(i + 1), depts.get(i).getId());
+    }
+  }
+
+  @Test
+  void shouldExecuteBatchWhenMaxBatchSizeIsReached() {
+    List<Named> users = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 7; i++) {
+        Named user = new Named("user" + i);
+        users.add(user);
+        mapper.insertUser(user);
+        if (i == 3) {
+          mapper.insertDept(new Named("dept"));
+        }
+      }
+      // the first six users were already executed in two batches of three
+      assertEquals(Integer.valueOf(6), users.get(5).getId());
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(4, results.size());
+      assertEquals(3, results.get(0).getParameterObjects().size());
+      assertArrayEquals(new int[] { 1, 1, 1 }, results.get(0).getUpdateCounts());
+      assertEquals(3, results.get(1).getParameterObjects().size());
+      assertEquals(users.subList(3, 6), results.get(1).getParameterObjects());
+      assertEquals(1, results.get(2).getParameterObjects().size());
+      assertEquals(users.get(6), results.get(2).getParameterObjects().get(0));
+      assertEquals("org.apache.ibatis.submitted.batch_grouping.Mapper.insertDept", results.get(3).getMappedStatement().getId());
+      assertEquals(7, mapper.countUsers());
+      sqlSession.commit();
+    }
+    assertEquals(Integer.valueOf(7), users.get(6).getId());
+  }
+
+  @Test
+  void shouldDiscardExecutedBatchesOnRollback() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 4; i++) {
+        mapper.insertUser(new Named("user" + i));
+      }
+      sqlSession.rollback();
+      assertEquals(0, mapper.countUsers());
+      assertEquals(0, sqlSession.flushStatements().size());
+    }
+  }
+
+}
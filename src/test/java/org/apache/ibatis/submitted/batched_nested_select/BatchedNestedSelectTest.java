@@ -0,0 +1,123 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batched_nested_select;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchedNestedSelectTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batched_nested_select/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batched_nested_select/CreateDB.sql");
+  }
+
+  @BeforeEach
+  void resetCounter() {
+    QueryCounter.count.set(0);
+  }
+
+  @Test
+  void shouldLoadAssociationsInBatches() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Order> orders = sqlSession.getMapper(Mapper.class).selectOrders();
+      // 3 distinct customers in batches of 2
+      assertEquals(3, QueryCounter.count.get());
+      assertThat(orders).extracting(order -> order.getCustomer().getName())
+          .containsExactly("Customer1", "Customer1", "Customer2", "Customer2", "Customer3");
+      assertSame(orders.get(0).getCustomer(), orders.get(1).getCustomer());
+    }
+  }
+
+  @Test
+  void shouldLoadLazyAssociationsInBatches() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Order> orders = sqlSession.getMapper(Mapper.class).selectLazyOrders();
+      assertEquals(1, QueryCounter.count.get());
+      assertEquals("Customer1", orders.get(0).getCustomer().getName());
+      assertEquals(2, QueryCounter.count.get());
+      // loaded with the first trigger
+      assertEquals("Customer2", orders.get(3).getCustomer().getName());
+      assertEquals(2, QueryCounter.count.get());
+      assertEquals("Customer3", orders.get(4).getCustomer().getName());
+      assertEquals(3, QueryCounter.count.get());
+    }
+  }
+
+  @Test
+  void shouldLoadCollectionsInBatches() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Customer> customers = sqlSession.getMapper(Mapper.class).selectCustomers();
+      assertEquals(2, QueryCounter.count.get());
+      assertCustomerOrders(customers);
+    }
+  }
+
+  @Test
+  void shouldLoadCollectionsInBatchesWithAnnotations() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Customer> customers = sqlSession.getMapper(Mapper.class).selectCustomersAnnotated();
+      assertEquals(3, QueryCounter.count.get());
+      assertCustomerOrders(customers);
+    }
+  }
+
+  @Test
+  void shouldLoadCircularReferencesInBatches() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Order> orders = sqlSession.getMapper(Mapper.class).selectOrdersWithCustomer();
+      assertEquals(3, QueryCounter.count.get());
+      assertThat(orders).extracting(order -> order.getCustomer().getName())
+          .containsExactly("Customer1", "Customer1", "Customer2", "Customer2", "Customer3");
+      Customer customer = orders.get(0).getCustomer();
+      assertSame(customer, orders.get(1).getCustomer());
+      assertThat(customer.getOrders()).extracting(Order::getDescription).containsExactly("Order1", "Order2");
+      for (Order order : customer.getOrders()) {
+        assertSame(customer, order.getCustomer());
+      }
+    }
+  }
+
+  private void assertCustomerOrders(List<Customer> customers) {
+    assertEquals(4, customers.size());
+    assertThat(customers.get(0).getOrders()).extracting(Order::getDescription).containsExactly("Order1", "Order2");
+    assertThat(customers.get(1).getOrders()).extracting(Order::getDescription).containsExactly("Order3", "Order4");
+    assertThat(customers.get(2).getOrders()).extracting(Order::getDescription).containsExactly("Order5");
+    assertThat(customers.get(3).getOrders()).isEmpty();
+    assertNull(customers.get(0).getOrders().get(0).getCustomer());
+  }
+
+}
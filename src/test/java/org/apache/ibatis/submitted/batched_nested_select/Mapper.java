@@ -0,0 +1,43 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batched_nested_select;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Many;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+
+public interface Mapper {
+
+  List<Order> selectOrders();
+
+  List<Order> selectLazyOrders();
+
+  List<Customer> selectCustomers();
+
+  List<Order> selectOrdersWithCustomer();
+
+  @Select("select * from customers order by id")
+  @Results({
+    @Result(property = "id", column = "id", id = true),
+    @Result(property = "orders", column = "id",
+      many = @Many(select = "selectOrdersByCustomerIds", batchSize = 2, foreignColumn = "customer_id"))
+  })
+  List<Customer> selectCustomersAnnotated();
+
+}
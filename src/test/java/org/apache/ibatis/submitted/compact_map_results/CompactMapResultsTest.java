@@ -0,0 +1,162 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compact_map_results;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CompactMapResultsTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    // create an SqlSessionFactory
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/compact_map_results/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/compact_map_results/CreateDB.sql");
+  }
+
+  @Test
+  void shouldReturnCompactMaps() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Map<String, Object>> users = mapper.getUsers();
+      assertEquals(3, users.size());
+      Map<String, Object> user1 = users.get(0);
+      assertFalse(user1 instanceof HashMap);
+      assertEquals(4, user1.size());
+      assertEquals(1, user1.get("ID"));
+      assertEquals("User1", user1.get("NAME"));
+      assertEquals("one", user1.get("NICK_NAME"));
+      assertEquals(Arrays.asList("ID", "NAME", "NICK_NAME", "AGE"), Arrays.asList(user1.keySet().toArray()));
+
+      // null columns are not put unless callSettersOnNulls is enabled
+      Map<String, Object> user2 = users.get(1);
+      assertEquals(2, user2.size());
+      assertFalse(user2.containsKey("NICK_NAME"));
+      assertNull(users.get(2).get("NAME"));
+
+      Map<String, Object> expected = new HashMap<>();
+      expected.put("ID", 2);
+      expected.put("NAME", "User2");
+      assertEquals(expected, user2);
+      assertEquals(user2, expected);
+      assertEquals(expected.hashCode(), user2.hashCode());
+      assertEquals(expected.toString().length(), user2.toString().length());
+    }
+  }
+
+  @Test
+  void shouldBeModifiable() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Map<String, Object> user = sqlSession.getMapper(Mapper.class).getUsers().get(1);
+      assertNull(user.put("NICK_NAME", "two"));
+      assertNull(user.put("extra", "value"));
+      assertEquals(4, user.size());
+      assertEquals("two", user.get("NICK_NAME"));
+      assertEquals("value", user.get("extra"));
+      assertEquals("User2", user.remove("NAME"));
+      assertEquals("value", user.remove("extra"));
+      assertEquals(2, user.size());
+      user.entrySet().removeIf(e -> e.getKey().equals("ID"));
+      assertEquals(1, user.size());
+      user.clear();
+      assertTrue(user.isEmpty());
+    }
+  }
+
+  @Test
+  void shouldWorkWithMetaObjectAndMapKey() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Map<Integer, Map<String, Object>> users = mapper.getUsersById();
+      assertEquals(3, users.size());
+      assertEquals("User1", users.get(1).get("NAME"));
+
+      MetaObject metaObject = sqlSession.getConfiguration().newMetaObject(users.get(2));
+      assertEquals("User2", metaObject.getValue("NAME"));
+      metaObject.setValue("address.city", "Tokyo");
+      assertEquals("Tokyo", metaObject.getValue("address.city"));
+    }
+  }
+
+  @Test
+  void shouldUseResultMapProperties() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Map<String, Object> user = mapper.getUserWithResultMap(1);
+      assertEquals("User1", user.get("userName"));
+      assertEquals(1, user.get("ID"));
+      assertFalse(user.containsKey("NAME"));
+    }
+  }
+
+  @Test
+  void shouldKeepConcreteMapTypes() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertSame(HashMap.class, mapper.getUserAsHashMap(1).getClass());
+    }
+  }
+
+  @Test
+  void shouldBeSerializable() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Map<String, Object>> users = sqlSession.getMapper(Mapper.class).getUsers();
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+        oos.writeObject(users);
+      }
+      try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> copy = (List<Map<String, Object>>) ois.readObject();
+        assertEquals(users, copy);
+        assertEquals(2, copy.get(1).size());
+        assertNotEquals(copy.get(0), copy.get(1));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+class CompiledRowMapperTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    // create an SqlSessionFactory
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/compiled_row_mapper/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/compiled_row_mapper/CreateDB.sql");
+  }
+
+  @Test
+  void shouldAutoMapColumns() {
+    // twice in separate sessions, so that the second call is not served by the local cache but uses the cached row
+    // mapper
+    for (int i = 0; i < 2; i++) {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        Mapper mapper = sqlSession.getMapper(Mapper.class);
+        List<User> users = mapper.getUsers();
+        assertEquals(3, users.size());
+        assertEquals(Integer.valueOf(1), users.get(0).getId());
+        assertEquals("User1", users.get(0).getName());
+        assertEquals("one", users.get(0).getNickName());
+        assertEquals(21, users.get(0).getAge());
+        assertEquals("User2", users.get(1).getName());
+        assertNull(users.get(1).getNickName());
+        assertEquals(0, users.get(1).getAge());
+      }
+      assertTrue(hasCompiledRowMapper("getUsers"));
+    }
+  }
+
+  @Test
+  void shouldApplyResultMapAndAutoMapping() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user = mapper.getUserWithResultMap(1);
+      assertEquals(Integer.valueOf(1), user.getId());
+      assertEquals("User1", user.getName());
+      assertEquals("one", user.getNickName());
+      user = mapper.getUserWithResultMap(2);
+      assertEquals(Integer.valueOf(2), user.getId());
+      assertEquals("User2", user.getName());
+      assertNull(user.getNickName());
+    }
+    assertTrue(hasCompiledRowMapper("getUserWithResultMap"));
+  }
+
+  @Test
+  void shouldReturnNullForEmptyRow() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertNull(mapper.getUserWithoutId(3));
+      assertEquals("User2", mapper.getUserWithoutId(2).getName());
+    }
+  }
+
+  @Disabled("Benchmark, run manually")
+  @Test
+  void compareWithReflectiveMapping() throws Exception {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Connection connection = sqlSession.getConnection();
+      try (Statement st = connection.createStatement()) {
+        st.execute("drop table bench_users if exists");
+        st.execute("create table bench_users (id int, name varchar(20), nick_name varchar(20), age int)");
+      }
+      try (PreparedStatement ps = connection.prepareStatement("insert into bench_users values (?, ?, ?, ?)")) {
+        for (int i = 0; i < 10000; i++) {
+          ps.setInt(1, i);
+          ps.setString(2, "User" + i);
+          ps.setString(3, i % 2 == 0 ? "nick" + i : null);
+          ps.setInt(4, i % 100);
+          ps.addBatch();
+        }
+        ps.executeBatch();
+      }
+      sqlSession.commit(true);
+    }
+    try {
+      for (int round = 0; round < 5; round++) {
+        configuration.setUseCompiledRowMappers(false);
+        System.out.println("Reflective mapping: " + measure() + " rows/s");
+        configuration.setUseCompiledRowMappers(true);
+        System.out.println("Compiled row mapper: " + measure() + " rows/s");
+      }
+    } finally {
+      configuration.setUseCompiledRowMappers(true);
+    }
+  }
+
+  private static long measure() {
+    long rows = 0;
+    long start = System.nanoTime();
+    long end = start + 2_000_000_000L;
+    while (System.nanoTime() < end) {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        rows += sqlSession.getMapper(Mapper.class).getBenchUsers().size();
+      }
+    }
+    return rows * 1_000_000_000L / (System.nanoTime() - start);
+  }
+
+  private static boolean hasCompiledRowMapper(String methodName) {
+    MappedStatement ms = sqlSessionFactory.getConfiguration().getMappedStatement(Mapper.class.getName() + "." + methodName);
+    return ms.getResultSetShapeCache().hasCompiledRowMapper(ms.getResultMaps().get(0).getId());
+  }
+
+}
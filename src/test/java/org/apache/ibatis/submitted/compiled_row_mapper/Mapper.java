@@ -0,0 +1,42 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+
+public interface Mapper {
+
+  @Select("select id, name, nick_name, age from users order by id")
+  List<User> getUsers();
+
+  @Select("select id, name, nick_name, age from bench_users")
+  List<User> getBenchUsers();
+
+  @Results({
+      @Result(property = "id", column = "user_id", id = true),
+      @Result(property = "name", column = "user_name")
+  })
+  @Select("select id user_id, name user_name, nick_name from users where id = #{id}")
+  User getUserWithResultMap(Integer id);
+
+  @Select("select name, nick_name from users where id = #{id}")
+  User getUserWithoutId(Integer id);
+
+}
@@ -0,0 +1,113 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CursorStreamTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().addMapper(StreamMapper.class);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @Test
+  void shouldStreamFromMapper() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      StreamMapper mapper = sqlSession.getMapper(StreamMapper.class);
+      try (Stream<User> users = mapper.getAllUsers()) {
+        assertThat(users.map(User::getName)).containsExactly("User1", "User2", "User3", "User4", "User5");
+      }
+      try (Stream<User> users = mapper.getUsers(new RowBounds(1, 2))) {
+        assertThat(users.map(User::getId)).containsExactly(2, 3);
+      }
+    }
+  }
+
+  @Test
+  void shouldStreamFromSession() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      try (Stream<User> users = sqlSession.selectStream("org.apache.ibatis.submitted.cursor_simple.StreamMapper.getAllUsers")) {
+        assertEquals(5, users.count());
+      }
+    }
+  }
+
+  @Test
+  void shouldCloseCursorWithStream() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      try (Stream<User> users = cursor.stream()) {
+        assertEquals("User1", users.findFirst().get().getName());
+        assertTrue(cursor.isOpen());
+      }
+      assertFalse(cursor.isOpen());
+      assertFalse(cursor.isConsumed());
+    }
+  }
+
+  @Test
+  void shouldHandOffMappedChunks() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Spliterator<User> spliterator = sqlSession.getMapper(StreamMapper.class).getAllUsers().spliterator();
+      assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED));
+      Spliterator<User> chunk = spliterator.trySplit();
+      assertEquals(5, chunk.estimateSize());
+      assertTrue(chunk.hasCharacteristics(Spliterator.SIZED));
+      assertNull(spliterator.trySplit());
+      assertFalse(spliterator.tryAdvance(user -> { }));
+    }
+  }
+
+  @Test
+  void shouldKeepOrderInParallelStream() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      try (Stream<User> users = sqlSession.getMapper(StreamMapper.class).getAllUsers()) {
+        List<String> names = users.parallel().map(User::getName).collect(Collectors.toList());
+        assertThat(names).containsExactly("User1", "User2", "User3", "User4", "User5");
+      }
+    }
+  }
+
+}
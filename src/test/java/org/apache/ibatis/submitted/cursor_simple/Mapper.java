@@ -24,6 +24,8 @@ public interface Mapper {
 
   Cursor<User> getAllUsers();
 
+  Cursor<User> getAllUsersPrefetched();
+
   @Select({
     "select null id, null name from (values (0))",
     "union all",
@@ -35,6 +37,18 @@ public interface Mapper {
   })
   Cursor<User> getNullUsers(RowBounds rowBounds);
 
+  @Select({
+    "select null id, null name from (values (0))",
+    "union all",
+    "select 99 id, 'Kate' name from (values (0))",
+    "union all",
+    "select null id, null name from (values (0))",
+    "union all",
+    "select null id, null name from (values (0))"
+  })
+  @Options(cursorPrefetch = 1)
+  Cursor<User> getNullUsersPrefetched(RowBounds rowBounds);
+
   @Select("select * from users")
   @Options(fetchSize = Integer.MIN_VALUE)
   Cursor<User> getUsersMysqlStream();
@@ -0,0 +1,140 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class PrefetchingCursorTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @Test
+  void shouldGetAllUsers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Cursor<User> usersCursor = mapper.getAllUsersPrefetched();
+      Assertions.assertTrue(usersCursor instanceof PrefetchingCursor);
+      Assertions.assertFalse(usersCursor.isOpen());
+      Assertions.assertEquals(-1, usersCursor.getCurrentIndex());
+
+      Iterator<User> iterator = usersCursor.iterator();
+      Assertions.assertTrue(iterator.hasNext());
+      Assertions.assertTrue(usersCursor.isOpen());
+      Assertions.assertFalse(usersCursor.isConsumed());
+      Assertions.assertEquals(-1, usersCursor.getCurrentIndex());
+
+      for (int i = 1; i <= 5; i++) {
+        User user = iterator.next();
+        Assertions.assertEquals("User" + i, user.getName());
+        Assertions.assertEquals(i - 1, usersCursor.getCurrentIndex());
+      }
+
+      Assertions.assertFalse(iterator.hasNext());
+      Assertions.assertFalse(usersCursor.isOpen());
+      Assertions.assertTrue(usersCursor.isConsumed());
+      Assertions.assertThrows(NoSuchElementException.class, iterator::next);
+    }
+  }
+
+  @Test
+  void shouldStopProducerOnEarlyClose() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Cursor<User> usersCursor = mapper.getAllUsersPrefetched();
+      Iterator<User> iterator = usersCursor.iterator();
+      Assertions.assertEquals("User1", iterator.next().getName());
+
+      usersCursor.close();
+      Assertions.assertFalse(usersCursor.isOpen());
+      Assertions.assertFalse(usersCursor.isConsumed());
+      Assertions.assertFalse(iterator.hasNext());
+      Assertions.assertEquals(0, usersCursor.getCurrentIndex());
+
+      // closing again is a no-op
+      usersCursor.close();
+      Assertions.assertThrows(IllegalStateException.class, usersCursor::iterator);
+    }
+  }
+
+  @Test
+  void shouldCloseWithoutIterating() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Cursor<User> usersCursor = mapper.getAllUsersPrefetched();
+      usersCursor.close();
+      Assertions.assertFalse(usersCursor.isOpen());
+      Assertions.assertThrows(IllegalStateException.class, usersCursor::iterator);
+    }
+  }
+
+  @Test
+  void shouldCloseCursorOnSessionClose() {
+    Cursor<User> usersCursor;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      usersCursor = mapper.getAllUsersPrefetched();
+      Iterator<User> iterator = usersCursor.iterator();
+      Assertions.assertTrue(iterator.hasNext());
+    }
+    Assertions.assertFalse(usersCursor.isOpen());
+    Assertions.assertFalse(usersCursor.isConsumed());
+  }
+
+  @Test
+  void shouldKeepNullItemsAndRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Cursor<User> usersCursor = mapper.getNullUsersPrefetched(new RowBounds(1, 2));
+      Assertions.assertTrue(usersCursor instanceof PrefetchingCursor);
+      List<User> users = new ArrayList<>();
+      usersCursor.forEach(users::add);
+      Assertions.assertEquals(2, users.size());
+      Assertions.assertEquals("Kate", users.get(0).getName());
+      Assertions.assertNull(users.get(1));
+      Assertions.assertEquals(2, usersCursor.getCurrentIndex());
+      Assertions.assertTrue(usersCursor.isConsumed());
+    }
+  }
+
+}
@@ -0,0 +1,190 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.TransactionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+/**
+ * Tests for {@link StreamingBlobTypeHandler}.
+ */
+class StreamingBlobTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<StreamingBlob> TYPE_HANDLER = new StreamingBlobTypeHandler();
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @Mock
+  protected Blob blob;
+
+  @BeforeAll
+  static void setupSqlSessionFactory() throws Exception {
+    DataSource dataSource = BaseDataTest.createUnpooledDataSource("org/apache/ibatis/type/jdbc.properties");
+    TransactionFactory transactionFactory = new JdbcTransactionFactory();
+    Environment environment = new Environment("Production", transactionFactory, dataSource);
+    Configuration configuration = new Configuration(environment);
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/type/StreamingBlobTypeHandlerTest.sql");
+  }
+
+  @Override
+  @Test
+  public void shouldSetParameter() throws Exception {
+    InputStream in = new ByteArrayInputStream("Hello".getBytes());
+    TYPE_HANDLER.setParameter(ps, 1, StreamingBlob.of(in), null);
+    verify(ps).setBlob(1, in);
+    TYPE_HANDLER.setParameter(ps, 2, StreamingBlob.of(in, 5), null);
+    verify(ps).setBlob(2, in, 5L);
+    TYPE_HANDLER.setParameter(ps, 3, StreamingBlob.of(blob), null);
+    verify(ps).setBlob(3, blob);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByName() throws Exception {
+    when(rs.getBlob("column")).thenReturn(blob);
+    assertThat(TYPE_HANDLER.getResult(rs, "column").getBlob()).isSameAs(blob);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByName() throws Exception {
+    when(rs.getBlob("column")).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(rs, "column")).isNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByPosition() throws Exception {
+    when(rs.getBlob(1)).thenReturn(blob);
+    assertThat(TYPE_HANDLER.getResult(rs, 1).getBlob()).isSameAs(blob);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByPosition() throws Exception {
+    when(rs.getBlob(1)).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(rs, 1)).isNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    when(cs.getBlob(1)).thenReturn(blob);
+    assertThat(TYPE_HANDLER.getResult(cs, 1).getBlob()).isSameAs(blob);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromCallableStatement() throws Exception {
+    when(cs.getBlob(1)).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(cs, 1)).isNull();
+  }
+
+  @Test
+  void shouldNotOpenStreamUntilRead() throws Exception {
+    when(rs.getBlob(1)).thenReturn(blob);
+    when(blob.getBinaryStream()).thenReturn(new ByteArrayInputStream("Hello".getBytes()));
+    StreamingBlob result = TYPE_HANDLER.getResult(rs, 1);
+    verify(blob, never()).getBinaryStream();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertThat(result.transferTo(Channels.newChannel(out))).isEqualTo(5);
+    assertThat(out.toString()).isEqualTo("Hello");
+    result.close();
+    verify(blob).free();
+  }
+
+  @Test
+  void integrationTest() throws Exception {
+    byte[] large = new byte[100000];
+    for (int i = 0; i < large.length; i++) {
+      large[i] = (byte) i;
+    }
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      Mapper mapper = session.getMapper(Mapper.class);
+      mapper.insert(1, StreamingBlob.of(new ByteArrayInputStream("Hello".getBytes(StandardCharsets.UTF_8))));
+      mapper.insert(2, StreamingBlob.of(new ByteArrayInputStream(large), large.length));
+      session.commit();
+
+      // readable after the result set is closed
+      List<StreamingBlob> blobs = mapper.findAll();
+      assertThat(blobs).hasSize(2);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertThat(blobs.get(0).transferTo(out)).isEqualTo(5);
+      assertThat(out.toString("UTF-8")).isEqualTo("Hello");
+      out = new ByteArrayOutputStream();
+      assertThat(blobs.get(1).length()).isEqualTo(large.length);
+      blobs.get(1).transferTo(Channels.newChannel(out));
+      assertThat(out.toByteArray()).isEqualTo(large);
+
+      // readable after the cursor moved on
+      try (Cursor<StreamingBlob> cursor = mapper.cursor()) {
+        Iterator<StreamingBlob> iterator = cursor.iterator();
+        StreamingBlob first = iterator.next();
+        StreamingBlob second = iterator.next();
+        assertThat(iterator.hasNext()).isFalse();
+        out = new ByteArrayOutputStream();
+        first.transferTo(out);
+        assertThat(out.toString("UTF-8")).isEqualTo("Hello");
+        assertThat(second.length()).isEqualTo(large.length);
+      }
+    }
+  }
+
+  interface Mapper {
+    @Select("SELECT CONTENT FROM TEST_STREAMING_BLOB ORDER BY ID")
+    List<StreamingBlob> findAll();
+
+    @Select("SELECT CONTENT FROM TEST_STREAMING_BLOB ORDER BY ID")
+    Cursor<StreamingBlob> cursor();
+
+    @Insert("INSERT INTO TEST_STREAMING_BLOB (ID, CONTENT) VALUES(#{id}, #{content})")
+    void insert(@Param("id") int id, @Param("content") StreamingBlob content);
+  }
+
+}
@@ -0,0 +1,169 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.sql.Clob;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.TransactionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+/**
+ * Tests for {@link StreamingClobTypeHandler}.
+ */
+class StreamingClobTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<StreamingClob> TYPE_HANDLER = new StreamingClobTypeHandler();
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @Mock
+  protected Clob clob;
+
+  @BeforeAll
+  static void setupSqlSessionFactory() throws Exception {
+    DataSource dataSource = BaseDataTest.createUnpooledDataSource("org/apache/ibatis/type/jdbc.properties");
+    TransactionFactory transactionFactory = new JdbcTransactionFactory();
+    Environment environment = new Environment("Production", transactionFactory, dataSource);
+    Configuration configuration = new Configuration(environment);
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/type/StreamingClobTypeHandlerTest.sql");
+  }
+
+  @Override
+  @Test
+  public void shouldSetParameter() throws Exception {
+    Reader reader = new StringReader("Hello");
+    TYPE_HANDLER.setParameter(ps, 1, StreamingClob.of(reader), null);
+    verify(ps).setClob(1, reader);
+    TYPE_HANDLER.setParameter(ps, 2, StreamingClob.of(reader, 5), null);
+    verify(ps).setClob(2, reader, 5L);
+    TYPE_HANDLER.setParameter(ps, 3, StreamingClob.of(clob), null);
+    verify(ps).setClob(3, clob);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByName() throws Exception {
+    when(rs.getClob("column")).thenReturn(clob);
+    assertThat(TYPE_HANDLER.getResult(rs, "column").getClob()).isSameAs(clob);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByName() throws Exception {
+    when(rs.getClob("column")).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(rs, "column")).isNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByPosition() throws Exception {
+    when(rs.getClob(1)).thenReturn(clob);
+    assertThat(TYPE_HANDLER.getResult(rs, 1).getClob()).isSameAs(clob);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByPosition() throws Exception {
+    when(rs.getClob(1)).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(rs, 1)).isNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    when(cs.getClob(1)).thenReturn(clob);
+    assertThat(TYPE_HANDLER.getResult(cs, 1).getClob()).isSameAs(clob);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromCallableStatement() throws Exception {
+    when(cs.getClob(1)).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(cs, 1)).isNull();
+  }
+
+  @Test
+  void shouldNotOpenReaderUntilRead() throws Exception {
+    when(rs.getClob(1)).thenReturn(clob);
+    when(clob.getCharacterStream()).thenReturn(new StringReader("Hello"));
+    StreamingClob result = TYPE_HANDLER.getResult(rs, 1);
+    verify(clob, never()).getCharacterStream();
+    StringWriter out = new StringWriter();
+    assertThat(result.transferTo(out)).isEqualTo(5);
+    assertThat(out.toString()).isEqualTo("Hello");
+    result.close();
+    verify(clob).free();
+  }
+
+  @Test
+  void integrationTest() throws Exception {
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      large.append(i % 10);
+    }
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      Mapper mapper = session.getMapper(Mapper.class);
+      mapper.insert(1, StreamingClob.of(new StringReader("Hello")));
+      mapper.insert(2, StreamingClob.of(new StringReader(large.toString()), large.length()));
+      session.commit();
+
+      List<StreamingClob> clobs = mapper.findAll();
+      assertThat(clobs).hasSize(2);
+      StringWriter out = new StringWriter();
+      clobs.get(0).transferTo(out);
+      assertThat(out.toString()).isEqualTo("Hello");
+      out = new StringWriter();
+      assertThat(clobs.get(1).transferTo(out)).isEqualTo(large.length());
+      assertThat(out.toString()).isEqualTo(large.toString());
+    }
+  }
+
+  interface Mapper {
+    @Select("SELECT CONTENT FROM TEST_STREAMING_CLOB ORDER BY ID")
+    List<StreamingClob> findAll();
+
+    @Insert("INSERT INTO TEST_STREAMING_CLOB (ID, CONTENT) VALUES(#{id}, #{content})")
+    void insert(@Param("id") int id, @Param("content") StreamingClob content);
+  }
+
+}